@@ -5,8 +5,14 @@ import com.enspy.syndicmanager.dto.request.LoginDto;
 import com.enspy.syndicmanager.dto.request.RegisterDto;
 import com.enspy.syndicmanager.dto.response.ResponseDto;
 import com.enspy.syndicmanager.services.AuthService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.BodyInserters;
@@ -14,12 +20,15 @@ import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 import reactor.util.retry.Retry;
 
 import java.time.Duration;
+import java.time.Instant;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class Authentication {
@@ -29,28 +38,148 @@ public class Authentication {
     private final WebClient tokenWebClient;
     private String authToken;
     AuthService authService;
+    private final MeterRegistry meterRegistry;
+
+    // Marge avant expires_in en deçà de laquelle le token n'est plus servi
+    @Value("${syndicmanager.auth.client-token.expiry-skew-seconds:30}")
+    private long expirySkewSeconds;
+
+    // Durée de validité restante à partir de laquelle on rafraîchit en arrière-plan
+    @Value("${syndicmanager.auth.client-token.refresh-ahead-seconds:120}")
+    private long refreshAheadSeconds;
+
+    private final AtomicReference<CachedToken> cachedClientToken = new AtomicReference<>();
+    // Requête en cours vers l'IdP, partagée par tous les appelants concurrents
+    private final AtomicReference<Mono<CachedToken>> inFlightRefresh = new AtomicReference<>();
+
+    private Counter tokenHits;
+    private Counter tokenMisses;
+    private Counter tokenRefreshes;
+    private Counter tokenRefreshFailures;
+
+    private record CachedToken(String value, Instant refreshAt, Instant expiresAt) {
+    }
 
-    private static final String TOKEN_ENDPOINT = "https://gateway.yowyob.com/auth-service/oauth/token";
     private static final String CLIENT_ID     = "test-client";
     private static final String CLIENT_SECRET = "secret";
 
-    public Authentication(WebClient webClient, AuthService authService, WebClient.Builder webClientBuilder) {
+    public Authentication(WebClient webClient, AuthService authService, WebClient.Builder webClientBuilder,
+                          MeterRegistry meterRegistry,
+                          @Value("${syndicmanager.auth.token-endpoint:https://gateway.yowyob.com/auth-service/oauth/token}")
+                          String tokenEndpoint) {
         this.webClient = Objects.requireNonNull(webClient, "WebClient cannot be null");
 
         // WebClient dédié à l'IdP pour récupérer le token client_credentials
         this.tokenWebClient = WebClient.builder()
-                .baseUrl(TOKEN_ENDPOINT)
+                .baseUrl(tokenEndpoint)
                 .defaultHeaders(h -> h.setBasicAuth(CLIENT_ID, CLIENT_SECRET))
                 .build();
 
         this.authService = authService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        tokenHits = clientTokenCounter("hit", "Token client servi depuis le cache");
+        tokenMisses = clientTokenCounter("miss", "Token client absent ou expiré, appel bloquant à l'IdP");
+        tokenRefreshes = clientTokenCounter("refresh", "Rafraîchissements anticipés du token client");
+        tokenRefreshFailures = clientTokenCounter("refresh_failure", "Échecs de récupération du token client");
+    }
+
+    private Counter clientTokenCounter(String result, String description) {
+        return Counter.builder("syndicmanager.auth.client_token")
+                .tag("result", result)
+                .description(description)
+                .register(meterRegistry);
     }
 
     /**
-     * 1) Récupère le token OAuth2 (Client Credentials).
-     * 2) Renvoie le Mono<String> du access_token.
+     * Token client_credentials mis en cache jusqu'à peu avant son expiration.
+     * Dans la fenêtre de rafraîchissement anticipé, le token courant est servi
+     * et un nouveau est demandé en arrière-plan.
      */
     private Mono<String> getClientToken() {
+        return Mono.defer(() -> {
+            Instant now = Instant.now();
+            CachedToken token = cachedClientToken.get();
+            if (token != null && now.isBefore(token.expiresAt())) {
+                tokenHits.increment();
+                if (!now.isBefore(token.refreshAt()) && inFlightRefresh.get() == null) {
+                    tokenRefreshes.increment();
+                    refreshClientToken().subscribe(refreshed -> { }, ex -> { });
+                }
+                return Mono.just(token.value());
+            }
+
+            tokenMisses.increment();
+            return refreshClientToken().map(CachedToken::value);
+        });
+    }
+
+    /**
+     * Une seule requête vers l'IdP à la fois : les appelants concurrents
+     * s'abonnent au même résultat.
+     */
+    private Mono<CachedToken> refreshClientToken() {
+        while (true) {
+            Mono<CachedToken> current = inFlightRefresh.get();
+            if (current != null) {
+                return current;
+            }
+
+            Sinks.One<CachedToken> sink = Sinks.one();
+            Mono<CachedToken> shared = sink.asMono();
+            if (!inFlightRefresh.compareAndSet(null, shared)) {
+                continue;
+            }
+
+            fetchClientToken()
+                    .map(this::toCachedToken)
+                    .subscribe(token -> {
+                        cachedClientToken.set(token);
+                        inFlightRefresh.set(null);
+                        sink.tryEmitValue(token);
+                    }, ex -> {
+                        tokenRefreshFailures.increment();
+                        inFlightRefresh.set(null);
+                        sink.tryEmitError(ex);
+                    });
+            return shared;
+        }
+    }
+
+    private CachedToken toCachedToken(TokenResponse tokenResponse) {
+        Instant now = Instant.now();
+        long expiresIn = tokenResponse.getExpires_in() != null ? tokenResponse.getExpires_in() : 0;
+        // Sans expires_in le token n'est pas réutilisé
+        Instant expiresAt = now.plusSeconds(Math.max(0, expiresIn - expirySkewSeconds));
+        Instant refreshAt = now.plusSeconds(Math.max(0, expiresIn - refreshAheadSeconds));
+        return new CachedToken(tokenResponse.getAccessToken(), refreshAt.isAfter(expiresAt) ? expiresAt : refreshAt, expiresAt);
+    }
+
+    /**
+     * Oublie le token client quand la gateway le refuse (401 avec error="invalid_token", RFC 6750).
+     * Un 401 dû aux identifiants de l'utilisateur le laisse en cache, de même qu'un token déjà remplacé
+     * par un rafraîchissement concurrent.
+     */
+    private void invalidateClientToken(String clientToken, Throwable ex) {
+        if (ex instanceof WebClientResponseException wcre
+                && wcre.getStatusCode() == HttpStatus.UNAUTHORIZED
+                && isInvalidToken(wcre.getHeaders().getFirst(HttpHeaders.WWW_AUTHENTICATE))) {
+            cachedClientToken.updateAndGet(token -> token != null && token.value().equals(clientToken) ? null : token);
+        }
+    }
+
+    private static boolean isInvalidToken(String wwwAuthenticate) {
+        return wwwAuthenticate != null && wwwAuthenticate.replace(" ", "").contains("error=\"invalid_token\"");
+    }
+
+    /**
+     * 1) Récupère le token OAuth2 (Client Credentials) auprès de l'IdP.
+     * 2) Renvoie le Mono<TokenResponse> validé.
+     */
+    private Mono<TokenResponse> fetchClientToken() {
         return tokenWebClient.post()
                 .contentType(MediaType.APPLICATION_FORM_URLENCODED)
                 .body(BodyInserters
@@ -76,7 +205,7 @@ public class Authentication {
                     if (accessToken == null || accessToken.trim().isEmpty()) {
                         return Mono.error(new RuntimeException("Access token null ou vide dans la réponse OAuth2"));
                     }
-                    return Mono.just(accessToken);
+                    return Mono.just(tokenResponse);
                 })
                 .doOnError(ex -> System.err.println("Erreur lors de la récupération du token client: " + ex.getMessage()));
     }
@@ -101,7 +230,8 @@ public class Authentication {
                             .headers(h -> h.setBearerAuth(clientToken))
                             .bodyValue(loginDto)
                             .retrieve()
-                            .bodyToMono(LoginResponse.class);
+                            .bodyToMono(LoginResponse.class)
+                            .doOnError(ex -> invalidateClientToken(clientToken, ex));
                 })
                 .flatMap(response -> {
                     if (response == null) {
@@ -134,14 +264,15 @@ public class Authentication {
                             .uri("/auth-service/api/register")
                             .headers(h -> h.setBearerAuth(clientToken))
                             .bodyValue(registerDto)
-                            .exchangeToMono(this::handleResponse);
+                            .exchangeToMono(this::handleResponse)
+                            .doOnError(ex -> invalidateClientToken(clientToken, ex));
                 })
                 .flatMap(responseDto -> {
 
                     if (responseDto.getStatus() == 201 && responseDto.getData() != null) {
                         try {
 
-                            Map<String, Object> data = (Map<String, Object>) responseDto.getData();
+                            Map<?, ?> data = (Map<?, ?>) responseDto.getData();
                             String idString = (String) data.get("id");
                             UUID userId = UUID.fromString(idString);
 
@@ -193,7 +324,7 @@ public class Authentication {
             return response.bodyToMono(new ParameterizedTypeReference<Map<String,Object>>() {})
                     .map(jsonMap -> {
                         // 2) Remplit votre DTO
-                        ResponseDto dto = new ResponseDto();
+                        ResponseDto<Map<String, Object>> dto = new ResponseDto<>();
                         dto.setStatus(response.statusCode().value());
                         dto.setData(jsonMap);      // <— le JSON désérialisé
                         return dto;
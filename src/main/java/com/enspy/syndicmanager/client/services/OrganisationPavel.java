@@ -1,35 +1,69 @@
 package com.enspy.syndicmanager.client.services;
 
-import com.enspy.syndicmanager.client.dto.request.CreateOrganisationDto;
 import com.enspy.syndicmanager.client.dto.response.AgencyDto;
 import com.enspy.syndicmanager.client.dto.response.OrganizationDto;
+import com.enspy.syndicmanager.client.utils.GatewayResponseCache;
 import com.enspy.syndicmanager.dto.response.ResponseDto;
-import lombok.AllArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.List;
 
 @Service
-@AllArgsConstructor
+@RequiredArgsConstructor
 public class OrganisationPavel {
 
-    ApiService apiService;
+    private final ApiService apiService;
+    private final MeterRegistry meterRegistry;
+
+    // Durée pendant laquelle une réponse est servie sans redemander à l'organization-service
+    @Value("${syndicmanager.gateway.cache.fresh-ms:300000}")
+    private long freshMs;
+
+    // Au-delà, réponse encore servie pendant stale-ms le temps de la revalider en arrière-plan
+    @Value("${syndicmanager.gateway.cache.stale-ms:3600000}")
+    private long staleMs;
+
+    @Value("${syndicmanager.gateway.cache.not-found-ms:60000}")
+    private long notFoundMs;
+
+    @Value("${syndicmanager.gateway.cache.max-size:1000}")
+    private long maxSize;
+
+    private GatewayResponseCache agencies;
+    private GatewayResponseCache organisationInfos;
+
+    @PostConstruct
+    void initCaches() {
+        agencies = newCache("gateway.agencies");
+        organisationInfos = newCache("gateway.organisation_infos");
+    }
+
+    private GatewayResponseCache newCache(String name) {
+        return new GatewayResponseCache(name, maxSize, Duration.ofMillis(freshMs), Duration.ofMillis(staleMs),
+                Duration.ofMillis(notFoundMs), meterRegistry);
+    }
 
     // Liste des agences (antennes) d’un syndicat
     public Mono<ResponseDto> getAgencies(String organisationId) {
         String endpoint = "/organization-service/organizations/" + organisationId + "/agencies";
-        ParameterizedTypeReference<AgencyDto> typeRef = new ParameterizedTypeReference<AgencyDto>() {};
-        return apiService.sendRequest(HttpMethod.GET, endpoint, null, typeRef);
+        ParameterizedTypeReference<List<AgencyDto>> typeRef = new ParameterizedTypeReference<List<AgencyDto>>() {};
+        return agencies.get(organisationId, () -> apiService.sendRequest(HttpMethod.GET, endpoint, null, typeRef));
     }
 
     // Afficher les informations détaillées d’une organisation(syndicat)
     public Mono<ResponseDto> getOrganisationInfoById(String organisationId, String informationId) {
         String endpoint = "/organization-service/organizations/" + organisationId + "/practical-infos/" + informationId;
         ParameterizedTypeReference<OrganizationDto> typeRef = new ParameterizedTypeReference<OrganizationDto>() {};
-        return apiService.sendRequest(HttpMethod.GET, endpoint, null, typeRef);
+        return organisationInfos.get(organisationId + "/" + informationId,
+                () -> apiService.sendRequest(HttpMethod.GET, endpoint, null, typeRef));
     }
 
 
@@ -0,0 +1,163 @@
+package com.enspy.syndicmanager.client.utils;
+
+import com.enspy.syndicmanager.client.tokenHandler.TokenContextWebFilter;
+import com.enspy.syndicmanager.dto.response.ResponseDto;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Cache des réponses d'un appel GET à la gateway (ApiService).
+ * La gateway décide de l'accès avec le token de l'appelant : chaque entrée est propre à un token
+ * (empreinte SHA-256 dans la clé), une réponse n'est jamais servie à un autre token que celui qui l'a obtenue.
+ * - Les appels simultanés pour une même clé et un même token attendent la même requête.
+ * - Une réponse 2xx est fraîche pendant fresh, puis servie telle quelle pendant stale
+ *   tandis qu'une seule requête la revalide ; si la revalidation échoue, l'ancienne réponse reste servie.
+ * - Un 404 est gardé notFound ; les autres erreurs ne sont pas gardées.
+ * Les requêtes partent du thread de l'appelant : le filtre d'authentification du WebClient y trouve le token.
+ */
+public class GatewayResponseCache {
+
+    private final AsyncCache<String, Entry> entries;
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+    private final Duration fresh;
+    private final Duration stale;
+    private final Duration notFound;
+
+    private record Entry(ResponseDto response, Instant freshUntil, Duration retainedFor) {
+    }
+
+    // Réponse à ne pas garder, transmise à tous les appelants de la même requête
+    private static final class UncachedResponse extends RuntimeException {
+
+        private final transient ResponseDto response;
+
+        private UncachedResponse(ResponseDto response) {
+            super(null, null, false, false);
+            this.response = response;
+        }
+    }
+
+    public GatewayResponseCache(String name, long maxSize, Duration fresh, Duration stale, Duration notFound,
+                                MeterRegistry meterRegistry) {
+        this.fresh = fresh;
+        this.stale = stale;
+        this.notFound = notFound;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return entry.retainedFor().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.retainedFor().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries.synchronous(), name);
+    }
+
+    public Mono<ResponseDto> get(String key, Supplier<Mono<ResponseDto>> loader) {
+        // Lu ici, sur le thread de la requête entrante qui porte le token
+        String scopedKey = callerScope() + ":" + key;
+        return Mono.defer(() -> {
+            CompletableFuture<Entry> cached = entries.getIfPresent(scopedKey);
+            if (cached != null && cached.isDone()) {
+                if (!cached.isCompletedExceptionally()) {
+                    Entry entry = cached.join();
+                    if (Instant.now().isAfter(entry.freshUntil())) {
+                        revalidate(scopedKey, loader);
+                    }
+                    return Mono.just(entry.response());
+                }
+                entries.asMap().remove(scopedKey, cached);
+            }
+
+            CompletableFuture<Entry> loading = entries.get(scopedKey, (k, executor) -> loader.get()
+                    .map(this::toEntry)
+                    .toFuture());
+            // Un appelant qui abandonne n'annule pas la requête attendue par les autres
+            return Mono.fromFuture(loading, true)
+                    // Retirée avant de répondre : l'appel suivant refait la requête
+                    .doOnError(e -> entries.asMap().remove(scopedKey, loading))
+                    .map(Entry::response)
+                    .onErrorResume(this::isUncached, e -> Mono.just(uncached(e).response));
+        });
+    }
+
+    private static String callerScope() {
+        return TokenContextWebFilter.getCurrentToken()
+                .map(GatewayResponseCache::sha256)
+                .orElse("anonymous");
+    }
+
+    private static String sha256(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    private void revalidate(String key, Supplier<Mono<ResponseDto>> loader) {
+        if (!revalidating.add(key)) {
+            return;
+        }
+        loader.get()
+                .doFinally(signal -> revalidating.remove(key))
+                .subscribe(response -> {
+                    if (isSuccess(response) || response.getStatus() == HttpStatus.NOT_FOUND.value()) {
+                        entries.put(key, CompletableFuture.completedFuture(toEntry(response)));
+                    }
+                }, error -> { });
+    }
+
+    private Entry toEntry(ResponseDto response) {
+        if (isSuccess(response)) {
+            return new Entry(response, Instant.now().plus(fresh), fresh.plus(stale));
+        }
+        if (response.getStatus() == HttpStatus.NOT_FOUND.value()) {
+            return new Entry(response, Instant.now().plus(notFound), notFound);
+        }
+        throw new UncachedResponse(response);
+    }
+
+    private static boolean isSuccess(ResponseDto response) {
+        return response.getStatus() >= 200 && response.getStatus() < 300;
+    }
+
+    private boolean isUncached(Throwable error) {
+        return uncached(error) != null;
+    }
+
+    private static UncachedResponse uncached(Throwable error) {
+        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+        return cause instanceof UncachedResponse uncachedResponse ? uncachedResponse : null;
+    }
+}
@@ -0,0 +1,135 @@
+package com.enspy.syndicmanager.config;
+
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.retry.MessageBatchRecoverer;
+import org.springframework.amqp.rabbit.retry.RepublishMessageRecoverer;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Files RabbitMQ des notifications d'événements :
+ * EVENTS_QUEUE reçoit un message par création, modification ou rappel d'événement,
+ * MAIL_QUEUE un message par e-mail à envoyer. Les messages en échec partent dans DEAD_LETTER_QUEUE,
+ * republiés par l'application plutôt que par un argument x-dead-letter-exchange que tous les brokers AMQP ne gèrent pas.
+ */
+@Configuration
+@ConditionalOnProperty(name = "syndicmanager.notifications.enabled", havingValue = "true")
+public class NotificationConfig {
+
+    public static final String EXCHANGE = "syndicmanager.notifications";
+    public static final String EVENTS_QUEUE = "syndicmanager.notifications.events";
+    public static final String MAIL_QUEUE = "syndicmanager.notifications.mail";
+    public static final String DEAD_LETTER_EXCHANGE = "syndicmanager.notifications.dlx";
+    public static final String DEAD_LETTER_QUEUE = "syndicmanager.notifications.dead-letter";
+
+    public static final String EVENTS_ROUTING_KEY = "events";
+    public static final String MAIL_ROUTING_KEY = "mail";
+
+    @Value("${syndicmanager.notifications.batch-size:50}")
+    private int batchSize;
+
+    @Value("${syndicmanager.notifications.batch-timeout-ms:1000}")
+    private long batchTimeoutMs;
+
+    @Value("${syndicmanager.notifications.consumers:2}")
+    private int consumers;
+
+    @Value("${syndicmanager.notifications.max-attempts:3}")
+    private int maxAttempts;
+
+    @Bean
+    public DirectExchange notificationExchange() {
+        return new DirectExchange(EXCHANGE);
+    }
+
+    @Bean
+    public DirectExchange notificationDeadLetterExchange() {
+        return new DirectExchange(DEAD_LETTER_EXCHANGE);
+    }
+
+    @Bean
+    public Queue eventNotificationQueue() {
+        return QueueBuilder.durable(EVENTS_QUEUE).build();
+    }
+
+    @Bean
+    public Queue mailNotificationQueue() {
+        return QueueBuilder.durable(MAIL_QUEUE).build();
+    }
+
+    @Bean
+    public Queue notificationDeadLetterQueue() {
+        return QueueBuilder.durable(DEAD_LETTER_QUEUE).build();
+    }
+
+    @Bean
+    public Binding eventNotificationBinding() {
+        return BindingBuilder.bind(eventNotificationQueue()).to(notificationExchange()).with(EVENTS_ROUTING_KEY);
+    }
+
+    @Bean
+    public Binding mailNotificationBinding() {
+        return BindingBuilder.bind(mailNotificationQueue()).to(notificationExchange()).with(MAIL_ROUTING_KEY);
+    }
+
+    // Les messages gardent leur clé de routage d'origine : une seule file de rebut pour les deux
+    @Bean
+    public Binding eventDeadLetterBinding() {
+        return BindingBuilder.bind(notificationDeadLetterQueue()).to(notificationDeadLetterExchange()).with(EVENTS_ROUTING_KEY);
+    }
+
+    @Bean
+    public Binding mailDeadLetterBinding() {
+        return BindingBuilder.bind(notificationDeadLetterQueue()).to(notificationDeadLetterExchange()).with(MAIL_ROUTING_KEY);
+    }
+
+    @Bean
+    public MessageConverter notificationMessageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+
+    /**
+     * Consommateurs par lots : jusqu'à batch-size messages sont remis ensemble au listener,
+     * ou moins si batch-timeout-ms s'écoule sans nouveau message. Un lot en échec est retenté
+     * max-attempts fois puis republié dans la file de rebut, avec la trace de l'erreur en en-tête.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory notificationBatchContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            RabbitTemplate rabbitTemplate) {
+        // Les messages gardent leur clé de routage d'origine dans la file de rebut
+        RepublishMessageRecoverer republisher = new RepublishMessageRecoverer(rabbitTemplate, DEAD_LETTER_EXCHANGE)
+                .errorRoutingKeyPrefix("");
+        MessageBatchRecoverer deadLetter = (messages, cause) -> messages.forEach(message -> republisher.recover(message, cause));
+
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setMessageConverter(notificationMessageConverter());
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(batchTimeoutMs);
+        factory.setPrefetchCount(batchSize * 2);
+        factory.setConcurrentConsumers(consumers);
+        factory.setAdviceChain(RetryInterceptorBuilder.stateless()
+                .maxAttempts(maxAttempts)
+                .backOffOptions(1000, 2.0, 10000)
+                .recoverer(deadLetter)
+                .build());
+        factory.setDefaultRequeueRejected(false);
+        return factory;
+    }
+}
@@ -0,0 +1,113 @@
+package com.enspy.syndicmanager.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Accès SQLite en mode WAL avec une seule connexion d'écriture et un pool de lecture.
+ *
+ * Les transactions readOnly sont servies par le pool de lecture, qui ne bloque jamais l'écrivain ;
+ * tout le reste (transactions d'écriture, JdbcTemplate hors transaction, mise à jour du schéma)
+ * passe par l'unique connexion d'écriture. Les écritures concurrentes attendent donc leur tour
+ * dans la file du pool d'écriture (write-timeout-ms) au lieu d'échouer en SQLITE_BUSY.
+ */
+@Configuration
+@ConditionalOnExpression("'${spring.datasource.url:}'.startsWith('jdbc:sqlite:')")
+public class SqliteDataSourceConfig {
+
+    private enum Route { READ, WRITE }
+
+    @Value("${syndicmanager.sqlite.read-pool-size:4}")
+    private int readPoolSize;
+
+    @Value("${syndicmanager.sqlite.write-timeout-ms:30000}")
+    private long writeTimeoutMs;
+
+    @Value("${syndicmanager.sqlite.busy-timeout-ms:5000}")
+    private int busyTimeoutMs;
+
+    @Value("${syndicmanager.sqlite.synchronous:NORMAL}")
+    private String synchronous;
+
+    @Value("${syndicmanager.sqlite.cache-size-kb:16384}")
+    private int cacheSizeKb;
+
+    @Value("${syndicmanager.sqlite.mmap-size-mb:256}")
+    private long mmapSizeMb;
+
+    @Bean(name = "sqliteWriteDataSource")
+    public HikariDataSource sqliteWriteDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = newPool(properties, "sqlite-writer");
+        dataSource.setMaximumPoolSize(1);
+        dataSource.setMinimumIdle(1);
+        dataSource.setConnectionTimeout(writeTimeoutMs);
+        return dataSource;
+    }
+
+    @Bean(name = "sqliteReadDataSource")
+    public HikariDataSource sqliteReadDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = newPool(properties, "sqlite-reader");
+        dataSource.setMaximumPoolSize(readPoolSize);
+        dataSource.setMinimumIdle(1);
+        // Garde-fou : une écriture routée par erreur vers ce pool échoue au lieu de contourner l'écrivain
+        dataSource.setConnectionInitSql("PRAGMA query_only = true");
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("sqliteWriteDataSource") DataSource writeDataSource,
+                                 @Qualifier("sqliteReadDataSource") DataSource readDataSource) {
+        AbstractRoutingDataSource routing = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Route.READ : Route.WRITE;
+            }
+        };
+        routing.setTargetDataSources(Map.of(Route.READ, readDataSource, Route.WRITE, writeDataSource));
+        routing.setDefaultTargetDataSource(writeDataSource);
+        routing.afterPropertiesSet();
+
+        // La connexion n'est obtenue qu'à la première requête, une fois le flag readOnly de la transaction connu
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(routing);
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+        return proxy;
+    }
+
+    private HikariDataSource newPool(DataSourceProperties properties, String poolName) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(poolName);
+        dataSource.setJdbcUrl(properties.determineUrl());
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setDataSourceProperties(pragmas());
+        return dataSource;
+    }
+
+    // Pragmas appliqués par le driver sqlite-jdbc à l'ouverture de chaque connexion
+    private Properties pragmas() {
+        Properties pragmas = new Properties();
+        pragmas.setProperty("journal_mode", "WAL");
+        pragmas.setProperty("synchronous", synchronous);
+        pragmas.setProperty("busy_timeout", String.valueOf(busyTimeoutMs));
+        // Valeur négative : taille du cache en KiB plutôt qu'en pages
+        pragmas.setProperty("cache_size", String.valueOf(-cacheSizeKb));
+        pragmas.setProperty("mmap_size", String.valueOf(mmapSizeMb * 1024 * 1024));
+        pragmas.setProperty("temp_store", "MEMORY");
+        return pragmas;
+    }
+}
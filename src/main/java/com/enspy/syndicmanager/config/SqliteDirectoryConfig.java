@@ -17,6 +17,10 @@ public class SqliteDirectoryConfig {
     @Bean
     public InitializingBean createSqliteDirectory() {
         return () -> {
+            // Profil sans SQLite (ex. prod sur PostgreSQL) : rien à créer
+            if (!datasourceUrl.startsWith("jdbc:sqlite:")) {
+                return;
+            }
             // Retirer le préfixe "jdbc:sqlite:"
             String path = datasourceUrl.replaceFirst("^jdbc:sqlite:", "");
             File dbFile = new File(path);
@@ -4,8 +4,9 @@ import com.enspy.syndicmanager.client.utils.WebClientUtils;
 import io.netty.channel.ChannelOption;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import io.netty.handler.timeout.WriteTimeoutHandler;
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -13,6 +14,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
 import reactor.netty.http.client.HttpClient;
 import reactor.netty.resources.ConnectionProvider;
 
@@ -20,31 +22,86 @@ import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 
 @Configuration
-@AllArgsConstructor
+@RequiredArgsConstructor
 @Slf4j
 public class WebClientConfig {
 
-    WebClientUtils webClientUtils;
+    private final WebClientUtils webClientUtils;
 
+    @Value("${syndicmanager.gateway.base-url:https://gateway.yowyob.com}")
+    private String baseUrl;
 
-    @Bean
-    @Primary
-    public WebClient webClient(WebClient.Builder builder) {
+    @Value("${syndicmanager.gateway.pool.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${syndicmanager.gateway.pool.pending-acquire-max-count:500}")
+    private int pendingAcquireMaxCount;
+
+    @Value("${syndicmanager.gateway.pool.pending-acquire-timeout-ms:10000}")
+    private long pendingAcquireTimeoutMs;
+
+    @Value("${syndicmanager.gateway.pool.max-idle-time-ms:30000}")
+    private long maxIdleTimeMs;
 
-        ConnectionProvider connectionProvider = ConnectionProvider.newConnection();
+    @Value("${syndicmanager.gateway.pool.max-life-time-ms:300000}")
+    private long maxLifeTimeMs;
+
+    @Value("${syndicmanager.gateway.pool.evict-in-background-ms:60000}")
+    private long evictInBackgroundMs;
+
+    @Value("${syndicmanager.gateway.http2:false}")
+    private boolean http2;
+
+    /**
+     * Pool de connexions keep-alive vers la gateway : les appels successifs réutilisent
+     * les connexions TCP/TLS ouvertes au lieu de refaire une poignée de main à chaque requête.
+     * Les métriques du pool sont publiées sous reactor.netty.connection.provider.*.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider gatewayConnectionProvider() {
+        return ConnectionProvider.builder("gateway")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+                .maxLifeTime(Duration.ofMillis(maxLifeTimeMs))
+                .evictInBackground(Duration.ofMillis(evictInBackgroundMs))
+                .lifo()
+                .metrics(true)
+                .build();
+    }
 
-        // Configuration HTTP client avec timeouts mais SANS pool
+    /**
+     * Client HTTP de la gateway (timeouts, keep-alive, HTTP/2 optionnel) sur le pool donné.
+     */
+    public HttpClient gatewayHttpClient(ConnectionProvider connectionProvider) {
         HttpClient httpClient = HttpClient.create(connectionProvider)
                 .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 10000) // 10s connexion
-                .option(ChannelOption.SO_KEEPALIVE, false)           // Pas de keep-alive
+                .option(ChannelOption.SO_KEEPALIVE, true)
                 .doOnConnected(conn -> conn
                         .addHandlerLast(new ReadTimeoutHandler(30, TimeUnit.SECONDS))   // 30s read
                         .addHandlerLast(new WriteTimeoutHandler(20, TimeUnit.SECONDS))) // 20s write
                 .responseTimeout(Duration.ofSeconds(45))             // 45s response
+                .metrics(true, uri -> "/")                           // Pas de tag par URI
                 .compress(false);                                    // Pas de compression
 
+        if (http2) {
+            // h2 négocié par ALPN en TLS, h2c en clair ; repli en HTTP/1.1 sinon
+            httpClient = baseUrl.startsWith("https")
+                    ? httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11).secure()
+                    : httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
+        return httpClient;
+    }
+
+    @Bean
+    @Primary
+    public WebClient webClient(WebClient.Builder builder, ConnectionProvider gatewayConnectionProvider) {
+
+        HttpClient httpClient = gatewayHttpClient(gatewayConnectionProvider);
+
         return builder
-                .baseUrl("https://gateway.yowyob.com")
+                .baseUrl(baseUrl)
                 .clientConnector(new ReactorClientHttpConnector(httpClient))
 
                 // Headers de base
@@ -67,5 +124,3 @@ public class WebClientConfig {
                 .build();
     }
 }
-
-
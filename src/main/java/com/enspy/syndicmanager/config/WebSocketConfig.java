@@ -0,0 +1,120 @@
+package com.enspy.syndicmanager.config;
+
+import com.enspy.syndicmanager.services.FeedBroadcastService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.TaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.config.annotation.DelegatingWebSocketMessageBrokerConfiguration;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+/**
+ * Canal STOMP sur /ws pour les mises à jour du fil (FeedBroadcastService).
+ * Les clients ne font que s'abonner, à FeedBroadcastService.FEED_TOPIC ou au topic d'une publication.
+ * Un client lent ne retient pas les autres : au-delà de send-buffer-size octets en attente,
+ * ses plus anciens messages sont abandonnés (il le voit à FeedUpdate.previousTick),
+ * et il est déconnecté si un envoi reste bloqué plus de send-time-limit-ms.
+ * Étend DelegatingWebSocketMessageBrokerConfiguration au lieu de @EnableWebSocketMessageBroker
+ * pour remplacer la politique par défaut, qui déconnecte dès que le tampon est plein.
+ */
+@Configuration
+public class WebSocketConfig extends DelegatingWebSocketMessageBrokerConfiguration {
+
+    @Value("${syndicmanager.feed.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${syndicmanager.feed.send-buffer-size:65536}")
+    private int sendBufferSize;
+
+    @Value("${syndicmanager.feed.heartbeat-ms:10000}")
+    private long heartbeatMs;
+
+    @Override
+    protected void registerStompEndpoints(StompEndpointRegistry registry) {
+        super.registerStompEndpoints(registry);
+        registry.addEndpoint("/ws").setAllowedOrigins("http://localhost:3000");
+    }
+
+    @Override
+    protected void configureMessageBroker(MessageBrokerRegistry registry) {
+        super.configureMessageBroker(registry);
+        registry.enableSimpleBroker("/topic")
+                .setHeartbeatValue(new long[]{heartbeatMs, heartbeatMs})
+                .setTaskScheduler(messageBrokerTaskScheduler());
+    }
+
+    @Override
+    protected void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        super.configureWebSocketTransport(registration);
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSize)
+                // Les clients n'envoient que des trames CONNECT/SUBSCRIBE
+                .setMessageSizeLimit(8 * 1024);
+    }
+
+    @Override
+    protected void configureClientInboundChannel(ChannelRegistration registration) {
+        super.configureClientInboundChannel(registration);
+        registration.interceptors(new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+                if (accessor == null) {
+                    return message;
+                }
+                // Sans ce contrôle, un SEND sur /topic serait diffusé tel quel à tous les abonnés
+                if (StompCommand.SEND.equals(accessor.getCommand())) {
+                    throw new MessageDeliveryException("Feed topics are read-only");
+                }
+                if (StompCommand.SUBSCRIBE.equals(accessor.getCommand()) && !isFeedTopic(accessor.getDestination())) {
+                    throw new MessageDeliveryException("Unknown topic: " + accessor.getDestination());
+                }
+                return message;
+            }
+        });
+    }
+
+    /**
+     * Planificateur des tâches @Scheduled. Sans lui, messageBrokerTaskScheduler serait le seul TaskScheduler
+     * et Spring y exécuterait aussi ces tâches, au risque de retarder les heartbeats STOMP.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(TaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean
+    @Override
+    public WebSocketHandler subProtocolWebSocketHandler(AbstractSubscribableChannel clientInboundChannel,
+                                                        AbstractSubscribableChannel clientOutboundChannel) {
+        return new SubProtocolWebSocketHandler(clientInboundChannel, clientOutboundChannel) {
+            @Override
+            protected WebSocketSession decorateSession(WebSocketSession session) {
+                return new ConcurrentWebSocketSessionDecorator(session, getSendTimeLimit(), getSendBufferSizeLimit(),
+                        ConcurrentWebSocketSessionDecorator.OverflowStrategy.DROP);
+            }
+        };
+    }
+
+    private static boolean isFeedTopic(String destination) {
+        return destination != null
+                && (destination.equals(FeedBroadcastService.FEED_TOPIC)
+                || destination.startsWith(FeedBroadcastService.PUBLICATION_TOPIC_PREFIX));
+    }
+}
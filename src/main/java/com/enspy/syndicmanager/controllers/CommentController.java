@@ -1,12 +1,16 @@
 package com.enspy.syndicmanager.controllers;
 
 import com.enspy.syndicmanager.dto.request.CommentRequest;
+import com.enspy.syndicmanager.dto.response.CommentThreadDto;
+import com.enspy.syndicmanager.dto.response.CursorPage;
 import com.enspy.syndicmanager.dto.response.ResponseDto;
+import com.enspy.syndicmanager.models.Comment;
 import com.enspy.syndicmanager.services.CommentService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -17,42 +21,56 @@ public class CommentController {
     private final CommentService commentService;
 
     @GetMapping
-    public ResponseEntity<ResponseDto> getAllComments() {
-        ResponseDto response = commentService.getAllComments();
+    public ResponseEntity<ResponseDto<List<Comment>>> getAllComments() {
+        ResponseDto<List<Comment>> response = commentService.getAllComments();
         return ResponseEntity.status(response.statusCode()).body(response);
     }
 
     @GetMapping("/publication/{publicationId}")
-    public ResponseEntity<ResponseDto> getCommentsByPublicationId(@PathVariable UUID publicationId) {
-        ResponseDto response = commentService.getCommentsByPublicationId(publicationId);
+    public ResponseEntity<ResponseDto<CursorPage<CommentThreadDto>>> getCommentsByPublicationId(
+            @PathVariable UUID publicationId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "3") int replies) {
+        ResponseDto<CursorPage<CommentThreadDto>> response =
+                commentService.getCommentsByPublicationId(publicationId, cursor, size, replies);
         return ResponseEntity.status(response.statusCode()).body(response);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ResponseDto> getCommentById(@PathVariable UUID id) {
-        ResponseDto response = commentService.getCommentById(id);
+    public ResponseEntity<ResponseDto<CommentThreadDto>> getCommentById(@PathVariable UUID id) {
+        ResponseDto<CommentThreadDto> response = commentService.getCommentById(id);
+        return ResponseEntity.status(response.statusCode()).body(response);
+    }
+
+    @GetMapping("/{id}/replies")
+    public ResponseEntity<ResponseDto<CursorPage<Comment>>> getReplies(
+            @PathVariable UUID id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        ResponseDto<CursorPage<Comment>> response = commentService.getReplies(id, cursor, size);
         return ResponseEntity.status(response.statusCode()).body(response);
     }
 
     @PostMapping("/add")
-    public ResponseEntity<ResponseDto> createComment(@RequestBody CommentRequest request) {
-        ResponseDto response = commentService.createComment(request);
+    public ResponseEntity<ResponseDto<Comment>> createComment(@RequestBody CommentRequest request) {
+        ResponseDto<Comment> response = commentService.createComment(request);
         return ResponseEntity.status(response.statusCode()).body(response);
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<ResponseDto> updateComment(
+    public ResponseEntity<ResponseDto<Comment>> updateComment(
             @PathVariable UUID id,
             @RequestBody CommentRequest request) {
-        ResponseDto response = commentService.updateComment(id, request);
+        ResponseDto<Comment> response = commentService.updateComment(id, request);
         return ResponseEntity.status(response.statusCode()).body(response);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<ResponseDto> deleteComment(
+    public ResponseEntity<ResponseDto<Void>> deleteComment(
             @PathVariable UUID id,
             @RequestParam UUID userId) {
-        ResponseDto response = commentService.deleteComment(id, userId);
+        ResponseDto<Void> response = commentService.deleteComment(id, userId);
         return ResponseEntity.status(response.statusCode()).body(response);
     }
 }
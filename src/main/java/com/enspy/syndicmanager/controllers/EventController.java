@@ -1,12 +1,20 @@
 package com.enspy.syndicmanager.controllers;
 
 import com.enspy.syndicmanager.dto.request.EventRequest;
+import com.enspy.syndicmanager.dto.request.ParticipantsRequest;
+import com.enspy.syndicmanager.dto.response.CursorPage;
+import com.enspy.syndicmanager.dto.response.EventSummaryDto;
+import com.enspy.syndicmanager.dto.response.ParticipantsUpdateDto;
 import com.enspy.syndicmanager.dto.response.ResponseDto;
+import com.enspy.syndicmanager.models.Event;
 import com.enspy.syndicmanager.services.EventService;
+import com.enspy.syndicmanager.services.ResponseCacheService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @RestController
@@ -15,67 +23,104 @@ import java.util.UUID;
 public class EventController {
 
     private final EventService eventService;
+    private final ResponseCacheService responseCacheService;
 
     @GetMapping
-    public ResponseEntity<ResponseDto> getAllEvents() {
-        ResponseDto response = eventService.getAllEvents();
+    public ResponseEntity<ResponseDto<CursorPage<EventSummaryDto>>> getAllEvents(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        ResponseDto<CursorPage<EventSummaryDto>> response = eventService.getAllEvents(from, to, cursor, size);
         return ResponseEntity.status(response.statusCode()).body(response);
     }
 
     @GetMapping("/upcoming")
-    public ResponseEntity<ResponseDto> getUpcomingEvents() {
-        ResponseDto response = eventService.getUpcomingEvents();
+    public ResponseEntity<byte[]> getUpcomingEvents(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return responseCacheService.serve(ResponseCacheService.Region.EVENTS,
+                ResponseCacheService.pageKey("upcoming", cursor, size, EventService.MAX_PAGE_SIZE),
+                () -> eventService.getUpcomingEvents(cursor, size));
+    }
+
+    @GetMapping("/upcoming/count")
+    public ResponseEntity<ResponseDto<Long>> countUpcomingEvents() {
+        ResponseDto<Long> response = eventService.countUpcomingEvents();
         return ResponseEntity.status(response.statusCode()).body(response);
     }
 
     @GetMapping("/past")
-    public ResponseEntity<ResponseDto> getPastEvents() {
-        ResponseDto response = eventService.getPastEvents();
+    public ResponseEntity<ResponseDto<CursorPage<EventSummaryDto>>> getPastEvents(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        ResponseDto<CursorPage<EventSummaryDto>> response = eventService.getPastEvents(cursor, size);
         return ResponseEntity.status(response.statusCode()).body(response);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ResponseDto> getEventById(@PathVariable UUID id) {
-        ResponseDto response = eventService.getEventById(id);
+    public ResponseEntity<ResponseDto<Event>> getEventById(@PathVariable UUID id) {
+        ResponseDto<Event> response = eventService.getEventById(id);
         return ResponseEntity.status(response.statusCode()).body(response);
     }
 
     @PostMapping
-    public ResponseEntity<ResponseDto> createEvent(@RequestBody EventRequest request) {
-        ResponseDto response = eventService.createEvent(request);
+    public ResponseEntity<ResponseDto<Event>> createEvent(@RequestBody EventRequest request) {
+        ResponseDto<Event> response = eventService.createEvent(request);
         return ResponseEntity.status(response.statusCode()).body(response);
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<ResponseDto> updateEvent(
+    public ResponseEntity<ResponseDto<Event>> updateEvent(
             @PathVariable UUID id,
             @RequestBody EventRequest request
     ) {
-        ResponseDto response = eventService.updateEvent(id, request);
+        ResponseDto<Event> response = eventService.updateEvent(id, request);
         return ResponseEntity.status(response.statusCode()).body(response);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<ResponseDto> deleteEvent(@PathVariable UUID id) {
-        ResponseDto response = eventService.deleteEvent(id);
+    public ResponseEntity<ResponseDto<Void>> deleteEvent(@PathVariable UUID id) {
+        ResponseDto<Void> response = eventService.deleteEvent(id);
         return ResponseEntity.status(response.statusCode()).body(response);
     }
 
     @PostMapping("/{eventId}/participants/{userId}")
-    public ResponseEntity<ResponseDto> addParticipant(
+    public ResponseEntity<ResponseDto<ParticipantsUpdateDto>> addParticipant(
             @PathVariable UUID eventId,
             @PathVariable UUID userId
     ) {
-        ResponseDto response = eventService.addParticipant(eventId, userId);
+        ResponseDto<ParticipantsUpdateDto> response = eventService.addParticipant(eventId, userId);
         return ResponseEntity.status(response.statusCode()).body(response);
     }
 
     @DeleteMapping("/{eventId}/participants/{userId}")
-    public ResponseEntity<ResponseDto> removeParticipant(
+    public ResponseEntity<ResponseDto<ParticipantsUpdateDto>> removeParticipant(
             @PathVariable UUID eventId,
             @PathVariable UUID userId
     ) {
-        ResponseDto response = eventService.removeParticipant(eventId, userId);
+        ResponseDto<ParticipantsUpdateDto> response = eventService.removeParticipant(eventId, userId);
+        return ResponseEntity.status(response.statusCode()).body(response);
+    }
+
+    @PostMapping("/{eventId}/participants")
+    public ResponseEntity<ResponseDto<ParticipantsUpdateDto>> addParticipants(
+            @PathVariable UUID eventId,
+            @RequestBody ParticipantsRequest request
+    ) {
+        ResponseDto<ParticipantsUpdateDto> response = eventService.addParticipants(eventId, request.getUserIds());
+        return ResponseEntity.status(response.statusCode()).body(response);
+    }
+
+    @DeleteMapping("/{eventId}/participants")
+    public ResponseEntity<ResponseDto<ParticipantsUpdateDto>> removeParticipants(
+            @PathVariable UUID eventId,
+            @RequestBody ParticipantsRequest request
+    ) {
+        ResponseDto<ParticipantsUpdateDto> response = eventService.removeParticipants(eventId, request.getUserIds());
         return ResponseEntity.status(response.statusCode()).body(response);
     }
 }
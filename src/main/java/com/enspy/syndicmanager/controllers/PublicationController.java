@@ -2,10 +2,19 @@ package com.enspy.syndicmanager.controllers;
 
 import com.enspy.syndicmanager.dto.request.PublicationRequest;
 import com.enspy.syndicmanager.dto.response.ResponseDto;
+import com.enspy.syndicmanager.models.Publication;
+import com.enspy.syndicmanager.services.FeedStreamService;
+import com.enspy.syndicmanager.services.ImageVariantService;
 import com.enspy.syndicmanager.services.PublicationService;
+import com.enspy.syndicmanager.services.ResponseCacheService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.UUID;
 
@@ -15,37 +24,72 @@ import java.util.UUID;
 public class PublicationController {
 
     private final PublicationService publicationService;
+    private final FeedStreamService feedStreamService;
+    private final ResponseCacheService responseCacheService;
 
     @GetMapping
-    public ResponseEntity<ResponseDto> getAllPublications() {
-        ResponseDto response = publicationService.getAllPublications();
-        return ResponseEntity.status(response.statusCode()).body(response);
+    public ResponseEntity<byte[]> getAllPublications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return responseCacheService.serve(ResponseCacheService.Region.PUBLICATIONS,
+                ResponseCacheService.pageKey("feed", cursor, size, PublicationService.MAX_PAGE_SIZE),
+                () -> publicationService.getAllPublications(cursor, size));
+    }
+
+    /**
+     * Flux SSE des publications et événements créés, modifiés ou supprimés.
+     * EventSource renvoie Last-Event-ID à la reconnexion : les changements manqués sont rejoués.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamFeed(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId
+    ) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                // Désactive la mise en tampon des réponses par nginx
+                .header("X-Accel-Buffering", "no")
+                .body(feedStreamService.open(lastEventId));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ResponseDto> getPublicationById(@PathVariable UUID id) {
-        ResponseDto response = publicationService.getPublicationById(id);
+    public ResponseEntity<ResponseDto<Publication>> getPublicationById(@PathVariable UUID id) {
+        ResponseDto<Publication> response = publicationService.getPublicationById(id);
         return ResponseEntity.status(response.statusCode()).body(response);
     }
 
+    @GetMapping("/{id}/image")
+    public ResponseEntity<Resource> getPublicationImage(
+            @PathVariable UUID id,
+            @RequestParam(required = false) String size
+    ) {
+        ImageVariantService.Variant variant;
+        try {
+            variant = ImageVariantService.Variant.fromParam(size);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        return publicationService.getPublicationImage(id, variant);
+    }
+
     @PostMapping
-    public ResponseEntity<ResponseDto> createPublication(@RequestBody PublicationRequest request) {
-        ResponseDto response = publicationService.createPublication(request);
+    public ResponseEntity<ResponseDto<Publication>> createPublication(@RequestBody PublicationRequest request) {
+        ResponseDto<Publication> response = publicationService.createPublication(request);
         return ResponseEntity.status(response.statusCode()).body(response);
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<ResponseDto> updatePublication(
+    public ResponseEntity<ResponseDto<Publication>> updatePublication(
             @PathVariable UUID id,
             @RequestBody PublicationRequest request
     ) {
-        ResponseDto response = publicationService.updatePublication(id, request);
+        ResponseDto<Publication> response = publicationService.updatePublication(id, request);
         return ResponseEntity.status(response.statusCode()).body(response);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<ResponseDto> deletePublication(@PathVariable UUID id) {
-        ResponseDto response = publicationService.deletePublication(id);
+    public ResponseEntity<ResponseDto<Void>> deletePublication(@PathVariable UUID id) {
+        ResponseDto<Void> response = publicationService.deletePublication(id);
         return ResponseEntity.status(response.statusCode()).body(response);
     }
 }
@@ -1,6 +1,7 @@
 package com.enspy.syndicmanager.controllers;
 
 import com.enspy.syndicmanager.dto.request.ReactionRequest;
+import com.enspy.syndicmanager.dto.response.ReactionSummaryDto;
 import com.enspy.syndicmanager.dto.response.ResponseDto;
 import com.enspy.syndicmanager.models.Reaction;
 import com.enspy.syndicmanager.services.ReactionService;
@@ -8,6 +9,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -19,29 +21,45 @@ public class ReactionController {
     private final ReactionService reactionService;
 
     @GetMapping
-    public ResponseEntity<ResponseDto> getAllReactions() {
-        ResponseDto response = reactionService.getAllReactions();
+    public ResponseEntity<ResponseDto<List<Reaction>>> getAllReactions() {
+        ResponseDto<List<Reaction>> response = reactionService.getAllReactions();
         return ResponseEntity.status(response.statusCode()).body(response);
     }
 
     @GetMapping("/publication/{publicationId}")
-    public ResponseEntity<ResponseDto> getReactionsByPublicationId(@PathVariable UUID publicationId) {
-        ResponseDto response = reactionService.getReactionsByPublicationId(publicationId);
+    public ResponseEntity<ResponseDto<List<Reaction>>> getReactionsByPublicationId(@PathVariable UUID publicationId) {
+        ResponseDto<List<Reaction>> response = reactionService.getReactionsByPublicationId(publicationId);
+        return ResponseEntity.status(response.statusCode()).body(response);
+    }
+
+    @GetMapping("/publication/{publicationId}/summary")
+    public ResponseEntity<ResponseDto<ReactionSummaryDto>> getReactionSummary(
+            @PathVariable UUID publicationId,
+            @RequestParam(required = false) UUID userId) {
+        ResponseDto<ReactionSummaryDto> response = reactionService.getReactionSummary(publicationId, userId);
+        return ResponseEntity.status(response.statusCode()).body(response);
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<ResponseDto<List<ReactionSummaryDto>>> getReactionSummaries(
+            @RequestParam List<UUID> publicationIds,
+            @RequestParam(required = false) UUID userId) {
+        ResponseDto<List<ReactionSummaryDto>> response = reactionService.getReactionSummaries(publicationIds, userId);
         return ResponseEntity.status(response.statusCode()).body(response);
     }
 
     @PostMapping("/create")
-    public ResponseEntity<ResponseDto> createReaction(@RequestBody ReactionRequest request) {
-        ResponseDto response = reactionService.createReaction(request);
+    public ResponseEntity<ResponseDto<Reaction>> createReaction(@RequestBody ReactionRequest request) {
+        ResponseDto<Reaction> response = reactionService.createReaction(request);
         return ResponseEntity.status(response.statusCode()).body(response);
     }
 
     @DeleteMapping("/remove")
-    public ResponseEntity<ResponseDto> removeReaction(
+    public ResponseEntity<ResponseDto<Void>> removeReaction(
             @RequestParam UUID userId,
             @RequestParam UUID targetId,
             @RequestParam Reaction.ReactionType reactionType) {
-        ResponseDto response = reactionService.removeReaction(userId, targetId, reactionType);
+        ResponseDto<Void> response = reactionService.removeReaction(userId, targetId, reactionType);
         return ResponseEntity.status(response.statusCode()).body(response);
     }
 }
@@ -0,0 +1,112 @@
+package com.enspy.syndicmanager.controllers;
+
+import com.enspy.syndicmanager.dto.response.ResponseDto;
+import com.enspy.syndicmanager.models.File;
+import com.enspy.syndicmanager.services.FileServingService;
+import com.enspy.syndicmanager.services.ImageVariantService;
+import com.enspy.syndicmanager.services.StorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Uploads en flux : le fichier est le corps brut de la requête (Content-Type du fichier)
+ * et il est écrit sur disque au fil de la lecture, sans passer par le multipart.
+ * Téléchargements servis par FileServingService.
+ */
+@RestController
+@RequestMapping("/storage")
+@RequiredArgsConstructor
+public class StorageController {
+
+    private final StorageService storageService;
+    private final FileServingService fileServingService;
+
+    /**
+     * Sert un document KYC : ETag/Last-Modified (réponse 304), plages d'octets (206)
+     * et envoi sans copie vers la socket quand le connecteur le permet.
+     * size=thumbnail|medium sert une déclinaison réduite des images (l'original tant qu'elle n'est pas prête).
+     */
+    @RequestMapping(path = "/users/{userId}/branches/{branchId}/kyc/{filename}",
+            method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void downloadKyc(
+            @PathVariable UUID userId,
+            @PathVariable UUID branchId,
+            @PathVariable String filename,
+            @RequestParam(required = false) String size,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        ImageVariantService.Variant variant;
+        try {
+            variant = ImageVariantService.Variant.fromParam(size);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        serve(storageService.findKycFile(userId, branchId, filename, variant), request, response);
+    }
+
+    @RequestMapping(path = "/unions/{unionId}/logo/{filename}",
+            method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void downloadUnionLogo(
+            @PathVariable UUID unionId,
+            @PathVariable String filename,
+            @RequestParam(required = false) String size,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        ImageVariantService.Variant variant;
+        try {
+            variant = ImageVariantService.Variant.fromParam(size);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        serve(storageService.findUnionLogo(unionId, filename, variant), request, response);
+    }
+
+    private void serve(Optional<FileServingService.ServedFile> file, HttpServletRequest request,
+                       HttpServletResponse response) throws IOException {
+        if (file.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        fileServingService.serve(file.get(), request, response);
+    }
+
+    @PutMapping("/users/{userId}/branches/{branchId}/kyc/{filename}")
+    public Mono<ResponseEntity<ResponseDto<File>>> uploadKyc(
+            @PathVariable UUID userId,
+            @PathVariable UUID branchId,
+            @PathVariable String filename,
+            HttpServletRequest request
+    ) throws IOException {
+        return storageService.uploadKycStream(request.getInputStream(), request.getContentLengthLong(),
+                        request.getContentType(), userId, branchId, filename)
+                .map(response -> ResponseEntity.status(response.statusCode()).body(response));
+    }
+
+    @PutMapping("/unions/{unionId}/logo/{filename}")
+    public Mono<ResponseEntity<ResponseDto<File>>> uploadUnionLogo(
+            @PathVariable UUID unionId,
+            @PathVariable String filename,
+            HttpServletRequest request
+    ) throws IOException {
+        return storageService.uploadUnionLogoStream(request.getInputStream(), request.getContentLengthLong(),
+                        request.getContentType(), unionId, filename)
+                .map(response -> ResponseEntity.status(response.statusCode()).body(response));
+    }
+}
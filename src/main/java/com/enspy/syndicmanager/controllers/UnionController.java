@@ -5,12 +5,15 @@ import com.enspy.syndicmanager.client.dto.request.CreateOrganisationDto;
 import com.enspy.syndicmanager.client.services.Organisation;
 import com.enspy.syndicmanager.dto.request.UnionDto;
 import com.enspy.syndicmanager.dto.response.ResponseDto;
+import com.enspy.syndicmanager.services.ResponseCacheService;
 import com.enspy.syndicmanager.services.UnionService;
 import lombok.AllArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Mono;
 
@@ -20,6 +23,7 @@ public class UnionController {
 
     private Organisation organisation;
     private UnionService unionService;
+    private ResponseCacheService responseCacheService;
 
     @PostMapping("/create_union")
     public Mono<ResponseEntity<ResponseDto>> createUnion(
@@ -56,14 +60,11 @@ public class UnionController {
     }
 
 
-    @PostMapping("/union/all")
-    public Mono<ResponseEntity<ResponseDto>> getAllUnion(
+    // GET pour profiter de l'ETag (304) ; POST conservé pour les clients existants
+    @RequestMapping(value = "/union/all", method = {RequestMethod.GET, RequestMethod.POST})
+    public Mono<ResponseEntity<byte[]>> getAllUnion(
             ) {
-        return this.unionService.getAllUnion()
-                .map(responseDto ->
-                        ResponseEntity
-                                .status(responseDto.getStatus())        // récupère le code depuis le DTO
-                                .body(responseDto)
-                );
+        return responseCacheService.serve(ResponseCacheService.Region.UNIONS, "all",
+                this.unionService.getAllUnion());
     }
 }
@@ -0,0 +1,154 @@
+package com.enspy.syndicmanager.dto.feed;
+
+import com.enspy.syndicmanager.models.Comment;
+import com.enspy.syndicmanager.models.Event;
+import com.enspy.syndicmanager.models.Publication;
+import com.enspy.syndicmanager.models.Reaction;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Changement du fil poussé aux clients abonnés (FeedBroadcastService, FeedStreamService).
+ * Ne contient que les identifiants et compteurs : le client relit le détail par l'API REST s'il en a besoin.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FeedDelta {
+
+    public enum Type {
+        PUBLICATION_CREATED,
+        PUBLICATION_UPDATED,
+        PUBLICATION_DELETED,
+        COMMENT_CREATED,
+        COMMENT_DELETED,
+        // Compteurs de réactions à jour de la publication, un seul par publication et par envoi
+        REACTIONS_CHANGED,
+        EVENT_CREATED,
+        EVENT_UPDATED,
+        EVENT_DELETED,
+        // Inscriptions à un événement, avec le nombre de participants à jour
+        PARTICIPANTS_CHANGED
+    }
+
+    private Type type;
+
+    private UUID publicationId;
+
+    private UUID commentId;
+
+    private UUID parentId;
+
+    private UUID eventId;
+
+    private String title;
+
+    private LocalDateTime startDate;
+
+    private Integer participantsCount;
+
+    private String authorName;
+
+    private LocalDateTime createdAt;
+
+    // Types de réactions présents sur la publication et leur nombre (REACTIONS_CHANGED)
+    private Map<Reaction.ReactionType, Long> counts;
+
+    private Long total;
+
+    public static FeedDelta publicationCreated(Publication publication) {
+        return FeedDelta.builder()
+                .type(Type.PUBLICATION_CREATED)
+                .publicationId(publication.getId())
+                .authorName(publication.getAuthorName())
+                .createdAt(publication.getCreatedAt())
+                .build();
+    }
+
+    public static FeedDelta publicationUpdated(Publication publication) {
+        return FeedDelta.builder()
+                .type(Type.PUBLICATION_UPDATED)
+                .publicationId(publication.getId())
+                .authorName(publication.getAuthorName())
+                .createdAt(publication.getCreatedAt())
+                .build();
+    }
+
+    public static FeedDelta publicationDeleted(UUID publicationId) {
+        return FeedDelta.builder()
+                .type(Type.PUBLICATION_DELETED)
+                .publicationId(publicationId)
+                .build();
+    }
+
+    public static FeedDelta eventCreated(Event event) {
+        return eventDelta(Type.EVENT_CREATED, event);
+    }
+
+    public static FeedDelta eventUpdated(Event event) {
+        return eventDelta(Type.EVENT_UPDATED, event);
+    }
+
+    public static FeedDelta eventDeleted(UUID eventId) {
+        return FeedDelta.builder()
+                .type(Type.EVENT_DELETED)
+                .eventId(eventId)
+                .build();
+    }
+
+    public static FeedDelta participantsChanged(UUID eventId, int participantsCount) {
+        return FeedDelta.builder()
+                .type(Type.PARTICIPANTS_CHANGED)
+                .eventId(eventId)
+                .participantsCount(participantsCount)
+                .build();
+    }
+
+    public static FeedDelta commentCreated(Comment comment) {
+        return FeedDelta.builder()
+                .type(Type.COMMENT_CREATED)
+                .publicationId(comment.getPublicationId())
+                .commentId(comment.getId())
+                .parentId(comment.getParentId())
+                .createdAt(comment.getCreatedAt())
+                .build();
+    }
+
+    public static FeedDelta commentDeleted(Comment comment) {
+        return FeedDelta.builder()
+                .type(Type.COMMENT_DELETED)
+                .publicationId(comment.getPublicationId())
+                .commentId(comment.getId())
+                .parentId(comment.getParentId())
+                .build();
+    }
+
+    private static FeedDelta eventDelta(Type type, Event event) {
+        return FeedDelta.builder()
+                .type(type)
+                .eventId(event.getId())
+                .title(event.getTitle())
+                .startDate(event.getStartDate())
+                .createdAt(event.getCreatedAt())
+                .build();
+    }
+
+    /**
+     * Signale un changement des réactions ; les compteurs sont lus au moment de l'envoi.
+     */
+    public static FeedDelta reactionsChanged(UUID publicationId) {
+        return FeedDelta.builder()
+                .type(Type.REACTIONS_CHANGED)
+                .publicationId(publicationId)
+                .build();
+    }
+}
@@ -0,0 +1,33 @@
+package com.enspy.syndicmanager.dto.feed;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Message envoyé sur un topic à chaque intervalle où il a changé.
+ * Un client qui reçoit un previousTick différent du tick de son dernier message sur ce topic
+ * a manqué des mises à jour (client trop lent, redémarrage du serveur) et doit relire le fil par l'API REST,
+ * tout comme quand resync vaut true.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class FeedUpdate {
+
+    private long tick;
+
+    // Tick du message précédent sur ce topic, 0 s'il n'est pas connu
+    private long previousTick;
+
+    // Trop de changements pour les détailler : deltas est vide
+    private boolean resync;
+
+    @Builder.Default
+    private List<FeedDelta> deltas = new ArrayList<>();
+}
@@ -0,0 +1,43 @@
+package com.enspy.syndicmanager.dto.notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Message publié dans la file des événements (NotificationConfig.EVENTS_QUEUE).
+ * Il ne porte que l'identifiant : le consommateur relit l'événement à jour avant d'écrire aux membres.
+ * Un envoi interrompu est republié avec le dernier destinataire confirmé, pour reprendre après lui.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class EventNotificationMessage {
+
+    public enum Type {
+        // Nouvel événement : tous les membres actifs
+        CREATED,
+        // Événement modifié : ses participants
+        UPDATED,
+        // Rappel avant le début : ses participants
+        REMINDER
+    }
+
+    private UUID eventId;
+
+    private Type type;
+
+    // Dernier destinataire dont l'e-mail a été confirmé par le broker, null pour partir du début
+    private UUID after;
+
+    // Reprises déjà tentées après un échec de fanOut
+    private int attempts;
+
+    public EventNotificationMessage(UUID eventId, Type type) {
+        this(eventId, type, null, 0);
+    }
+}
@@ -0,0 +1,22 @@
+package com.enspy.syndicmanager.dto.notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Un e-mail prêt à envoyer, publié dans la file d'envoi (NotificationConfig.MAIL_QUEUE).
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MailNotificationMessage {
+
+    private String to;
+
+    private String subject;
+
+    private String body;
+}
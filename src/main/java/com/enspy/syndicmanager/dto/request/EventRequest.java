@@ -26,4 +26,8 @@ public class EventRequest {
     private String category;
     private Boolean isPublic;
     private Boolean notifyMembers;
+    // Nombre de places ; à la mise à jour, null garde la capacité actuelle
+    private Integer capacity;
+    // true pour retirer la limite de places (mise à jour)
+    private Boolean clearCapacity;
 }
@@ -0,0 +1,20 @@
+package com.enspy.syndicmanager.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ParticipantsRequest {
+
+    @Builder.Default
+    private List<UUID> userIds = new ArrayList<>();
+}
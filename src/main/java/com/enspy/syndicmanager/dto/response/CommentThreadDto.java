@@ -0,0 +1,32 @@
+package com.enspy.syndicmanager.dto.response;
+
+import com.enspy.syndicmanager.models.Comment;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Un commentaire de premier niveau et ses premières réponses.
+ * repliesCursor permet de charger la suite via GET /comments/{id}/replies.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommentThreadDto {
+
+    @JsonUnwrapped
+    private Comment comment;
+
+    @Builder.Default
+    private List<Comment> replies = new ArrayList<>();
+
+    private String repliesCursor;
+
+    private boolean hasMoreReplies;
+}
@@ -0,0 +1,27 @@
+package com.enspy.syndicmanager.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Page d'une liste paginée par curseur (keyset).
+ * nextCursor est null lorsqu'il n'y a plus d'éléments à charger.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPage<T> {
+
+    @Builder.Default
+    private List<T> items = new ArrayList<>();
+
+    private String nextCursor;
+
+    private boolean hasMore;
+}
@@ -0,0 +1,47 @@
+package com.enspy.syndicmanager.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Événement tel qu'affiché dans les listes : sans images ni participants,
+ * seulement leur nombre (compteur maintenu sur l'événement). Le détail complet reste servi par GET /events/{id}.
+ * L'ordre des champs est celui du constructeur utilisé par les requêtes d'EventRepository.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class EventSummaryDto {
+
+    private UUID id;
+
+    private String title;
+
+    private String description;
+
+    private String location;
+
+    private LocalDateTime startDate;
+
+    private LocalDateTime endDate;
+
+    private String category;
+
+    private String authorName;
+
+    private String authorAvatar;
+
+    private Boolean isPublic;
+
+    private Boolean isUpcoming;
+
+    private int participantsCount;
+
+    private Integer capacity;
+}
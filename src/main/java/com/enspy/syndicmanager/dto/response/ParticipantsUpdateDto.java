@@ -0,0 +1,28 @@
+package com.enspy.syndicmanager.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Résultat d'un ajout ou d'un retrait de participants.
+ * changed compte les lignes réellement ajoutées ou retirées (les doublons sont ignorés).
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ParticipantsUpdateDto {
+
+    private UUID eventId;
+
+    private int changed;
+
+    private int participantsCount;
+
+    // null : pas de limite de places
+    private Integer capacity;
+}
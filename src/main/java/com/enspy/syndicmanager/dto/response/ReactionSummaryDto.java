@@ -0,0 +1,34 @@
+package com.enspy.syndicmanager.dto.response;
+
+import com.enspy.syndicmanager.models.Reaction;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Résumé des réactions d'une publication : compteurs par type
+ * et réactions de l'utilisateur courant (vide si aucun userId n'est fourni).
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReactionSummaryDto {
+
+    private UUID publicationId;
+
+    private long total;
+
+    @Builder.Default
+    private Map<Reaction.ReactionType, Long> counts = new LinkedHashMap<>();
+
+    @Builder.Default
+    private List<Reaction.ReactionType> userReactions = new ArrayList<>();
+}
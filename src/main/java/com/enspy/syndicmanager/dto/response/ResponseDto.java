@@ -4,15 +4,20 @@ package com.enspy.syndicmanager.dto.response;
 import lombok.*;
 import org.springframework.http.HttpStatusCode;
 
+/**
+ * Enveloppe commune des réponses de l'API.
+ * data est sérialisé directement par Spring avec le reste de l'enveloppe :
+ * ne pas y placer de JSON déjà encodé en chaîne.
+ */
 @Getter
 @Setter
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-public class ResponseDto {
+public class ResponseDto<T> {
      int status;
      String text;
-     Object data;
+     T data;
 
      public HttpStatusCode statusCode() {
           return HttpStatusCode.valueOf(status);
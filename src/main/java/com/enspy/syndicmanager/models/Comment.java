@@ -1,5 +1,6 @@
 package com.enspy.syndicmanager.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -9,7 +10,13 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "comments")
+@Table(
+    name = "comments",
+    indexes = {
+        @Index(name = "idx_comments_publication_parent_created", columnList = "publication_id, parent_id, created_at, id"),
+        @Index(name = "idx_comments_parent_created", columnList = "parent_id, created_at, id")
+    }
+)
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
@@ -37,9 +44,11 @@ public class Comment {
     @Column(name = "parent_id")
     private UUID parentId;
 
+    // Non sérialisées : les réponses sont servies par fil via CommentThreadDto
     @OneToMany(fetch = FetchType.LAZY)
     @JoinColumn(name = "parent_id")
     @Builder.Default
+    @JsonIgnore
     private List<Comment> replies = new ArrayList<>();
 
     @PrePersist
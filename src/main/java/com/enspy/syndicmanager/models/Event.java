@@ -16,7 +16,10 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "events")
+@Table(
+    name = "events",
+    indexes = @Index(name = "idx_events_start_date_id", columnList = "start_date, id")
+)
 public class Event {
     
     @Id
@@ -65,6 +68,7 @@ public class Event {
     @Column(name = "is_upcoming")
     private Boolean isUpcoming = true;
     
+    // Lecture seule en pratique : les inscriptions passent par EventParticipant (EventService)
     @ManyToMany
     @JoinTable(
         name = "event_participants",
@@ -72,6 +76,18 @@ public class Event {
         inverseJoinColumns = @JoinColumn(name = "user_id")
     )
     private List<User> participants = new ArrayList<>();
+
+    // Maintenu par EventService via des mises à jour en base, jamais réécrit depuis l'entité
+    @Column(name = "participants_count", updatable = false)
+    private int participantsCount;
+
+    // Nombre de places, null pour un événement sans limite
+    @Column(name = "capacity")
+    private Integer capacity;
+
+    // Rappel publié pour la date de début actuelle, réservé par NotificationService via des mises à jour en base
+    @Column(name = "reminder_sent_at", insertable = false, updatable = false)
+    private LocalDateTime reminderSentAt;
     
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
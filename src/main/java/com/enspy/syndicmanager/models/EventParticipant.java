@@ -0,0 +1,68 @@
+package com.enspy.syndicmanager.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Ligne de event_participants, écrite une à une par EventService sans charger Event.participants.
+ * Event.participants lit la même table pour le détail d'un événement.
+ */
+@Entity
+@Table(
+    name = "event_participants",
+    uniqueConstraints = @UniqueConstraint(name = "uk_event_participants_event_user",
+            columnNames = {"event_id", "user_id"})
+)
+@IdClass(EventParticipant.Key.class)
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class EventParticipant implements Persistable<EventParticipant.Key> {
+
+    @Id
+    @Column(name = "event_id", nullable = false)
+    private UUID eventId;
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "joined_at")
+    private LocalDateTime joinedAt;
+
+    // Clé fournie par l'appelant : sans ce marqueur, save() ferait un SELECT avant chaque insertion
+    @Transient
+    @Builder.Default
+    private boolean newParticipant = true;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID eventId;
+        private UUID userId;
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(eventId, userId);
+    }
+
+    @Override
+    public boolean isNew() {
+        return newParticipant;
+    }
+
+    @PostLoad
+    @PostPersist
+    protected void markPersisted() {
+        this.newParticipant = false;
+    }
+}
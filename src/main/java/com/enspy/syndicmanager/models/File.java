@@ -8,5 +8,7 @@ public class File {
     private String filename;
     private String content;
     private long size;
+    private String checksum;
+    private String error;
 
 }
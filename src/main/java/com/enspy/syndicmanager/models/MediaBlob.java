@@ -0,0 +1,41 @@
+package com.enspy.syndicmanager.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Contenu stocké une seule fois dans le BlobStorageService, identifié par son SHA-256.
+ * refCount compte les fichiers (MediaFile) et images de publication qui pointent dessus ;
+ * un blob resté à zéro au-delà du délai de grâce est supprimé par MediaStoreService.
+ */
+@Entity
+@Table(name = "media_blobs", indexes = {
+        @Index(name = "idx_media_blobs_released", columnList = "ref_count, released_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaBlob {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    private long size;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "ref_count", nullable = false)
+    private long refCount;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    // Date à laquelle refCount est retombé à zéro
+    @Column(name = "released_at")
+    private LocalDateTime releasedAt;
+}
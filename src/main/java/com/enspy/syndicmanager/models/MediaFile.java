@@ -0,0 +1,45 @@
+package com.enspy.syndicmanager.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Fichier nommé (document KYC, logo d'union) rangé dans un répertoire logique (scope).
+ * Le contenu est le MediaBlob désigné par hash : deux fichiers identiques partagent le même blob.
+ */
+@Entity
+@Table(name = "media_files", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_media_files_scope_filename", columnNames = {"scope", "filename"})
+}, indexes = {
+        @Index(name = "idx_media_files_hash", columnList = "hash")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaFile {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Column(nullable = false)
+    private String scope;
+
+    @Column(nullable = false)
+    private String filename;
+
+    @Column(nullable = false, length = 64)
+    private String hash;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    private long size;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -1,5 +1,7 @@
 package com.enspy.syndicmanager.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -13,7 +15,10 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "publications")
+@Table(
+    name = "publications",
+    indexes = @Index(name = "idx_publications_created_at_id", columnList = "created_at, id")
+)
 public class Publication {
     
     @Id
@@ -23,9 +28,12 @@ public class Publication {
     @Column(nullable = false, length = 2000)
     private String content;
     
-    @Lob
-    @Column(columnDefinition = "LONGTEXT")
-    private String image;
+    // Empreinte SHA-256 de l'image dans le BlobStorageService (le contenu n'est plus stocké dans la ligne)
+    @Column(name = "image_hash", length = 64)
+    private String imageHash;
+
+    @Column(name = "image_content_type", length = 100)
+    private String imageContentType;
     
     @Column(name = "author_name", nullable = false)
     private String authorName;
@@ -44,23 +52,37 @@ public class Publication {
     private LocalDateTime updatedAt;
     
     // Relations avec les commentaires et réactions
+    // (non sérialisées : chargées via leurs propres endpoints, évite un N+1 sur le fil)
     @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @JoinColumn(name = "target_id")
     @Builder.Default
+    @JsonIgnore
     private List<Comment> comments = new ArrayList<>();
     
     @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @JoinColumn(name = "target_id")
     @Builder.Default
+    @JsonIgnore
     private List<Reaction> reactions = new ArrayList<>();
     
     // Compteurs de statistiques (pour optimisation des performances)
-    @Column(name = "likes_count")
+    // Maintenus par ReactionService / CommentService via des mises à jour en base :
+    // jamais réécrits depuis l'entité pour ne pas écraser un incrément concurrent.
+    // likesCount compte toutes les réactions, tous types confondus.
+    @Column(name = "likes_count", updatable = false)
     private int likesCount;
     
-    @Column(name = "comments_count")
+    @Column(name = "comments_count", updatable = false)
     private int commentsCount;
 
+    /**
+     * URL relative à laquelle l'image est servie, null si la publication n'en a pas
+     */
+    @JsonProperty("imageUrl")
+    public String getImageUrl() {
+        return imageHash == null ? null : "/publications/" + id + "/image";
+    }
+
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
@@ -0,0 +1,59 @@
+package com.enspy.syndicmanager.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Compteur de réactions d'une publication pour un type donné,
+ * maintenu par ReactionService dans la même transaction que la réaction.
+ */
+@Entity
+@Table(name = "publication_reaction_counts")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class PublicationReactionCount implements Persistable<PublicationReactionCount.Key> {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "reaction_count", nullable = false)
+    private long count;
+
+    // Créé seulement après une mise à jour sans effet : insertion sans SELECT préalable, jamais écrasement
+    // d'un compteur créé entre-temps par une autre transaction (échec sur la clé primaire à la place)
+    @Transient
+    @Builder.Default
+    private boolean newCount = true;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Column(name = "publication_id", nullable = false)
+        private UUID publicationId;
+
+        @Column(name = "reaction_type", nullable = false)
+        @Enumerated(EnumType.STRING)
+        private Reaction.ReactionType reactionType;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newCount;
+    }
+
+    @PostLoad
+    @PostPersist
+    protected void markPersisted() {
+        this.newCount = false;
+    }
+}
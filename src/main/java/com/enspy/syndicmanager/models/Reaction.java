@@ -7,7 +7,11 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "reactions")
+@Table(
+    name = "reactions",
+    uniqueConstraints = @UniqueConstraint(name = "uk_reactions_publication_user_type",
+            columnNames = {"publication_id", "user_id", "reaction_type"})
+)
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
@@ -1,9 +1,14 @@
 package com.enspy.syndicmanager.repositories;
 
 import com.enspy.syndicmanager.models.Comment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -13,4 +18,38 @@ public interface CommentRepository extends JpaRepository<Comment, UUID> {
     List<Comment> findByPublicationIdAndParentIdIsNull(UUID publicationId);
     List<Comment> findByParentId(UUID parentId);
     List<Comment> findByUserId(UUID userId);
+
+    // Commentaires de premier niveau d'une publication, ordre chronologique (createdAt, id)
+    @Query("select c from Comment c where c.publicationId = :publicationId and c.parentId is null " +
+            "order by c.createdAt asc, c.id asc")
+    List<Comment> findThreadsFirstPage(@Param("publicationId") UUID publicationId, Pageable pageable);
+
+    @Query("select c from Comment c where c.publicationId = :publicationId and c.parentId is null " +
+            "and (c.createdAt > :createdAt or (c.createdAt = :createdAt and c.id > :id)) " +
+            "order by c.createdAt asc, c.id asc")
+    List<Comment> findThreadsPageAfter(@Param("publicationId") UUID publicationId,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") UUID id,
+                                       Pageable pageable);
+
+    // Réponses d'un commentaire, pour le "charger plus"
+    @Query("select c from Comment c where c.parentId = :parentId order by c.createdAt asc, c.id asc")
+    List<Comment> findRepliesFirstPage(@Param("parentId") UUID parentId, Pageable pageable);
+
+    @Query("select c from Comment c where c.parentId = :parentId " +
+            "and (c.createdAt > :createdAt or (c.createdAt = :createdAt and c.id > :id)) " +
+            "order by c.createdAt asc, c.id asc")
+    List<Comment> findRepliesPageAfter(@Param("parentId") UUID parentId,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") UUID id,
+                                       Pageable pageable);
+
+    // Les premières réponses de plusieurs fils en une seule requête (au plus perParent réponses par fil)
+    @Query(value = "select r.id, r.content, r.created_at, r.parent_id, r.publication_id, r.user_id from (" +
+            "select c.*, row_number() over (partition by c.parent_id order by c.created_at, c.id) as rn " +
+            "from comments c where c.parent_id in (:parentIds)" +
+            ") r where r.rn <= :perParent order by r.created_at, r.id",
+            nativeQuery = true)
+    List<Comment> findFirstRepliesByParentIds(@Param("parentIds") Collection<UUID> parentIds,
+                                              @Param("perParent") int perParent);
 }
@@ -0,0 +1,24 @@
+package com.enspy.syndicmanager.repositories;
+
+import com.enspy.syndicmanager.models.EventParticipant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface EventParticipantRepository extends JpaRepository<EventParticipant, EventParticipant.Key> {
+
+    // Parmi userIds, ceux qui participent déjà (index unique (event_id, user_id))
+    @Query("select p.userId from EventParticipant p where p.eventId = :eventId and p.userId in :userIds")
+    List<UUID> findParticipantIds(@Param("eventId") UUID eventId, @Param("userIds") Collection<UUID> userIds);
+
+    @Modifying
+    @Query("delete from EventParticipant p where p.eventId = :eventId and p.userId in :userIds")
+    int deleteParticipants(@Param("eventId") UUID eventId, @Param("userIds") Collection<UUID> userIds);
+}
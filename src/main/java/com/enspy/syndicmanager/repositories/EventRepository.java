@@ -1,7 +1,12 @@
 package com.enspy.syndicmanager.repositories;
 
+import com.enspy.syndicmanager.dto.response.EventSummaryDto;
 import com.enspy.syndicmanager.models.Event;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -10,7 +15,85 @@ import java.util.UUID;
 
 @Repository
 public interface EventRepository extends JpaRepository<Event, UUID> {
-    List<Event> findAllByOrderByStartDateDesc();
-    List<Event> findByStartDateAfterOrderByStartDateAsc(LocalDateTime now);
-    List<Event> findByStartDateBeforeOrderByStartDateDesc(LocalDateTime now);
+
+    // Listes d'événements sur [from, to[ paginées par curseur (startDate, id), index events(start_date, id).
+    // Projection sans images ni participants : seulement le compteur de participants.
+    String SUMMARY = "select new com.enspy.syndicmanager.dto.response.EventSummaryDto(" +
+            "e.id, e.title, e.description, e.location, e.startDate, e.endDate, e.category, " +
+            "e.authorName, e.authorAvatar, e.isPublic, e.isUpcoming, " +
+            "coalesce(e.participantsCount, 0), e.capacity) from Event e ";
+
+    // Ordre chronologique : première page puis événements strictement après le curseur
+    @Query(SUMMARY + "where e.startDate >= :from and e.startDate < :to " +
+            "order by e.startDate asc, e.id asc")
+    List<EventSummaryDto> findSummariesAsc(@Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to,
+                                           Pageable pageable);
+
+    @Query(SUMMARY + "where e.startDate < :to " +
+            "and (e.startDate > :startDate or (e.startDate = :startDate and e.id > :id)) " +
+            "order by e.startDate asc, e.id asc")
+    List<EventSummaryDto> findSummariesAscAfter(@Param("to") LocalDateTime to,
+                                                @Param("startDate") LocalDateTime startDate,
+                                                @Param("id") UUID id,
+                                                Pageable pageable);
+
+    // Ordre antéchronologique : première page puis événements strictement avant le curseur
+    @Query(SUMMARY + "where e.startDate >= :from and e.startDate < :to " +
+            "order by e.startDate desc, e.id desc")
+    List<EventSummaryDto> findSummariesDesc(@Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to,
+                                            Pageable pageable);
+
+    @Query(SUMMARY + "where e.startDate >= :from " +
+            "and (e.startDate < :startDate or (e.startDate = :startDate and e.id < :id)) " +
+            "order by e.startDate desc, e.id desc")
+    List<EventSummaryDto> findSummariesDescBefore(@Param("from") LocalDateTime from,
+                                                  @Param("startDate") LocalDateTime startDate,
+                                                  @Param("id") UUID id,
+                                                  Pageable pageable);
+
+    // Événements à venir comptés sur l'index events(start_date, id), sans lire la table
+    @Query("select count(e) from Event e where e.startDate >= :now")
+    long countUpcoming(@Param("now") LocalDateTime now);
+
+    // Événements avec au moins un participant qui commencent dans ]from, to] et n'ont pas encore eu leur rappel
+    @Query("select e.id from Event e where e.startDate > :from and e.startDate <= :to and e.participantsCount > 0 " +
+            "and e.reminderSentAt is null order by e.startDate asc, e.id asc")
+    List<UUID> findIdsToRemind(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Réserve le rappel d'un événement : 0 s'il est déjà pris, par cette instance ou par une autre
+    @Modifying
+    @Query("update Event e set e.reminderSentAt = :now where e.id = :id and e.reminderSentAt is null")
+    int claimReminder(@Param("id") UUID id, @Param("now") LocalDateTime now);
+
+    // Rend le rappel à planifier : publication refusée ou nouvelle date de début
+    @Modifying
+    @Query("update Event e set e.reminderSentAt = null where e.id = :id")
+    int clearReminder(@Param("id") UUID id);
+
+    // Bascule incrémentale de isUpcoming : seuls les événements commencés depuis le dernier passage
+    @Modifying
+    @Query("update Event e set e.isUpcoming = false " +
+            "where e.startDate > :since and e.startDate <= :now and e.isUpcoming = true")
+    int markStartedBetween(@Param("since") LocalDateTime since, @Param("now") LocalDateTime now);
+
+    // Rattrapage complet au premier passage (données modifiées ou application arrêtée entre-temps)
+    @Modifying
+    @Query("update Event e set e.isUpcoming = case when e.startDate > :now then true else false end " +
+            "where e.isUpcoming is null " +
+            "or (e.isUpcoming = true and e.startDate <= :now) " +
+            "or (e.isUpcoming = false and e.startDate > :now)")
+    int recomputeUpcoming(@Param("now") LocalDateTime now);
+
+    // Réserve count places d'un coup : 0 si l'événement n'existe pas ou n'a plus assez de places.
+    // La condition et l'incrément sont dans la même instruction, deux inscriptions concurrentes ne dépassent pas la limite.
+    @Modifying
+    @Query("update Event e set e.participantsCount = coalesce(e.participantsCount, 0) + :count " +
+            "where e.id = :id and (e.capacity is null or coalesce(e.participantsCount, 0) + :count <= e.capacity)")
+    int reserveSeats(@Param("id") UUID id, @Param("count") int count);
+
+    @Modifying
+    @Query("update Event e set e.participantsCount = coalesce(e.participantsCount, 0) - :count where e.id = :id")
+    int releaseSeats(@Param("id") UUID id, @Param("count") int count);
 }
@@ -0,0 +1,36 @@
+package com.enspy.syndicmanager.repositories;
+
+import com.enspy.syndicmanager.models.MediaBlob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MediaBlobRepository extends JpaRepository<MediaBlob, String> {
+
+    // Prend une référence ; renvoie 0 si le blob n'est pas encore enregistré
+    @Modifying
+    @Query("update MediaBlob b set b.refCount = b.refCount + 1, b.releasedAt = null where b.hash = :hash")
+    int retain(@Param("hash") String hash);
+
+    // Rend une référence et date le passage à zéro
+    @Modifying
+    @Query("update MediaBlob b set b.refCount = b.refCount - 1, " +
+            "b.releasedAt = case when b.refCount <= 1 then :now else b.releasedAt end " +
+            "where b.hash = :hash")
+    int release(@Param("hash") String hash, @Param("now") LocalDateTime now);
+
+    @Query("select b.hash from MediaBlob b where b.refCount <= 0 and b.releasedAt < :releasedBefore")
+    List<String> findUnreferenced(@Param("releasedBefore") LocalDateTime releasedBefore, Pageable pageable);
+
+    // Ne supprime la ligne que si aucune référence n'a été reprise entre-temps
+    @Modifying
+    @Query("delete from MediaBlob b where b.hash = :hash and b.refCount <= 0")
+    int deleteIfUnreferenced(@Param("hash") String hash);
+}
@@ -0,0 +1,18 @@
+package com.enspy.syndicmanager.repositories;
+
+import com.enspy.syndicmanager.models.MediaFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface MediaFileRepository extends JpaRepository<MediaFile, UUID> {
+
+    Optional<MediaFile> findByScopeAndFilename(String scope, String filename);
+
+    List<MediaFile> findByScopeAndFilenameIn(String scope, Collection<String> filenames);
+}
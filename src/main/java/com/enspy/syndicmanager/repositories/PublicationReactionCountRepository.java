@@ -0,0 +1,28 @@
+package com.enspy.syndicmanager.repositories;
+
+import com.enspy.syndicmanager.models.PublicationReactionCount;
+import com.enspy.syndicmanager.models.Reaction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface PublicationReactionCountRepository
+        extends JpaRepository<PublicationReactionCount, PublicationReactionCount.Key> {
+
+    List<PublicationReactionCount> findByIdPublicationIdIn(Collection<UUID> publicationIds);
+
+    // Incrément atomique en base ; renvoie 0 si le compteur n'existe pas encore
+    @Modifying
+    @Query("update PublicationReactionCount c set c.count = c.count + :delta " +
+            "where c.id.publicationId = :publicationId and c.id.reactionType = :reactionType")
+    int addToCount(@Param("publicationId") UUID publicationId,
+                   @Param("reactionType") Reaction.ReactionType reactionType,
+                   @Param("delta") long delta);
+}
@@ -1,13 +1,39 @@
 package com.enspy.syndicmanager.repositories;
 
 import com.enspy.syndicmanager.models.Publication;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface PublicationRepository extends JpaRepository<Publication, UUID> {
-    List<Publication> findAllByOrderByCreatedAtDesc();
+
+    // Première page du fil d'actualité (index publications(created_at, id))
+    @Query("select p from Publication p left join fetch p.author " +
+            "order by p.createdAt desc, p.id desc")
+    List<Publication> findFeedFirstPage(Pageable pageable);
+
+    // Pages suivantes : publications strictement plus anciennes que le curseur (createdAt, id)
+    @Query("select p from Publication p left join fetch p.author " +
+            "where p.createdAt < :createdAt or (p.createdAt = :createdAt and p.id < :id) " +
+            "order by p.createdAt desc, p.id desc")
+    List<Publication> findFeedPageBefore(@Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") UUID id,
+                                         Pageable pageable);
+
+    // Compteurs dénormalisés, mis à jour en base sans relire la publication
+    @Modifying
+    @Query("update Publication p set p.likesCount = coalesce(p.likesCount, 0) + :delta where p.id = :id")
+    int addToLikesCount(@Param("id") UUID id, @Param("delta") int delta);
+
+    @Modifying
+    @Query("update Publication p set p.commentsCount = coalesce(p.commentsCount, 0) + :delta where p.id = :id")
+    int addToCommentsCount(@Param("id") UUID id, @Param("delta") int delta);
 }
@@ -4,6 +4,7 @@ import com.enspy.syndicmanager.models.Reaction;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -13,5 +14,11 @@ public interface ReactionRepository extends JpaRepository<Reaction, UUID> {
     List<Reaction> findByPublicationId(UUID publicationId);
     Optional<Reaction> findByUserIdAndPublicationIdAndReactionType(UUID userId, UUID publicationId, Reaction.ReactionType reactionType);
     List<Reaction> findByUserIdAndPublicationId(UUID userId, UUID publicationId);
-    void deleteByUserIdAndPublicationIdAndReactionType(UUID userId, UUID publicationId, Reaction.ReactionType reactionType);
+    long deleteByUserIdAndPublicationIdAndReactionType(UUID userId, UUID publicationId, Reaction.ReactionType reactionType);
+
+    // Réactions d'un utilisateur sur plusieurs publications, pour les résumés du fil
+    List<Reaction> findByUserIdAndPublicationIdIn(UUID userId, Collection<UUID> publicationIds);
+
+    // État en base d'un lot de réactions en attente (sur-ensemble, filtré en mémoire)
+    List<Reaction> findByUserIdInAndPublicationIdIn(Collection<UUID> userIds, Collection<UUID> publicationIds);
 }
@@ -1,13 +1,27 @@
 package com.enspy.syndicmanager.repositories;
 
 import com.enspy.syndicmanager.models.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
+
+    // Destinataires des notifications, parcourus par id croissant à partir de after (exclu)
+    @Query("select u from User u where u.active = true and u.email is not null and u.id > :after order by u.id")
+    List<User> findActiveMembersAfter(@Param("after") UUID after, Pageable pageable);
+
+    @Query("select u from User u, EventParticipant p " +
+            "where p.eventId = :eventId and p.userId = u.id and u.email is not null and u.id > :after " +
+            "order by u.id")
+    List<User> findEventParticipantsAfter(@Param("eventId") UUID eventId, @Param("after") UUID after,
+                                          Pageable pageable);
 }
@@ -0,0 +1,217 @@
+package com.enspy.syndicmanager.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Stockage de fichiers adressé par contenu.
+ * Chaque blob est rangé sous blobs/ab/cd/<sha256> : deux contenus identiques
+ * partagent le même fichier et un blob écrit n'est plus jamais modifié.
+ * Ses déclinaisons (ImageVariantService) sont rangées à côté et supprimées avec lui.
+ */
+@Service
+public class BlobStorageService {
+
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+    private static final long TRANSFER_CHUNK_BYTES = 1024 * 1024;
+
+    @Value("${syndicmanager.file-storage}")
+    private String filepath;
+
+    public record StoredBlob(String hash, long size, String contentType) {
+    }
+
+    /**
+     * Contenu écrit dans un fichier temporaire, avec son empreinte, pas encore publié.
+     */
+    public record TempBlob(Path file, String hash, long size) {
+    }
+
+    /**
+     * Enregistre le contenu du flux et retourne son empreinte SHA-256.
+     * Le contenu est d'abord écrit dans un fichier temporaire puis déplacé
+     * atomiquement à sa place définitive s'il n'existe pas déjà.
+     */
+    public StoredBlob store(InputStream content, String contentType) throws IOException {
+        TempBlob temp = writeTemp(content, -1, Long.MAX_VALUE);
+        try {
+            publish(temp);
+            return new StoredBlob(temp.hash(), temp.size(), contentType);
+        } finally {
+            Files.deleteIfExists(temp.file());
+        }
+    }
+
+    /**
+     * Copie le flux dans un fichier temporaire par transferts FileChannel en calculant
+     * le SHA-256 au passage. L'écriture s'arrête dès que maxBytes est dépassé.
+     * L'appelant publie puis supprime le fichier temporaire.
+     *
+     * @param declaredLength taille annoncée par le client, -1 si inconnue
+     * @throws MaxUploadSizeExceededException si le contenu dépasse maxBytes
+     */
+    public TempBlob writeTemp(InputStream content, long declaredLength, long maxBytes) throws IOException {
+        if (declaredLength > maxBytes) {
+            throw new MaxUploadSizeExceededException(maxBytes);
+        }
+
+        Path tmpDir = Files.createDirectories(getBlobRoot().resolve("tmp"));
+        Path tmpFile = Files.createTempFile(tmpDir, "upload-", ".tmp");
+        try {
+            MessageDigest digest = newDigest();
+            long size = 0;
+            try (ReadableByteChannel in = Channels.newChannel(new DigestInputStream(content, digest));
+                 FileChannel out = FileChannel.open(tmpFile, StandardOpenOption.WRITE)) {
+                long transferred;
+                while ((transferred = out.transferFrom(in, size, TRANSFER_CHUNK_BYTES)) > 0) {
+                    size += transferred;
+                    if (size > maxBytes) {
+                        throw new MaxUploadSizeExceededException(maxBytes);
+                    }
+                }
+            }
+            return new TempBlob(tmpFile, HexFormat.of().formatHex(digest.digest()), size);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmpFile);
+            throw e;
+        }
+    }
+
+    /**
+     * Déplace le fichier temporaire à sa place définitive, sauf si un blob identique existe déjà.
+     */
+    public Path publish(TempBlob temp) throws IOException {
+        Path target = pathFor(temp.hash());
+        if (!Files.exists(target)) {
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(temp.file(), target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Un upload concurrent du même contenu a gagné la course : rien à faire
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Supprime le blob du disque avec ses déclinaisons. À n'appeler que pour un blob qui n'est plus référencé.
+     */
+    public void delete(String hash) throws IOException {
+        if (hash != null && SHA256_HEX.matcher(hash).matches()) {
+            Path blob = pathFor(hash);
+            if (Files.isDirectory(blob.getParent())) {
+                try (DirectoryStream<Path> variants = Files.newDirectoryStream(blob.getParent(), hash + ".*")) {
+                    for (Path variant : variants) {
+                        Files.deleteIfExists(variant);
+                    }
+                }
+            }
+            Files.deleteIfExists(blob);
+        }
+    }
+
+    /**
+     * Chemin d'un fichier dérivé du blob (déclinaison d'image), rangé à côté de lui sous <sha256>.<suffixe>.
+     */
+    public Path variantPath(String hash, String suffix) {
+        if (hash == null || !SHA256_HEX.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Invalid blob hash: " + hash);
+        }
+        return pathFor(hash).resolveSibling(hash + "." + suffix);
+    }
+
+    /**
+     * Enregistre un contenu reçu en Base64, brut ou sous forme de data URL
+     * (data:image/png;base64,...). Le type MIME est repris de la data URL
+     * ou deviné à partir des premiers octets.
+     *
+     * @throws IllegalArgumentException si le contenu n'est pas du Base64 valide
+     */
+    public StoredBlob storeBase64(String payload) throws IOException {
+        DecodedPayload decoded = decodeBase64(payload);
+        return store(new ByteArrayInputStream(decoded.bytes()), decoded.contentType());
+    }
+
+    public record DecodedPayload(byte[] bytes, String contentType) {
+    }
+
+    /**
+     * Décode un contenu Base64, brut ou sous forme de data URL.
+     *
+     * @throws IllegalArgumentException si le contenu n'est pas du Base64 valide
+     */
+    public DecodedPayload decodeBase64(String payload) throws IOException {
+        String contentType = null;
+        String base64 = payload;
+        if (payload.startsWith("data:")) {
+            int comma = payload.indexOf(',');
+            if (comma < 0) {
+                throw new IllegalArgumentException("Malformed data URL");
+            }
+            contentType = payload.substring(5, comma).split(";")[0];
+            base64 = payload.substring(comma + 1);
+        }
+
+        byte[] bytes = Base64.getMimeDecoder().decode(base64);
+        if (bytes.length == 0) {
+            throw new IllegalArgumentException("Empty content");
+        }
+        if (contentType == null || contentType.isBlank()) {
+            contentType = URLConnection.guessContentTypeFromStream(new ByteArrayInputStream(bytes));
+        }
+        return new DecodedPayload(bytes, contentType);
+    }
+
+    /**
+     * Retourne le chemin du blob s'il existe sur le disque.
+     */
+    public Optional<Path> resolve(String hash) {
+        if (hash == null || !SHA256_HEX.matcher(hash).matches()) {
+            return Optional.empty();
+        }
+        Path path = pathFor(hash);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    private Path pathFor(String hash) {
+        return getBlobRoot()
+                .resolve(hash.substring(0, 2))
+                .resolve(hash.substring(2, 4))
+                .resolve(hash);
+    }
+
+    private Path getBlobRoot() {
+        return Paths.get(System.getProperty("user.dir"), filepath, "blobs");
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,200 +1,244 @@
 package com.enspy.syndicmanager.services;
 
+import com.enspy.syndicmanager.dto.feed.FeedDelta;
 import com.enspy.syndicmanager.dto.request.CommentRequest;
+import com.enspy.syndicmanager.dto.request.KeysetCursor;
+import com.enspy.syndicmanager.dto.response.CommentThreadDto;
+import com.enspy.syndicmanager.dto.response.CursorPage;
 import com.enspy.syndicmanager.dto.response.ResponseDto;
 import com.enspy.syndicmanager.models.Comment;
 import com.enspy.syndicmanager.repositories.CommentRepository;
 import com.enspy.syndicmanager.repositories.PublicationRepository;
 import com.enspy.syndicmanager.repositories.UserRepository;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CommentService {
 
+    public static final int MAX_PAGE_SIZE = 50;
+    public static final int DEFAULT_REPLY_LIMIT = 3;
+
     private final CommentRepository commentRepository;
     private final PublicationRepository publicationRepository;
     private final UserRepository userRepository;
-    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
-    public ResponseDto getAllComments() {
-        try {
-            List<Comment> comments = commentRepository.findAll();
-            String jsonData = objectMapper.writeValueAsString(comments);
-            return ResponseDto.builder()
-                    .status(HttpStatus.OK.value())
-                    .text("Comments retrieved successfully")
-                    .data(jsonData)
-                    .build();
-        } catch (JsonProcessingException e) {
-            return ResponseDto.builder()
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR.value())
-                    .text("Failed to retrieve comments: " + e.getMessage())
-                    .build();
-        }
+    @Transactional(readOnly = true)
+    public ResponseDto<List<Comment>> getAllComments() {
+        List<Comment> comments = commentRepository.findAll();
+        return ResponseDto.<List<Comment>>builder()
+                .status(HttpStatus.OK.value())
+                .text("Comments retrieved successfully")
+                .data(comments)
+                .build();
     }
 
-    public ResponseDto getCommentsByPublicationId(UUID publicationId) {
-        try {
-            // Rechercher uniquement les commentaires de premier niveau (pas les réponses)
-            List<Comment> comments = commentRepository.findByPublicationIdAndParentIdIsNull(publicationId);
-            
-            // Pour chaque commentaire, charger ses réponses
-            comments.forEach(comment -> {
-                List<Comment> replies = commentRepository.findByParentId(comment.getId());
-                comment.setReplies(replies);
-            });
-            
-            String jsonData = objectMapper.writeValueAsString(comments);
-            return ResponseDto.builder()
-                    .status(HttpStatus.OK.value())
-                    .text("Comments for target retrieved successfully")
-                    .data(jsonData)
-                    .build();
-        } catch (JsonProcessingException e) {
-            return ResponseDto.builder()
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR.value())
-                    .text("Failed to retrieve comments: " + e.getMessage())
-                    .build();
-        }
-    }
+    /**
+     * Fils de commentaires d'une publication, paginés par curseur sur les commentaires de premier niveau.
+     * Les réponses de toute la page sont chargées en une seule requête, limitées à replyLimit par fil.
+     *
+     * @param cursor     curseur renvoyé par la page précédente, null pour la première page
+     * @param size       nombre de fils par page, borné à MAX_PAGE_SIZE
+     * @param replyLimit nombre de réponses préchargées par fil, borné à MAX_PAGE_SIZE
+     */
+    @Transactional(readOnly = true)
+    public ResponseDto<CursorPage<CommentThreadDto>> getCommentsByPublicationId(UUID publicationId, String cursor,
+                                                                                int size, int replyLimit) {
+        int pageSize = clampPageSize(size);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
 
-    public ResponseDto createComment(CommentRequest request) {
-        try {
-            // Vérification que la publication existe
-            if (request.getPublicationId() != null && 
-                publicationRepository.findById(request.getPublicationId()).isEmpty()) {
-                return ResponseDto.builder()
-                        .status(HttpStatus.NOT_FOUND.value())
-                        .text("Target publication not found")
-                        .build();
-            }
-            
-            // Vérification que l'utilisateur existe
-            if (userRepository.findById(request.getUserId()).isEmpty()) {
-                return ResponseDto.builder()
-                        .status(HttpStatus.NOT_FOUND.value())
-                        .text("User not found")
+        List<Comment> threads;
+        if (cursor == null || cursor.isBlank()) {
+            threads = commentRepository.findThreadsFirstPage(publicationId, limit);
+        } else {
+            KeysetCursor keyset;
+            try {
+                keyset = KeysetCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseDto.<CursorPage<CommentThreadDto>>builder()
+                        .status(HttpStatus.BAD_REQUEST.value())
+                        .text("Invalid cursor")
                         .build();
             }
-            
-            // Vérification que le commentaire parent existe (si applicable)
-            if (request.getParentId() != null && 
-                commentRepository.findById(request.getParentId()).isEmpty()) {
-                return ResponseDto.builder()
-                        .status(HttpStatus.NOT_FOUND.value())
-                        .text("Parent comment not found")
+            threads = commentRepository.findThreadsPageAfter(publicationId, keyset.getTimestamp(), keyset.getId(), limit);
+        }
+
+        boolean hasMore = threads.size() > pageSize;
+        List<Comment> items = hasMore ? threads.subList(0, pageSize) : threads;
+
+        CursorPage<CommentThreadDto> page = CursorPage.<CommentThreadDto>builder()
+                .items(buildThreads(items, Math.max(0, Math.min(replyLimit, MAX_PAGE_SIZE))))
+                .nextCursor(hasMore ? cursorOf(items.get(items.size() - 1)) : null)
+                .hasMore(hasMore)
+                .build();
+
+        return ResponseDto.<CursorPage<CommentThreadDto>>builder()
+                .status(HttpStatus.OK.value())
+                .text("Comments for target retrieved successfully")
+                .data(page)
+                .build();
+    }
+
+    /**
+     * Suite des réponses d'un commentaire ("charger plus"), à partir du repliesCursor d'un fil.
+     */
+    @Transactional(readOnly = true)
+    public ResponseDto<CursorPage<Comment>> getReplies(UUID commentId, String cursor, int size) {
+        int pageSize = clampPageSize(size);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<Comment> replies;
+        if (cursor == null || cursor.isBlank()) {
+            replies = commentRepository.findRepliesFirstPage(commentId, limit);
+        } else {
+            KeysetCursor keyset;
+            try {
+                keyset = KeysetCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseDto.<CursorPage<Comment>>builder()
+                        .status(HttpStatus.BAD_REQUEST.value())
+                        .text("Invalid cursor")
                         .build();
             }
-            
-            Comment comment = Comment.builder()
-                    .content(request.getContent())
-                    .publicationId(request.getPublicationId())
-                    .userId(request.getUserId())
-                    .parentId(request.getParentId())
+            replies = commentRepository.findRepliesPageAfter(commentId, keyset.getTimestamp(), keyset.getId(), limit);
+        }
+
+        boolean hasMore = replies.size() > pageSize;
+        List<Comment> items = hasMore ? replies.subList(0, pageSize) : replies;
+
+        CursorPage<Comment> page = CursorPage.<Comment>builder()
+                .items(items)
+                .nextCursor(hasMore ? cursorOf(items.get(items.size() - 1)) : null)
+                .hasMore(hasMore)
+                .build();
+
+        return ResponseDto.<CursorPage<Comment>>builder()
+                .status(HttpStatus.OK.value())
+                .text("Replies retrieved successfully")
+                .data(page)
+                .build();
+    }
+
+    @Transactional
+    public ResponseDto<Comment> createComment(CommentRequest request) {
+        // Vérification que la publication existe
+        if (request.getPublicationId() != null && 
+            publicationRepository.findById(request.getPublicationId()).isEmpty()) {
+            return ResponseDto.<Comment>builder()
+                    .status(HttpStatus.NOT_FOUND.value())
+                    .text("Target publication not found")
                     .build();
-            
-            Comment savedComment = commentRepository.save(comment);
-            String jsonData = objectMapper.writeValueAsString(savedComment);
-            
-            return ResponseDto.builder()
-                    .status(HttpStatus.CREATED.value())
-                    .text("Comment created successfully")
-                    .data(jsonData)
+        }
+        
+        // Vérification que l'utilisateur existe
+        if (userRepository.findById(request.getUserId()).isEmpty()) {
+            return ResponseDto.<Comment>builder()
+                    .status(HttpStatus.NOT_FOUND.value())
+                    .text("User not found")
                     .build();
-        } catch (JsonProcessingException e) {
-            return ResponseDto.builder()
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR.value())
-                    .text("Failed to create comment: " + e.getMessage())
+        }
+        
+        // Vérification que le commentaire parent existe (si applicable)
+        if (request.getParentId() != null && 
+            commentRepository.findById(request.getParentId()).isEmpty()) {
+            return ResponseDto.<Comment>builder()
+                    .status(HttpStatus.NOT_FOUND.value())
+                    .text("Parent comment not found")
                     .build();
         }
+        
+        Comment comment = Comment.builder()
+                .content(request.getContent())
+                .publicationId(request.getPublicationId())
+                .userId(request.getUserId())
+                .parentId(request.getParentId())
+                .build();
+        
+        Comment savedComment = commentRepository.save(comment);
+        if (savedComment.getPublicationId() != null) {
+            publicationRepository.addToCommentsCount(savedComment.getPublicationId(), 1);
+            applicationEventPublisher.publishEvent(FeedDelta.commentCreated(savedComment));
+        }
+        
+        return ResponseDto.<Comment>builder()
+                .status(HttpStatus.CREATED.value())
+                .text("Comment created successfully")
+                .data(savedComment)
+                .build();
     }
 
-    public ResponseDto getCommentById(UUID id) {
-        try {
-            Optional<Comment> comment = commentRepository.findById(id);
-            if (comment.isEmpty()) {
-                return ResponseDto.builder()
-                        .status(HttpStatus.NOT_FOUND.value())
-                        .text("Comment not found")
-                        .build();
-            }
-            
-            // Si c'est un commentaire parent, charger ses réponses
-            if (comment.get().getParentId() == null) {
-                List<Comment> replies = commentRepository.findByParentId(comment.get().getId());
-                comment.get().setReplies(replies);
-            }
-            
-            String jsonData = objectMapper.writeValueAsString(comment.get());
-            
-            return ResponseDto.builder()
-                    .status(HttpStatus.OK.value())
-                    .text("Comment retrieved successfully")
-                    .data(jsonData)
-                    .build();
-        } catch (JsonProcessingException e) {
-            return ResponseDto.builder()
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR.value())
-                    .text("Failed to retrieve comment: " + e.getMessage())
+    @Transactional(readOnly = true)
+    public ResponseDto<CommentThreadDto> getCommentById(UUID id) {
+        Optional<Comment> comment = commentRepository.findById(id);
+        if (comment.isEmpty()) {
+            return ResponseDto.<CommentThreadDto>builder()
+                    .status(HttpStatus.NOT_FOUND.value())
+                    .text("Comment not found")
                     .build();
         }
+        
+        // Si c'est un commentaire parent, charger ses premières réponses
+        CommentThreadDto thread = comment.get().getParentId() == null
+                ? buildThreads(List.of(comment.get()), DEFAULT_REPLY_LIMIT).get(0)
+                : CommentThreadDto.builder().comment(comment.get()).build();
+        
+        return ResponseDto.<CommentThreadDto>builder()
+                .status(HttpStatus.OK.value())
+                .text("Comment retrieved successfully")
+                .data(thread)
+                .build();
     }
 
     @Transactional
-    public ResponseDto updateComment(UUID id, CommentRequest request) {
-        try {
-            Optional<Comment> existingComment = commentRepository.findById(id);
-            if (existingComment.isEmpty()) {
-                return ResponseDto.builder()
-                        .status(HttpStatus.NOT_FOUND.value())
-                        .text("Comment not found")
-                        .build();
-            }
-            
-            Comment comment = existingComment.get();
-            
-            // Vérifier que l'utilisateur qui met à jour est le créateur du commentaire
-            if (!comment.getUserId().equals(request.getUserId())) {
-                return ResponseDto.builder()
-                        .status(HttpStatus.FORBIDDEN.value())
-                        .text("You are not authorized to update this comment")
-                        .build();
-            }
-            
-            comment.setContent(request.getContent());
-            
-            Comment updatedComment = commentRepository.save(comment);
-            String jsonData = objectMapper.writeValueAsString(updatedComment);
-            
-            return ResponseDto.builder()
-                    .status(HttpStatus.OK.value())
-                    .text("Comment updated successfully")
-                    .data(jsonData)
+    public ResponseDto<Comment> updateComment(UUID id, CommentRequest request) {
+        Optional<Comment> existingComment = commentRepository.findById(id);
+        if (existingComment.isEmpty()) {
+            return ResponseDto.<Comment>builder()
+                    .status(HttpStatus.NOT_FOUND.value())
+                    .text("Comment not found")
                     .build();
-        } catch (JsonProcessingException e) {
-            return ResponseDto.builder()
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR.value())
-                    .text("Failed to update comment: " + e.getMessage())
+        }
+        
+        Comment comment = existingComment.get();
+        
+        // Vérifier que l'utilisateur qui met à jour est le créateur du commentaire
+        if (!comment.getUserId().equals(request.getUserId())) {
+            return ResponseDto.<Comment>builder()
+                    .status(HttpStatus.FORBIDDEN.value())
+                    .text("You are not authorized to update this comment")
                     .build();
         }
+        
+        comment.setContent(request.getContent());
+        
+        Comment updatedComment = commentRepository.save(comment);
+        
+        return ResponseDto.<Comment>builder()
+                .status(HttpStatus.OK.value())
+                .text("Comment updated successfully")
+                .data(updatedComment)
+                .build();
     }
 
     @Transactional
-    public ResponseDto deleteComment(UUID id, UUID userId) {
+    public ResponseDto<Void> deleteComment(UUID id, UUID userId) {
         try {
             Optional<Comment> comment = commentRepository.findById(id);
             if (comment.isEmpty()) {
-                return ResponseDto.builder()
+                return ResponseDto.<Void>builder()
                         .status(HttpStatus.NOT_FOUND.value())
                         .text("Comment not found")
                         .build();
@@ -202,7 +246,7 @@ public class CommentService {
             
             // Vérifier que l'utilisateur qui supprime est le créateur du commentaire
             if (!comment.get().getUserId().equals(userId)) {
-                return ResponseDto.builder()
+                return ResponseDto.<Void>builder()
                         .status(HttpStatus.FORBIDDEN.value())
                         .text("You are not authorized to delete this comment")
                         .build();
@@ -214,16 +258,62 @@ public class CommentService {
             
             // Supprimer le commentaire
             commentRepository.delete(comment.get());
+            publicationRepository.addToCommentsCount(comment.get().getPublicationId(), -(replies.size() + 1));
+            applicationEventPublisher.publishEvent(FeedDelta.commentDeleted(comment.get()));
             
-            return ResponseDto.builder()
+            return ResponseDto.<Void>builder()
                     .status(HttpStatus.OK.value())
                     .text("Comment deleted successfully")
                     .build();
         } catch (Exception e) {
-            return ResponseDto.builder()
+            return ResponseDto.<Void>builder()
                     .status(HttpStatus.INTERNAL_SERVER_ERROR.value())
                     .text("Failed to delete comment: " + e.getMessage())
                     .build();
         }
     }
+
+    /**
+     * Assemble les fils en mémoire à partir d'une seule requête sur les réponses
+     * (replyLimit + 1 réponses par fil pour savoir s'il en reste).
+     */
+    private List<CommentThreadDto> buildThreads(List<Comment> parents, int replyLimit) {
+        if (parents.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<UUID> parentIds = parents.stream().map(Comment::getId).toList();
+        Map<UUID, List<Comment>> repliesByParent = commentRepository
+                .findFirstRepliesByParentIds(parentIds, replyLimit + 1)
+                .stream()
+                .collect(Collectors.groupingBy(Comment::getParentId));
+
+        List<CommentThreadDto> threads = new ArrayList<>(parents.size());
+        for (Comment parent : parents) {
+            List<Comment> replies = repliesByParent.getOrDefault(parent.getId(), List.of());
+            boolean hasMoreReplies = replies.size() > replyLimit;
+            List<Comment> shown = hasMoreReplies ? replies.subList(0, replyLimit) : replies;
+
+            String repliesCursor = null;
+            if (hasMoreReplies && !shown.isEmpty()) {
+                repliesCursor = cursorOf(shown.get(shown.size() - 1));
+            }
+
+            threads.add(CommentThreadDto.builder()
+                    .comment(parent)
+                    .replies(new ArrayList<>(shown))
+                    .repliesCursor(repliesCursor)
+                    .hasMoreReplies(hasMoreReplies)
+                    .build());
+        }
+        return threads;
+    }
+
+    private String cursorOf(Comment comment) {
+        return new KeysetCursor(comment.getCreatedAt(), comment.getId()).encode();
+    }
+
+    private int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
 }
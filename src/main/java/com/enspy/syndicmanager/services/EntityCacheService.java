@@ -0,0 +1,108 @@
+package com.enspy.syndicmanager.services;
+
+import com.enspy.syndicmanager.dto.feed.FeedDelta;
+import com.enspy.syndicmanager.models.Event;
+import com.enspy.syndicmanager.models.Publication;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Cache en lecture des publications et événements consultés par identifiant.
+ * Bornés en nombre d'entrées (max-size) et en durée (ttl-seconds) : une entrée expire même si rien ne l'a invalidée,
+ * ce qui couvre ce qui ne passe pas par les services (profil de l'auteur modifié, par exemple).
+ * Les entrées sont invalidées une à une par les FeedDelta, reçus après la validation de la transaction.
+ * Métriques : cache.gets (hit/miss), cache.evictions, cache.size, et syndicmanager.cache.hit-ratio.
+ */
+@Service
+@RequiredArgsConstructor
+public class EntityCacheService {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${syndicmanager.cache.publications.max-size:1000}")
+    private long publicationsMaxSize;
+
+    @Value("${syndicmanager.cache.publications.ttl-seconds:300}")
+    private long publicationsTtlSeconds;
+
+    @Value("${syndicmanager.cache.events.max-size:500}")
+    private long eventsMaxSize;
+
+    @Value("${syndicmanager.cache.events.ttl-seconds:300}")
+    private long eventsTtlSeconds;
+
+    private Cache<UUID, Publication> publications;
+    private Cache<UUID, Event> events;
+
+    @PostConstruct
+    void init() {
+        publications = build("publications", publicationsMaxSize, publicationsTtlSeconds);
+        events = build("events", eventsMaxSize, eventsTtlSeconds);
+    }
+
+    /**
+     * Publication en cache, sinon chargée par loader (appelé dans la transaction de l'appelant).
+     * Une publication absente n'est pas mise en cache.
+     */
+    public Optional<Publication> getPublication(UUID id, Function<UUID, Optional<Publication>> loader) {
+        return Optional.ofNullable(publications.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    /**
+     * Événement en cache, sinon chargé par loader, qui doit en initialiser les collections.
+     */
+    public Optional<Event> getEvent(UUID id, Function<UUID, Optional<Event>> loader) {
+        return Optional.ofNullable(events.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    /**
+     * Après une mise à jour en masse des événements (indicateur isUpcoming)
+     */
+    public void invalidateEvents() {
+        events.invalidateAll();
+    }
+
+    /**
+     * Un chargement en cours pour la même clé se termine avant l'invalidation :
+     * une valeur lue avant la validation ne peut pas rester en cache.
+     */
+    @TransactionalEventListener
+    public void onFeedDelta(FeedDelta delta) {
+        switch (delta.getType()) {
+            // Les compteurs de réactions et commentaires sont des colonnes de la publication
+            case PUBLICATION_UPDATED, PUBLICATION_DELETED, COMMENT_CREATED, COMMENT_DELETED, REACTIONS_CHANGED ->
+                    publications.invalidate(delta.getPublicationId());
+            case EVENT_UPDATED, EVENT_DELETED, PARTICIPANTS_CHANGED -> events.invalidate(delta.getEventId());
+            default -> {
+                // Création : rien n'est encore en cache
+            }
+        }
+    }
+
+    private <V> Cache<UUID, V> build(String name, long maxSize, long ttlSeconds) {
+        Cache<UUID, V> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        Gauge.builder("syndicmanager.cache.hit-ratio", cache, c -> c.stats().hitRate())
+                .tag("cache", name)
+                .description("Part des lectures servies par le cache depuis le démarrage")
+                .register(meterRegistry);
+        return cache;
+    }
+}
@@ -0,0 +1,45 @@
+package com.enspy.syndicmanager.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Initialise le compteur de participants des événements créés avant sa maintenance par EventService.
+ * Crée aussi l'index unique (event_id, user_id), que ddl-auto=update n'ajoute pas sur une table SQLite existante.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EventParticipantBackfill {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillCounters() {
+        ensureUniqueParticipantIndex();
+
+        int events = jdbcTemplate.update(
+                "UPDATE events SET participants_count = " +
+                "(SELECT COUNT(*) FROM event_participants p WHERE p.event_id = events.id) " +
+                "WHERE participants_count IS NULL");
+        if (events > 0) {
+            log.info("Compteur de participants initialisé pour {} événements", events);
+        }
+    }
+
+    private void ensureUniqueParticipantIndex() {
+        try {
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uk_event_participants_event_user " +
+                    "ON event_participants (event_id, user_id)");
+        } catch (DataAccessException e) {
+            log.warn("Index unique des participants non créé (doublons existants ?) : {}", e.getMessage());
+        }
+    }
+}
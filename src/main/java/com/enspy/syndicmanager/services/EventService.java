@@ -1,54 +1,185 @@
 package com.enspy.syndicmanager.services;
 
+import com.enspy.syndicmanager.dto.feed.FeedDelta;
+import com.enspy.syndicmanager.dto.notification.EventNotificationMessage;
 import com.enspy.syndicmanager.dto.request.EventRequest;
+import com.enspy.syndicmanager.dto.request.KeysetCursor;
+import com.enspy.syndicmanager.dto.response.CursorPage;
+import com.enspy.syndicmanager.dto.response.EventSummaryDto;
+import com.enspy.syndicmanager.dto.response.ParticipantsUpdateDto;
 import com.enspy.syndicmanager.dto.response.ResponseDto;
 import com.enspy.syndicmanager.models.Event;
+import com.enspy.syndicmanager.models.EventParticipant;
 import com.enspy.syndicmanager.models.User;
+import com.enspy.syndicmanager.repositories.EventParticipantRepository;
 import com.enspy.syndicmanager.repositories.EventRepository;
 import com.enspy.syndicmanager.repositories.UserRepository;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class EventService {
 
+    public static final int MAX_PAGE_SIZE = 50;
+
+    // Bornes des fenêtres ouvertes : aucun événement ne commence en dehors
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1900, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+
     private final EventRepository eventRepository;
     private final UserRepository userRepository;
-    private final ObjectMapper objectMapper;
+    private final EventParticipantRepository eventParticipantRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityCacheService entityCacheService;
+    private final ResponseCacheService responseCacheService;
+    // Consommé après la validation de la transaction : fil en temps réel et, si elles sont actives, notifications
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    // Heure du dernier passage de refreshUpcomingFlags, null avant le premier
+    private volatile LocalDateTime lastStatusRefresh;
+
+    /**
+     * Événements commençant dans [from, to[, du plus récent au plus ancien.
+     *
+     * @param from   début de la fenêtre (inclus), null pour ne pas borner
+     * @param to     fin de la fenêtre (exclue), null pour ne pas borner
+     * @param cursor curseur renvoyé par la page précédente, null pour la première page
+     * @param size   taille de page demandée, bornée à MAX_PAGE_SIZE
+     */
+    @Transactional(readOnly = true)
+    public ResponseDto<CursorPage<EventSummaryDto>> getAllEvents(LocalDateTime from, LocalDateTime to,
+                                                                 String cursor, int size) {
+        LocalDateTime windowStart = from != null ? from : EARLIEST;
+        LocalDateTime windowEnd = to != null ? to : LATEST;
+        if (!windowStart.isBefore(windowEnd)) {
+            return createErrorResponse(HttpStatus.BAD_REQUEST, "Invalid date range");
+        }
+        return listEvents(windowStart, windowEnd, false, cursor, size, "Events retrieved successfully");
+    }
 
-    public ResponseDto getAllEvents() {
-        List<Event> events = eventRepository.findAllByOrderByStartDateDesc();
-        return createSuccessResponse("Events retrieved successfully", events);
+    /**
+     * Événements à venir, du plus proche au plus lointain.
+     */
+    @Transactional(readOnly = true)
+    public ResponseDto<CursorPage<EventSummaryDto>> getUpcomingEvents(String cursor, int size) {
+        return listEvents(LocalDateTime.now(), LATEST, true, cursor, size,
+                "Upcoming events retrieved successfully");
     }
 
-    public ResponseDto getUpcomingEvents() {
-        LocalDateTime now = LocalDateTime.now();
-        List<Event> events = eventRepository.findByStartDateAfterOrderByStartDateAsc(now);
-        return createSuccessResponse("Upcoming events retrieved successfully", events);
+    /**
+     * Événements passés, du plus récent au plus ancien.
+     */
+    @Transactional(readOnly = true)
+    public ResponseDto<CursorPage<EventSummaryDto>> getPastEvents(String cursor, int size) {
+        return listEvents(EARLIEST, LocalDateTime.now(), false, cursor, size,
+                "Past events retrieved successfully");
+    }
+
+    /**
+     * Nombre d'événements à venir, pour l'écran d'accueil.
+     */
+    @Transactional(readOnly = true)
+    public ResponseDto<Long> countUpcomingEvents() {
+        return createSuccessResponse("Upcoming events counted successfully",
+                eventRepository.countUpcoming(LocalDateTime.now()));
     }
 
-    public ResponseDto getPastEvents() {
+    /**
+     * Tient à jour isUpcoming, qui n'est écrit qu'à la création et à la modification d'un événement :
+     * chaque passage ne touche que les événements commencés depuis le précédent (plage sur l'index start_date).
+     * Le premier passage recalcule tous les événements dont l'indicateur est faux.
+     */
+    @Scheduled(fixedDelayString = "${syndicmanager.events.status-refresh-ms:60000}")
+    public void refreshUpcomingFlags() {
         LocalDateTime now = LocalDateTime.now();
-        List<Event> events = eventRepository.findByStartDateBeforeOrderByStartDateDesc(now);
-        return createSuccessResponse("Past events retrieved successfully", events);
+        LocalDateTime since = lastStatusRefresh;
+        Integer updated = transactionTemplate.execute(status -> since == null
+                ? eventRepository.recomputeUpcoming(now)
+                : eventRepository.markStartedBetween(since, now));
+        lastStatusRefresh = now;
+        if (updated != null && updated > 0) {
+            entityCacheService.invalidateEvents();
+            // Les événements commencés sortent de la liste des événements à venir gardée en cache
+            responseCacheService.bump(ResponseCacheService.Region.EVENTS);
+            log.debug("{} événements ne sont plus à venir", updated);
+        }
     }
 
-    public ResponseDto getEventById(UUID id) {
-        Event event = eventRepository.findById(id)
+    /**
+     * Page d'événements de la fenêtre [from, to[ dans l'ordre demandé, paginée par curseur (startDate, id).
+     * Le curseur suffit à reprendre la liste : la borne qu'il remplace n'est pas relue.
+     */
+    private ResponseDto<CursorPage<EventSummaryDto>> listEvents(LocalDateTime from, LocalDateTime to,
+                                                                boolean ascending, String cursor, int size,
+                                                                String message) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // Une ligne de plus que demandé pour savoir s'il reste une page
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<EventSummaryDto> events;
+        if (cursor == null || cursor.isBlank()) {
+            events = ascending
+                    ? eventRepository.findSummariesAsc(from, to, limit)
+                    : eventRepository.findSummariesDesc(from, to, limit);
+        } else {
+            KeysetCursor keyset;
+            try {
+                keyset = KeysetCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return createErrorResponse(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+            events = ascending
+                    ? eventRepository.findSummariesAscAfter(to, keyset.getTimestamp(), keyset.getId(), limit)
+                    : eventRepository.findSummariesDescBefore(from, keyset.getTimestamp(), keyset.getId(), limit);
+        }
+
+        boolean hasMore = events.size() > pageSize;
+        List<EventSummaryDto> items = hasMore ? events.subList(0, pageSize) : events;
+        String nextCursor = null;
+        if (hasMore) {
+            EventSummaryDto last = items.get(items.size() - 1);
+            nextCursor = new KeysetCursor(last.getStartDate(), last.getId()).encode();
+        }
+
+        CursorPage<EventSummaryDto> page = CursorPage.<EventSummaryDto>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+        return createSuccessResponse(message, page);
+    }
+
+    @Transactional(readOnly = true)
+    public ResponseDto<Event> getEventById(UUID id) {
+        Event event = entityCacheService.getEvent(id, key -> eventRepository.findById(key).map(this::initializeCollections))
                 .orElseThrow(() -> new RuntimeException("Event not found with id: " + id));
         return createSuccessResponse("Event retrieved successfully", event);
     }
 
-    public ResponseDto createEvent(EventRequest request) {
+    @Transactional
+    public ResponseDto<Event> createEvent(EventRequest request) {
+        if (request.getCapacity() != null && request.getCapacity() < 1) {
+            return createErrorResponse(HttpStatus.BAD_REQUEST, "Capacity must be positive");
+        }
         User author = null;
         if (request.getAuthorId() != null) {
             author = userRepository.findById(request.getAuthorId())
@@ -68,19 +199,36 @@ public class EventService {
                 .category(request.getCategory())
                 .isPublic(request.getIsPublic() != null ? request.getIsPublic() : true)
                 .notifyMembers(request.getNotifyMembers() != null ? request.getNotifyMembers() : true)
+                .capacity(request.getCapacity())
                 .isUpcoming(request.getStartDate().isAfter(LocalDateTime.now()))
                 .participants(new ArrayList<>())
                 .createdAt(LocalDateTime.now())
                 .build();
 
         Event savedEvent = eventRepository.save(event);
+        applicationEventPublisher.publishEvent(FeedDelta.eventCreated(savedEvent));
+        if (Boolean.TRUE.equals(savedEvent.getNotifyMembers())) {
+            applicationEventPublisher.publishEvent(
+                    new EventNotificationMessage(savedEvent.getId(), EventNotificationMessage.Type.CREATED));
+        }
         return createSuccessResponse("Event created successfully", savedEvent);
     }
 
-    public ResponseDto updateEvent(UUID id, EventRequest request) {
+    @Transactional
+    public ResponseDto<Event> updateEvent(UUID id, EventRequest request) {
+        if (request.getCapacity() != null && request.getCapacity() < 1) {
+            return createErrorResponse(HttpStatus.BAD_REQUEST, "Capacity must be positive");
+        }
+        if (request.getCapacity() != null && Boolean.TRUE.equals(request.getClearCapacity())) {
+            return createErrorResponse(HttpStatus.BAD_REQUEST, "Give either capacity or clearCapacity");
+        }
         Event event = eventRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Event not found with id: " + id));
 
+        // Événement déplacé : ses participants seront rappelés pour la nouvelle date
+        if (event.getReminderSentAt() != null && !request.getStartDate().isEqual(event.getStartDate())) {
+            eventRepository.clearReminder(id);
+        }
         event.setTitle(request.getTitle());
         event.setDescription(request.getDescription());
         event.setLocation(request.getLocation());
@@ -90,66 +238,155 @@ public class EventService {
         event.setCategory(request.getCategory());
         event.setIsPublic(request.getIsPublic() != null ? request.getIsPublic() : event.getIsPublic());
         event.setNotifyMembers(request.getNotifyMembers() != null ? request.getNotifyMembers() : event.getNotifyMembers());
+        // Réduire la capacité ne désinscrit personne : seules les nouvelles inscriptions sont refusées
+        if (Boolean.TRUE.equals(request.getClearCapacity())) {
+            event.setCapacity(null);
+        } else if (request.getCapacity() != null) {
+            event.setCapacity(request.getCapacity());
+        }
         event.setIsUpcoming(request.getStartDate().isAfter(LocalDateTime.now()));
 
         Event updatedEvent = eventRepository.save(event);
-        return createSuccessResponse("Event updated successfully", updatedEvent);
+        applicationEventPublisher.publishEvent(FeedDelta.eventUpdated(updatedEvent));
+        if (Boolean.TRUE.equals(updatedEvent.getNotifyMembers())) {
+            applicationEventPublisher.publishEvent(
+                    new EventNotificationMessage(updatedEvent.getId(), EventNotificationMessage.Type.UPDATED));
+        }
+        return createSuccessResponse("Event updated successfully", initializeCollections(updatedEvent));
     }
 
-    public ResponseDto deleteEvent(UUID id) {
+    @Transactional
+    public ResponseDto<Void> deleteEvent(UUID id) {
         if (!eventRepository.existsById(id)) {
             throw new RuntimeException("Event not found with id: " + id);
         }
         eventRepository.deleteById(id);
+        applicationEventPublisher.publishEvent(FeedDelta.eventDeleted(id));
         return createSuccessResponse("Event deleted successfully", null);
     }
 
-    public ResponseDto addParticipant(UUID eventId, UUID userId) {
-        Event event = eventRepository.findById(eventId)
-                .orElseThrow(() -> new RuntimeException("Event not found with id: " + eventId));
-        
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
-        
-        if (!event.getParticipants().contains(user)) {
-            event.getParticipants().add(user);
-            eventRepository.save(event);
+    public ResponseDto<ParticipantsUpdateDto> addParticipant(UUID eventId, UUID userId) {
+        return addParticipants(eventId, List.of(userId));
+    }
+
+    @Transactional
+    public ResponseDto<ParticipantsUpdateDto> removeParticipant(UUID eventId, UUID userId) {
+        return removeParticipants(eventId, List.of(userId));
+    }
+
+    /**
+     * Inscrit les utilisateurs à l'événement, ligne par ligne dans event_participants.
+     * Les places sont réservées en une seule mise à jour conditionnelle : soit tous les nouveaux
+     * participants ont une place, soit aucun n'est inscrit. Les utilisateurs déjà inscrits sont ignorés.
+     */
+    public ResponseDto<ParticipantsUpdateDto> addParticipants(UUID eventId, Collection<UUID> userIds) {
+        try {
+            return transactionTemplate.execute(status -> addParticipantsNow(eventId, userIds));
+        } catch (DataIntegrityViolationException e) {
+            // Inscription concurrente du même utilisateur : la transaction perdante est annulée (places comprises)
+            // et rejouée une fois, l'utilisateur y est alors vu comme déjà inscrit
+            log.debug("Inscription concurrente à l'événement {}, nouvel essai : {}", eventId, e.getMessage());
+            return transactionTemplate.execute(status -> addParticipantsNow(eventId, userIds));
+        }
+    }
+
+    private ResponseDto<ParticipantsUpdateDto> addParticipantsNow(UUID eventId, Collection<UUID> userIds) {
+        Set<UUID> requested = new LinkedHashSet<>();
+        if (userIds != null) {
+            requested.addAll(userIds);
+        }
+        requested.remove(null);
+        if (requested.isEmpty()) {
+            return createErrorResponse(HttpStatus.BAD_REQUEST, "No participant given");
+        }
+        if (!eventRepository.existsById(eventId)) {
+            return createErrorResponse(HttpStatus.NOT_FOUND, "Event not found with id: " + eventId);
+        }
+
+        Set<UUID> unknown = new LinkedHashSet<>(requested);
+        userRepository.findAllById(requested).forEach(user -> unknown.remove(user.getId()));
+        if (!unknown.isEmpty()) {
+            return createErrorResponse(HttpStatus.NOT_FOUND, "User not found with id: " + unknown);
+        }
+
+        List<UUID> newParticipants = new ArrayList<>(requested);
+        newParticipants.removeAll(eventParticipantRepository.findParticipantIds(eventId, requested));
+        if (!newParticipants.isEmpty()) {
+            if (eventRepository.reserveSeats(eventId, newParticipants.size()) == 0) {
+                return createErrorResponse(HttpStatus.CONFLICT,
+                        "Not enough seats left for " + newParticipants.size() + " participant(s)");
+            }
+            LocalDateTime now = LocalDateTime.now();
+            // Écrit tout de suite : un conflit d'inscription remonte ici plutôt qu'au commit
+            eventParticipantRepository.saveAllAndFlush(newParticipants.stream()
+                    .map(userId -> EventParticipant.builder().eventId(eventId).userId(userId).joinedAt(now).build())
+                    .toList());
         }
-        
-        return createSuccessResponse("Participant added successfully", event);
+        return createSuccessResponse("Participants added successfully",
+                participantsUpdate(eventId, newParticipants.size()));
     }
 
-    public ResponseDto removeParticipant(UUID eventId, UUID userId) {
+    /**
+     * Désinscrit les utilisateurs et rend leurs places. Les utilisateurs non inscrits sont ignorés.
+     */
+    @Transactional
+    public ResponseDto<ParticipantsUpdateDto> removeParticipants(UUID eventId, Collection<UUID> userIds) {
+        Set<UUID> requested = new LinkedHashSet<>();
+        if (userIds != null) {
+            requested.addAll(userIds);
+        }
+        requested.remove(null);
+        if (requested.isEmpty()) {
+            return createErrorResponse(HttpStatus.BAD_REQUEST, "No participant given");
+        }
+        if (!eventRepository.existsById(eventId)) {
+            return createErrorResponse(HttpStatus.NOT_FOUND, "Event not found with id: " + eventId);
+        }
+
+        int removed = eventParticipantRepository.deleteParticipants(eventId, requested);
+        if (removed > 0) {
+            eventRepository.releaseSeats(eventId, removed);
+        }
+        return createSuccessResponse("Participants removed successfully", participantsUpdate(eventId, removed));
+    }
+
+    private ParticipantsUpdateDto participantsUpdate(UUID eventId, int changed) {
+        // Relu après les mises à jour en base : l'événement n'est pas encore dans le contexte de persistance
         Event event = eventRepository.findById(eventId)
                 .orElseThrow(() -> new RuntimeException("Event not found with id: " + eventId));
-        
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
-        
-        event.getParticipants().remove(user);
-        eventRepository.save(event);
-        
-        return createSuccessResponse("Participant removed successfully", event);
-    }
-
-    private ResponseDto createSuccessResponse(String message, Object data) {
-        String dataJson = null;
-        try {
-            if (data != null) {
-                dataJson = objectMapper.writeValueAsString(data);
-            }
-        } catch (JsonProcessingException e) {
-            return ResponseDto.builder()
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR.value())
-                    .text("Error processing response data")
-                    .data(null)
-                    .build();
-        }
-        
-        return ResponseDto.builder()
+        if (changed > 0) {
+            applicationEventPublisher.publishEvent(FeedDelta.participantsChanged(eventId, event.getParticipantsCount()));
+        }
+        return ParticipantsUpdateDto.builder()
+                .eventId(eventId)
+                .changed(changed)
+                .participantsCount(event.getParticipantsCount())
+                .capacity(event.getCapacity())
+                .build();
+    }
+
+    /**
+     * Charge images et participants avant la fin de la transaction : l'événement est sérialisé
+     * après sa fermeture (open-in-view désactivé).
+     */
+    private Event initializeCollections(Event event) {
+        Hibernate.initialize(event.getImages());
+        Hibernate.initialize(event.getParticipants());
+        return event;
+    }
+
+    private <T> ResponseDto<T> createSuccessResponse(String message, T data) {
+        return ResponseDto.<T>builder()
                 .status(HttpStatus.OK.value())
                 .text(message)
-                .data(dataJson)
+                .data(data)
+                .build();
+    }
+
+    private <T> ResponseDto<T> createErrorResponse(HttpStatus status, String message) {
+        return ResponseDto.<T>builder()
+                .status(status.value())
+                .text(message)
                 .build();
     }
 }
@@ -0,0 +1,198 @@
+package com.enspy.syndicmanager.services;
+
+import com.enspy.syndicmanager.dto.feed.FeedDelta;
+import com.enspy.syndicmanager.dto.feed.FeedUpdate;
+import com.enspy.syndicmanager.models.PublicationReactionCount;
+import com.enspy.syndicmanager.repositories.PublicationReactionCountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pousse les changements du fil aux clients STOMP (WebSocketConfig).
+ * Les services publient des FeedDelta ; ils sont reçus après la validation de leur transaction,
+ * accumulés, puis envoyés ensemble à chaque intervalle (tick-ms) : un message par topic modifié,
+ * avec un seul compteur de réactions par publication quel que soit le nombre de réactions reçues.
+ * Au-delà de max-pending changements en attente, ou de max-deltas-per-update pour un topic,
+ * les détails sont abandonnés et le topic reçoit un message resync.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FeedBroadcastService {
+
+    // Tout le fil : nouvelles publications et changements de toutes les publications
+    public static final String FEED_TOPIC = "/topic/feed";
+    public static final String PUBLICATION_TOPIC_PREFIX = "/topic/publications/";
+
+    private static final int COUNTS_BATCH_SIZE = 500;
+    private static final int PRUNE_EVERY_TICKS = 256;
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final PublicationReactionCountRepository reactionCountRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${syndicmanager.feed.max-pending:10000}")
+    private int maxPending;
+
+    @Value("${syndicmanager.feed.max-deltas-per-update:100}")
+    private int maxDeltasPerUpdate;
+
+    @Value("${syndicmanager.feed.topic-idle-ticks:10000}")
+    private long topicIdleTicks;
+
+    private final Queue<FeedDelta> pendingDeltas = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    // Publications dont les réactions ont changé depuis le dernier envoi
+    private final Set<UUID> reactionChanges = ConcurrentHashMap.newKeySet();
+    // Topics dont des changements ont été abandonnés faute de place
+    private final Set<String> overflowedTopics = ConcurrentHashMap.newKeySet();
+    // Dernier tick envoyé sur chaque topic, pour FeedUpdate.previousTick
+    private final Map<String, Long> lastTickByTopic = new ConcurrentHashMap<>();
+
+    // Incrémenté par broadcastTick seulement, jamais exécuté en parallèle avec lui-même
+    private long tick;
+
+    private Counter sentDeltas;
+    private Counter droppedDeltas;
+    private Counter sentUpdates;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("syndicmanager.feed.pending", pendingCount, AtomicInteger::get)
+                .description("Changements du fil en attente d'envoi")
+                .register(meterRegistry);
+        sentDeltas = Counter.builder("syndicmanager.feed.deltas")
+                .tag("result", "sent")
+                .description("Changements du fil envoyés aux abonnés")
+                .register(meterRegistry);
+        droppedDeltas = Counter.builder("syndicmanager.feed.deltas")
+                .tag("result", "dropped")
+                .description("Changements du fil remplacés par un message resync")
+                .register(meterRegistry);
+        sentUpdates = Counter.builder("syndicmanager.feed.updates")
+                .description("Messages envoyés sur les topics du fil")
+                .register(meterRegistry);
+    }
+
+    public static String publicationTopic(UUID publicationId) {
+        return PUBLICATION_TOPIC_PREFIX + publicationId;
+    }
+
+    @TransactionalEventListener
+    public void onFeedDelta(FeedDelta delta) {
+        if (delta.getType() == FeedDelta.Type.REACTIONS_CHANGED) {
+            reactionChanges.add(delta.getPublicationId());
+            return;
+        }
+        if (pendingCount.incrementAndGet() > maxPending) {
+            pendingCount.decrementAndGet();
+            overflowedTopics.add(FEED_TOPIC);
+            if (delta.getPublicationId() != null) {
+                overflowedTopics.add(publicationTopic(delta.getPublicationId()));
+            }
+            droppedDeltas.increment();
+            return;
+        }
+        pendingDeltas.add(delta);
+    }
+
+    @Scheduled(fixedDelayString = "${syndicmanager.feed.tick-ms:250}")
+    public void broadcastTick() {
+        Map<String, List<FeedDelta>> byTopic = new LinkedHashMap<>();
+        FeedDelta delta;
+        while ((delta = pendingDeltas.poll()) != null) {
+            pendingCount.decrementAndGet();
+            route(byTopic, delta);
+        }
+        if (!reactionChanges.isEmpty()) {
+            List<UUID> changed = new ArrayList<>(reactionChanges);
+            changed.forEach(reactionChanges::remove);
+            for (FeedDelta counts : reactionCounts(changed)) {
+                route(byTopic, counts);
+            }
+        }
+        Set<String> resync = new HashSet<>(overflowedTopics);
+        resync.forEach(overflowedTopics::remove);
+        if (byTopic.isEmpty() && resync.isEmpty()) {
+            return;
+        }
+
+        long current = ++tick;
+        resync.forEach(topic -> byTopic.putIfAbsent(topic, List.of()));
+        byTopic.forEach((topic, deltas) -> {
+            boolean overflow = resync.contains(topic) || deltas.size() > maxDeltasPerUpdate;
+            Long previous = lastTickByTopic.put(topic, current);
+            messagingTemplate.convertAndSend(topic, FeedUpdate.builder()
+                    .tick(current)
+                    .previousTick(previous != null ? previous : 0)
+                    .resync(overflow)
+                    .deltas(overflow ? List.of() : deltas)
+                    .build());
+            sentUpdates.increment();
+            if (overflow) {
+                droppedDeltas.increment(deltas.size());
+            } else {
+                sentDeltas.increment(deltas.size());
+            }
+        });
+
+        if (current % PRUNE_EVERY_TICKS == 0) {
+            // Un topic resté sans message trop longtemps repart de previousTick = 0
+            lastTickByTopic.values().removeIf(last -> current - last > topicIdleTicks);
+        }
+    }
+
+    private static void route(Map<String, List<FeedDelta>> byTopic, FeedDelta delta) {
+        byTopic.computeIfAbsent(FEED_TOPIC, topic -> new ArrayList<>()).add(delta);
+        if (delta.getPublicationId() != null) {
+            byTopic.computeIfAbsent(publicationTopic(delta.getPublicationId()), topic -> new ArrayList<>()).add(delta);
+        }
+    }
+
+    /**
+     * Compteurs à jour des publications modifiées, lus par lots de COUNTS_BATCH_SIZE.
+     */
+    private List<FeedDelta> reactionCounts(List<UUID> publicationIds) {
+        Map<UUID, FeedDelta> deltas = new LinkedHashMap<>();
+        for (UUID publicationId : publicationIds) {
+            FeedDelta delta = FeedDelta.reactionsChanged(publicationId);
+            delta.setCounts(new LinkedHashMap<>());
+            delta.setTotal(0L);
+            deltas.put(publicationId, delta);
+        }
+
+        for (int from = 0; from < publicationIds.size(); from += COUNTS_BATCH_SIZE) {
+            List<UUID> batch = publicationIds.subList(from, Math.min(from + COUNTS_BATCH_SIZE, publicationIds.size()));
+            for (PublicationReactionCount count : reactionCountRepository.findByIdPublicationIdIn(batch)) {
+                if (count.getCount() <= 0) {
+                    continue;
+                }
+                FeedDelta delta = deltas.get(count.getId().getPublicationId());
+                delta.getCounts().put(count.getId().getReactionType(), count.getCount());
+                delta.setTotal(delta.getTotal() + count.getCount());
+            }
+        }
+        return new ArrayList<>(deltas.values());
+    }
+}
@@ -0,0 +1,293 @@
+package com.enspy.syndicmanager.services;
+
+import com.enspy.syndicmanager.dto.feed.FeedDelta;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Flux Server-Sent Events des publications et événements créés, modifiés ou supprimés,
+ * pour les clients dont le proxy ne laisse pas passer les WebSockets.
+ * Chaque changement validé reçoit un identifiant "époque-numéro" et est conservé dans un tampon circulaire
+ * de buffer-size entrées : un client qui se reconnecte avec Last-Event-ID reçoit ce qu'il a manqué,
+ * ou un événement resync si ce n'est plus dans le tampon (ou s'il vient d'avant un redémarrage).
+ * Chaque connexion a sa file d'envoi, bornée à max-pending-bytes, et son propre thread d'écriture tant que
+ * cette file n'est pas vide : une écriture bloquée sur un client qui ne lit plus ne retarde jamais les autres.
+ * Un client dont la file déborde, ou dont un envoi dure plus de send-time-limit-ms, est déconnecté
+ * et reprend à son dernier identifiant ; son thread d'écriture reste bloqué jusqu'au délai d'écriture du conteneur.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FeedStreamService {
+
+    public static final String RESYNC_EVENT = "RESYNC";
+
+    private static final Set<FeedDelta.Type> STREAMED_TYPES = EnumSet.of(
+            FeedDelta.Type.PUBLICATION_CREATED, FeedDelta.Type.PUBLICATION_UPDATED, FeedDelta.Type.PUBLICATION_DELETED,
+            FeedDelta.Type.EVENT_CREATED, FeedDelta.Type.EVENT_UPDATED, FeedDelta.Type.EVENT_DELETED);
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${syndicmanager.feed.sse.buffer-size:1000}")
+    private int bufferSize;
+
+    @Value("${syndicmanager.feed.sse.max-pending-bytes:262144}")
+    private int maxPendingBytes;
+
+    @Value("${syndicmanager.feed.sse.timeout-ms:900000}")
+    private long timeoutMs;
+
+    @Value("${syndicmanager.feed.sse.send-time-limit-ms:10000}")
+    private long sendTimeLimitMs;
+
+    // Distingue ce processus : un identifiant d'un autre démarrage ne correspond à rien dans le tampon
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    // Tampon circulaire et numérotation, protégés par this
+    private Entry[] recent;
+    private long lastSequence;
+
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    // Sans limite de threads : seules les connexions qui ont quelque chose à envoyer en occupent un
+    private ExecutorService sendExecutor;
+    // Fermetures à part : elles attendent qu'un envoi bloqué rende l'émetteur
+    private ExecutorService closeExecutor;
+    private Counter overflowedConnections;
+
+    private record Entry(long sequence, String name, String data) {
+
+        // Ordre de grandeur des octets envoyés pour l'entrée, en-têtes SSE compris
+        int size() {
+            return data.length() + name.length() + 32;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        recent = new Entry[bufferSize];
+        AtomicInteger threads = new AtomicInteger();
+        sendExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "feed-sse-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger closeThreads = new AtomicInteger();
+        closeExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "feed-sse-close-" + closeThreads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("syndicmanager.feed.sse.connections", connections, Set::size)
+                .description("Connexions SSE ouvertes")
+                .register(meterRegistry);
+        overflowedConnections = Counter.builder("syndicmanager.feed.sse.overflow")
+                .description("Connexions SSE fermées car leur client ne lisait plus (file pleine ou envoi trop long)")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        connections.forEach(Connection::close);
+        sendExecutor.shutdownNow();
+        closeExecutor.shutdownNow();
+    }
+
+    /**
+     * Ouvre un flux ; avec lastEventId, commence par les changements postérieurs encore dans le tampon.
+     */
+    public SseEmitter open(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Connection connection = new Connection(emitter);
+        emitter.onCompletion(() -> connections.remove(connection));
+        emitter.onError(e -> connections.remove(connection));
+
+        // Sous le même verrou que publish : aucun changement n'est ni perdu ni envoyé deux fois
+        synchronized (this) {
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                replay(connection, lastEventId.trim());
+            }
+            connections.add(connection);
+        }
+        connection.flush();
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void onFeedDelta(FeedDelta delta) {
+        if (!STREAMED_TYPES.contains(delta.getType())) {
+            return;
+        }
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(delta);
+        } catch (JsonProcessingException e) {
+            log.warn("Changement du fil non sérialisable : {}", e.getMessage());
+            return;
+        }
+
+        synchronized (this) {
+            Entry entry = new Entry(++lastSequence, delta.getType().name(), data);
+            recent[(int) (entry.sequence() % recent.length)] = entry;
+            connections.forEach(connection -> connection.enqueue(entry));
+        }
+        connections.forEach(Connection::flush);
+    }
+
+    /**
+     * Commentaire SSE périodique : les proxies ne ferment pas une connexion inactive,
+     * un client parti est détecté à l'écriture et un envoi bloqué sans nouveau changement est repéré.
+     */
+    @Scheduled(fixedDelayString = "${syndicmanager.feed.sse.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        Entry heartbeat = new Entry(0, "", "");
+        for (Connection connection : connections) {
+            connection.enqueue(heartbeat);
+            connection.flush();
+        }
+    }
+
+    private void replay(Connection connection, String lastEventId) {
+        long oldest = Math.max(1, lastSequence - recent.length + 1);
+        long after = parseSequence(lastEventId);
+        if (after < oldest - 1 || after > lastSequence) {
+            connection.enqueue(new Entry(lastSequence, RESYNC_EVENT, "{}"));
+            return;
+        }
+        for (long sequence = after + 1; sequence <= lastSequence; sequence++) {
+            connection.enqueue(recent[(int) (sequence % recent.length)]);
+        }
+    }
+
+    // -1 si l'identifiant n'a pas été émis par ce processus
+    private long parseSequence(String eventId) {
+        int separator = eventId.lastIndexOf('-');
+        if (separator <= 0 || !eventId.substring(0, separator).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    private final class Connection {
+
+        private final SseEmitter emitter;
+        // File d'envoi et sa taille, protégées par pending
+        private final ArrayDeque<Entry> pending = new ArrayDeque<>();
+        private int pendingBytes;
+        private boolean closed;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        // Début de l'envoi en cours (System.nanoTime), 0 entre deux envois
+        private volatile long sendStartedAt;
+
+        private Connection(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void enqueue(Entry entry) {
+            synchronized (pending) {
+                if (closed) {
+                    return;
+                }
+                if (pendingBytes + entry.size() > maxPendingBytes || sendTooLong()) {
+                    // Le client reprendra à son dernier identifiant reçu ; plus rien ne lui est destiné dès maintenant
+                    overflowedConnections.increment();
+                    pending.clear();
+                    pendingBytes = 0;
+                    closed = true;
+                    connections.remove(this);
+                    closeExecutor.execute(this::close);
+                    return;
+                }
+                pending.add(entry);
+                pendingBytes += entry.size();
+            }
+        }
+
+        private boolean sendTooLong() {
+            long started = sendStartedAt;
+            return started != 0 && System.nanoTime() - started > TimeUnit.MILLISECONDS.toNanos(sendTimeLimitMs);
+        }
+
+        // Un seul thread écrit sur une connexion à la fois, et jamais pour une autre connexion
+        void flush() {
+            if (sending.compareAndSet(false, true)) {
+                sendExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    Entry entry;
+                    synchronized (pending) {
+                        entry = closed ? null : pending.poll();
+                        if (entry == null) {
+                            sending.set(false);
+                            return;
+                        }
+                        pendingBytes -= entry.size();
+                    }
+                    sendStartedAt = System.nanoTime();
+                    emitter.send(toEvent(entry));
+                    sendStartedAt = 0;
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client parti : le conteneur termine la requête et onError retire la connexion
+                connections.remove(this);
+                sendStartedAt = 0;
+                sending.set(false);
+            }
+        }
+
+        private SseEmitter.SseEventBuilder toEvent(Entry entry) {
+            if (entry.name().isEmpty()) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+            return SseEmitter.event()
+                    .id(eventId(entry.sequence()))
+                    .name(entry.name())
+                    .data(entry.data());
+        }
+
+        // emitter.complete attend la fin d'un envoi en cours sur la même connexion
+        void close() {
+            connections.remove(this);
+            try {
+                emitter.complete();
+            } catch (IllegalStateException ignored) {
+                // Déjà terminé
+            }
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package com.enspy.syndicmanager.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Déclinaisons réduites (miniature, taille moyenne) des images stockées dans le BlobStorageService.
+ * Elles sont calculées en tâche de fond après l'upload, sur un pool de taille fixe et avec ImageIO seul,
+ * puis rangées à côté du blob d'origine : elles suivent donc sa déduplication et sa suppression.
+ *
+ * Une déclinaison pas encore prête n'est pas une erreur : l'appelant sert l'original en attendant.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImageVariantService {
+
+    // Au-delà, l'image n'est pas décodée (une image de 10000x10000 occupe déjà 400 Mo en mémoire)
+    private static final long MAX_SOURCE_PIXELS = 40_000_000L;
+    private static final float JPEG_QUALITY = 0.82f;
+    private static final int MAX_REMEMBERED_FAILURES = 10_000;
+
+    // Formats qu'ImageIO sait lire sans extension
+    private static final Set<String> SUPPORTED_TYPES = Set.of(
+            "image/png", "image/jpeg", "image/jpg", "image/gif", "image/bmp");
+
+    private final BlobStorageService blobStorageService;
+
+    @Value("${syndicmanager.images.workers:2}")
+    private int workers;
+
+    @Value("${syndicmanager.images.queue-capacity:200}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    // Blobs en cours de traitement, pour ne pas lancer deux fois le même calcul
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    // Blobs qu'ImageIO n'a pas su décoder : inutile de réessayer à chaque requête
+    private final Map<String, Boolean> failures = new ConcurrentHashMap<>();
+
+    public enum Variant {
+        ORIGINAL(0),
+        MEDIUM(800),
+        THUMBNAIL(200);
+
+        /**
+         * Plus grand côté de l'image, en pixels.
+         */
+        private final int maxDimension;
+
+        Variant(int maxDimension) {
+            this.maxDimension = maxDimension;
+        }
+
+        /**
+         * Lit le paramètre size d'une requête (original, medium, thumbnail, sans tenir compte de la casse).
+         *
+         * @throws IllegalArgumentException si la taille demandée n'existe pas
+         */
+        public static Variant fromParam(String size) {
+            if (size == null || size.isBlank()) {
+                return ORIGINAL;
+            }
+            try {
+                return valueOf(size.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown image size: " + size);
+            }
+        }
+    }
+
+    /**
+     * Déclinaison prête à être servie.
+     *
+     * @param etag ETag fort, guillemets compris
+     */
+    public record VariantFile(Path path, String contentType, long size, String etag) {
+    }
+
+    public boolean supports(String contentType) {
+        return contentType != null && SUPPORTED_TYPES.contains(contentType.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Planifie le calcul des déclinaisons d'un blob qui vient d'être enregistré.
+     * Sans effet si le contenu n'est pas une image lisible ou si les déclinaisons existent déjà.
+     * Quand la file d'attente est pleine la demande est abandonnée : elle sera refaite
+     * à la première lecture d'une déclinaison.
+     */
+    public void generateAsync(String hash, String contentType) {
+        if (!supports(contentType) || failures.containsKey(hash) || allVariantsExist(hash, contentType)) {
+            return;
+        }
+        if (!pending.add(hash)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(hash, contentType);
+                } finally {
+                    pending.remove(hash);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(hash);
+            log.debug("File des déclinaisons pleine, image {} reportée", hash);
+        }
+    }
+
+    /**
+     * Retourne la déclinaison demandée si elle est prête. Sinon son calcul est relancé
+     * et l'appelant sert l'original.
+     */
+    public Optional<VariantFile> find(String hash, String contentType, Variant variant) {
+        if (variant == Variant.ORIGINAL || !supports(contentType)) {
+            return Optional.empty();
+        }
+        Path path = variantPath(hash, contentType, variant);
+        try {
+            long size = Files.size(path);
+            return Optional.of(new VariantFile(path, outputContentType(contentType), size,
+                    "\"" + hash + "-" + variant.name().toLowerCase(Locale.ROOT) + "\""));
+        } catch (IOException e) {
+            generateAsync(hash, contentType);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Vrai si la réponse pour cette déclinaison ne changera plus : l'original d'un contenu
+     * qui n'a pas de déclinaison, ou une image qu'ImageIO ne sait pas décoder.
+     */
+    public boolean isFinal(String hash, String contentType, Variant variant) {
+        return variant == Variant.ORIGINAL || !supports(contentType) || failures.containsKey(hash);
+    }
+
+    private void generate(String hash, String contentType) {
+        Optional<Path> source = blobStorageService.resolve(hash);
+        if (source.isEmpty()) {
+            return;
+        }
+        BufferedImage image;
+        try {
+            image = read(source.get());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Image {} illisible : {}", hash, e.getMessage());
+            image = null;
+        }
+        if (image == null) {
+            // Seul le contenu en cause est retenu : il ne deviendra pas lisible à la requête suivante
+            rememberFailure(hash);
+            return;
+        }
+        try {
+            for (Variant variant : Variant.values()) {
+                if (variant != Variant.ORIGINAL) {
+                    Path target = variantPath(hash, contentType, variant);
+                    if (!Files.exists(target)) {
+                        write(resize(image, variant.maxDimension, isPng(contentType)), contentType, target);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Disque plein, déplacement refusé... : pas retenu, la prochaine lecture d'une déclinaison relance le calcul
+            log.warn("Déclinaisons de l'image {} non écrites : {}", hash, e.getMessage());
+        }
+    }
+
+    /**
+     * Décode l'image après avoir vérifié ses dimensions dans l'en-tête.
+     *
+     * @return null si aucun lecteur ImageIO ne reconnaît le contenu ou si l'image est trop grande
+     */
+    private static BufferedImage read(Path source) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_SOURCE_PIXELS) {
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Réduit l'image pour que son plus grand côté ne dépasse pas maxDimension.
+     * La réduction se fait par moitiés successives en bilinéaire, ce qui évite le crénelage
+     * d'une réduction directe sans le coût d'un filtre plus lourd. Une image déjà assez petite
+     * est seulement réencodée.
+     */
+    private static BufferedImage resize(BufferedImage source, int maxDimension, boolean keepAlpha) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+        int type = keepAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        BufferedImage current = source;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage step = new BufferedImage(width, height, type);
+            Graphics2D graphics = step.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                if (!keepAlpha) {
+                    // Le JPEG n'a pas de transparence : fond blanc plutôt que noir
+                    graphics.setColor(Color.WHITE);
+                    graphics.fillRect(0, 0, width, height);
+                }
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = step;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    /**
+     * Écrit la déclinaison dans un fichier temporaire puis la déplace atomiquement :
+     * une lecture concurrente ne voit jamais un fichier à moitié écrit.
+     */
+    private static void write(BufferedImage image, String contentType, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), "variant-", ".tmp");
+        try {
+            String format = isPng(contentType) ? "png" : "jpeg";
+            ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(tmp.toFile())) {
+                writer.setOutput(output);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                if (!isPng(contentType)) {
+                    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    param.setCompressionQuality(JPEG_QUALITY);
+                }
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private boolean allVariantsExist(String hash, String contentType) {
+        for (Variant variant : Variant.values()) {
+            if (variant != Variant.ORIGINAL && !Files.exists(variantPath(hash, contentType, variant))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Path variantPath(String hash, String contentType, Variant variant) {
+        String extension = isPng(contentType) ? "png" : "jpg";
+        return blobStorageService.variantPath(hash, variant.name().toLowerCase(Locale.ROOT) + "." + extension);
+    }
+
+    /**
+     * PNG et GIF gardent leur transparence en PNG, les autres formats passent en JPEG.
+     */
+    private static boolean isPng(String contentType) {
+        String type = contentType.toLowerCase(Locale.ROOT);
+        return type.equals("image/png") || type.equals("image/gif");
+    }
+
+    private static String outputContentType(String contentType) {
+        return isPng(contentType) ? "image/png" : "image/jpeg";
+    }
+
+    private void rememberFailure(String hash) {
+        if (failures.size() >= MAX_REMEMBERED_FAILURES) {
+            failures.clear();
+        }
+        failures.put(hash, Boolean.TRUE);
+    }
+
+    @PostConstruct
+    void startWorkers() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    // Le redimensionnement ne doit pas prendre le pas sur les requêtes
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
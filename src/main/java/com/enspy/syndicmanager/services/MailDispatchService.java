@@ -0,0 +1,128 @@
+package com.enspy.syndicmanager.services;
+
+import com.enspy.syndicmanager.config.NotificationConfig;
+import com.enspy.syndicmanager.dto.notification.MailNotificationMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Service;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Envoie les e-mails de la file MAIL_QUEUE par lots, sur une seule connexion SMTP par lot,
+ * sans dépasser mail-rate-per-second tous consommateurs confondus.
+ * Les e-mails refusés par le serveur partent dans la file de rebut, les autres du lot ne sont pas renvoyés.
+ * Si tout le lot échoue, il est retenté puis mis au rebut par le conteneur (NotificationConfig).
+ */
+@Service
+@ConditionalOnProperty(name = "syndicmanager.notifications.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class MailDispatchService {
+
+    private final JavaMailSender mailSender;
+    private final RabbitTemplate rabbitTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${syndicmanager.notifications.mail-from:no-reply@syndicmanager.local}")
+    private String mailFrom;
+
+    @Value("${syndicmanager.notifications.mail-rate-per-second:20}")
+    private double mailRatePerSecond;
+
+    private Counter sentCounter;
+    private Counter failedCounter;
+
+    // Prochain instant (System.nanoTime) où un envoi est permis, protégé par this
+    private long nextSendNanos;
+
+    @PostConstruct
+    void registerMetrics() {
+        sentCounter = Counter.builder("syndicmanager.notifications.mail")
+                .tag("result", "sent")
+                .description("E-mails de notification acceptés par le serveur SMTP")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("syndicmanager.notifications.mail")
+                .tag("result", "failed")
+                .description("E-mails de notification refusés, envoyés dans la file de rebut")
+                .register(meterRegistry);
+    }
+
+    @RabbitListener(queues = NotificationConfig.MAIL_QUEUE, containerFactory = "notificationBatchContainerFactory")
+    public void send(List<MailNotificationMessage> mails) throws InterruptedException {
+        SimpleMailMessage[] batch = mails.stream().map(this::toMailMessage).toArray(SimpleMailMessage[]::new);
+        throttle(batch.length);
+        try {
+            mailSender.send(batch);
+            sentCounter.increment(batch.length);
+        } catch (MailSendException e) {
+            // Aucun e-mail parti (serveur injoignable) : le lot entier est retenté par le conteneur
+            if (e.getFailedMessages().isEmpty() || e.getFailedMessages().size() == batch.length) {
+                throw e;
+            }
+            deadLetterFailed(mails, batch, e);
+        }
+    }
+
+    /**
+     * Limiteur à débit constant : chaque lot réserve sa part du débit et attend son tour.
+     */
+    private void throttle(int permits) throws InterruptedException {
+        long waitNanos = reserve(permits);
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private synchronized long reserve(int permits) {
+        long now = System.nanoTime();
+        long start = Math.max(now, nextSendNanos);
+        nextSendNanos = start + (long) (permits * TimeUnit.SECONDS.toNanos(1) / mailRatePerSecond);
+        return start - now;
+    }
+
+    /**
+     * JavaMailSenderImpl indexe les échecs par le SimpleMailMessage d'origine : on remonte au message de la file
+     * par identité dans le lot, deux e-mails pouvant avoir le même destinataire.
+     */
+    private void deadLetterFailed(List<MailNotificationMessage> mails, SimpleMailMessage[] batch, MailSendException e) {
+        Map<SimpleMailMessage, MailNotificationMessage> byMessage = new IdentityHashMap<>();
+        for (int i = 0; i < batch.length; i++) {
+            byMessage.put(batch[i], mails.get(i));
+        }
+
+        int failed = 0;
+        for (Map.Entry<Object, Exception> entry : e.getFailedMessages().entrySet()) {
+            MailNotificationMessage mail = byMessage.get(entry.getKey());
+            if (mail != null) {
+                rabbitTemplate.convertAndSend(NotificationConfig.DEAD_LETTER_EXCHANGE, NotificationConfig.MAIL_ROUTING_KEY, mail);
+                failed++;
+                log.warn("E-mail à {} refusé : {}", mail.getTo(), entry.getValue().getMessage());
+            }
+        }
+        failedCounter.increment(failed);
+        sentCounter.increment(mails.size() - failed);
+    }
+
+    private SimpleMailMessage toMailMessage(MailNotificationMessage mail) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(mailFrom);
+        message.setTo(mail.getTo());
+        message.setSubject(mail.getSubject());
+        message.setText(mail.getBody());
+        return message;
+    }
+}
@@ -0,0 +1,201 @@
+package com.enspy.syndicmanager.services;
+
+import com.enspy.syndicmanager.models.MediaBlob;
+import com.enspy.syndicmanager.models.MediaFile;
+import com.enspy.syndicmanager.repositories.MediaBlobRepository;
+import com.enspy.syndicmanager.repositories.MediaFileRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Stockage dédupliqué des médias au-dessus du BlobStorageService.
+ * Chaque fichier nommé (MediaFile) et chaque image de publication prend une référence
+ * sur le blob de son contenu ; les blobs sans référence depuis le délai de grâce sont supprimés.
+ *
+ * La référence est toujours enregistrée avant que le blob soit publié sur le disque :
+ * un blob que le ramasse-miettes supprime en parallèle est alors réécrit depuis le fichier temporaire.
+ * Une fois le blob publié, les déclinaisons des images sont calculées en tâche de fond.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MediaStoreService {
+
+    private static final int GC_BATCH_SIZE = 100;
+
+    private final BlobStorageService blobStorageService;
+    private final MediaBlobRepository mediaBlobRepository;
+    private final MediaFileRepository mediaFileRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ImageVariantService imageVariantService;
+
+    @Value("${syndicmanager.media.gc-grace-period-minutes:60}")
+    private long gcGracePeriodMinutes;
+
+    /**
+     * Enregistre le contenu sous (scope, filename), en remplaçant le fichier précédent du même nom.
+     * Un contenu déjà présent dans le stockage n'est pas réécrit.
+     *
+     * @param declaredLength taille annoncée par le client, -1 si inconnue
+     * @param maxBytes       taille maximale acceptée, vérifiée pendant la copie
+     */
+    public MediaFile put(String scope, String filename, InputStream content, long declaredLength,
+                         long maxBytes, String contentType) throws IOException {
+        BlobStorageService.TempBlob temp = blobStorageService.writeTemp(content, declaredLength, maxBytes);
+        try {
+            MediaFile saved = transactionTemplate.execute(status -> {
+                retain(temp.hash(), temp.size(), contentType);
+
+                MediaFile file = mediaFileRepository.findByScopeAndFilename(scope, filename)
+                        .orElseGet(() -> MediaFile.builder().scope(scope).filename(filename).build());
+                String previousHash = file.getHash();
+
+                file.setHash(temp.hash());
+                file.setSize(temp.size());
+                file.setContentType(contentType);
+                file.setUpdatedAt(LocalDateTime.now());
+                MediaFile result = mediaFileRepository.save(file);
+
+                if (previousHash != null) {
+                    mediaBlobRepository.release(previousHash, LocalDateTime.now());
+                }
+                return result;
+            });
+            blobStorageService.publish(temp);
+            imageVariantService.generateAsync(temp.hash(), contentType);
+            return saved;
+        } finally {
+            Files.deleteIfExists(temp.file());
+        }
+    }
+
+    /**
+     * Enregistre un contenu Base64 (brut ou data URL) et prend une référence dessus.
+     * L'appelant rend la référence avec release quand il ne pointe plus sur ce contenu.
+     */
+    public BlobStorageService.StoredBlob retainBase64(String payload) throws IOException {
+        BlobStorageService.DecodedPayload decoded = blobStorageService.decodeBase64(payload);
+        BlobStorageService.TempBlob temp = blobStorageService.writeTemp(
+                new ByteArrayInputStream(decoded.bytes()), decoded.bytes().length, Long.MAX_VALUE);
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    retain(temp.hash(), temp.size(), decoded.contentType()));
+            blobStorageService.publish(temp);
+            imageVariantService.generateAsync(temp.hash(), decoded.contentType());
+            return new BlobStorageService.StoredBlob(temp.hash(), temp.size(), decoded.contentType());
+        } finally {
+            Files.deleteIfExists(temp.file());
+        }
+    }
+
+    /**
+     * Rend une référence prise par put ou retainBase64.
+     */
+    public void release(String hash) {
+        if (hash != null) {
+            transactionTemplate.executeWithoutResult(status ->
+                    mediaBlobRepository.release(hash, LocalDateTime.now()));
+        }
+    }
+
+    public Optional<MediaFile> find(String scope, String filename) {
+        return mediaFileRepository.findByScopeAndFilename(scope, filename);
+    }
+
+    public List<MediaFile> find(String scope, Collection<String> filenames) {
+        return mediaFileRepository.findByScopeAndFilenameIn(scope, filenames);
+    }
+
+    public Optional<Path> resolve(MediaFile file) {
+        return blobStorageService.resolve(file.getHash());
+    }
+
+    /**
+     * Supprime le fichier nommé et rend sa référence sur le blob.
+     *
+     * @return false si aucun fichier ne portait ce nom
+     */
+    public boolean remove(String scope, String filename) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            Optional<MediaFile> file = mediaFileRepository.findByScopeAndFilename(scope, filename);
+            if (file.isEmpty()) {
+                return false;
+            }
+            mediaFileRepository.delete(file.get());
+            mediaBlobRepository.release(file.get().getHash(), LocalDateTime.now());
+            return true;
+        }));
+    }
+
+    /**
+     * Supprime les blobs sans référence depuis plus de gc-grace-period-minutes.
+     * La ligne et le fichier disparaissent dans la même transaction, et seulement
+     * si aucune référence n'a été reprise entre la recherche et la suppression.
+     */
+    @Scheduled(fixedDelayString = "${syndicmanager.media.gc-interval-ms:3600000}",
+            initialDelayString = "${syndicmanager.media.gc-interval-ms:3600000}")
+    public void collectGarbage() {
+        LocalDateTime releasedBefore = LocalDateTime.now().minusMinutes(gcGracePeriodMinutes);
+        int deleted = 0;
+        List<String> candidates;
+        int deletedInBatch;
+        do {
+            candidates = mediaBlobRepository.findUnreferenced(releasedBefore, PageRequest.of(0, GC_BATCH_SIZE));
+            deletedInBatch = 0;
+            for (String hash : candidates) {
+                try {
+                    if (Boolean.TRUE.equals(transactionTemplate.execute(status -> deleteBlob(hash)))) {
+                        deletedInBatch++;
+                    }
+                } catch (UncheckedIOException e) {
+                    log.warn("Blob {} non supprimé : {}", hash, e.getMessage());
+                }
+            }
+            deleted += deletedInBatch;
+        } while (candidates.size() == GC_BATCH_SIZE && deletedInBatch > 0);
+
+        if (deleted > 0) {
+            log.info("{} blobs sans référence supprimés", deleted);
+        }
+    }
+
+    private boolean deleteBlob(String hash) {
+        if (mediaBlobRepository.deleteIfUnreferenced(hash) == 0) {
+            return false;
+        }
+        try {
+            blobStorageService.delete(hash);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return true;
+    }
+
+    private void retain(String hash, long size, String contentType) {
+        if (mediaBlobRepository.retain(hash) == 0) {
+            mediaBlobRepository.save(MediaBlob.builder()
+                    .hash(hash)
+                    .size(size)
+                    .contentType(contentType)
+                    .refCount(1)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+    }
+}
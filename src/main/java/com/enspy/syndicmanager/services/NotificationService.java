@@ -0,0 +1,218 @@
+package com.enspy.syndicmanager.services;
+
+import com.enspy.syndicmanager.config.NotificationConfig;
+import com.enspy.syndicmanager.dto.notification.EventNotificationMessage;
+import com.enspy.syndicmanager.dto.notification.MailNotificationMessage;
+import com.enspy.syndicmanager.models.Event;
+import com.enspy.syndicmanager.models.User;
+import com.enspy.syndicmanager.repositories.EventRepository;
+import com.enspy.syndicmanager.repositories.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Notifications des événements, en deux étapes asynchrones :
+ * EventService publie un EventNotificationMessage après la validation de la transaction,
+ * puis fanOut le transforme en un MailNotificationMessage par destinataire, envoyé par MailDispatchService.
+ * Les rappels sont planifiés ici pour les participants des événements qui commencent bientôt.
+ */
+@Service
+@ConditionalOnProperty(name = "syndicmanager.notifications.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationService {
+
+    // Plus petit identifiant possible : point de départ du parcours des destinataires
+    private static final UUID FIRST_ID = new UUID(0, 0);
+    private static final DateTimeFormatter DATE_FORMAT =
+            DateTimeFormatter.ofPattern("EEEE d MMMM yyyy 'à' HH'h'mm", Locale.FRENCH);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final EventRepository eventRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${syndicmanager.notifications.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${syndicmanager.notifications.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    @Value("${syndicmanager.notifications.recipients-page-size:500}")
+    private int recipientsPageSize;
+
+    @Value("${syndicmanager.notifications.reminder-lead-minutes:1440}")
+    private long reminderLeadMinutes;
+
+    /**
+     * Envoie le message au broker une fois l'événement enregistré : un consommateur ne lit jamais
+     * un événement dont la transaction a été annulée. Un broker indisponible ne fait pas échouer la requête.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void publish(EventNotificationMessage message) {
+        try {
+            rabbitTemplate.convertAndSend(NotificationConfig.EXCHANGE, NotificationConfig.EVENTS_ROUTING_KEY, message);
+        } catch (AmqpException e) {
+            log.warn("Notification {} de l'événement {} non publiée : {}",
+                    message.getType(), message.getEventId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Prépare un e-mail par destinataire. Les messages identiques d'un même lot
+     * (plusieurs modifications rapprochées d'un événement) ne donnent qu'une notification.
+     * Chaque message est traité à part : un échec ne fait pas rejouer le lot entier,
+     * seul le message en échec est republié à partir du dernier destinataire confirmé,
+     * puis mis au rebut après max-attempts essais.
+     */
+    @RabbitListener(queues = NotificationConfig.EVENTS_QUEUE, containerFactory = "notificationBatchContainerFactory")
+    public void fanOut(List<EventNotificationMessage> messages) {
+        for (EventNotificationMessage message : new LinkedHashSet<>(messages)) {
+            try {
+                notifyRecipients(message);
+            } catch (RuntimeException e) {
+                retryLater(message, e);
+            }
+        }
+    }
+
+    /**
+     * Publie un rappel pour chaque événement qui commence dans reminder-lead-minutes et n'a pas encore eu le sien.
+     * Le rappel est réservé en base (reminder_sent_at) avant d'être publié : les instances qui planifient en même temps
+     * ne le publient qu'une fois, et un passage interrompu ne republie pas les rappels déjà partis.
+     * Une publication refusée rend sa réservation, le passage suivant la retente.
+     */
+    @Scheduled(fixedDelayString = "${syndicmanager.notifications.reminder-scan-ms:60000}",
+            initialDelayString = "${syndicmanager.notifications.reminder-scan-ms:60000}")
+    public void scheduleReminders() {
+        LocalDateTime now = LocalDateTime.now();
+        int published = 0;
+        for (UUID eventId : eventRepository.findIdsToRemind(now, now.plusMinutes(reminderLeadMinutes))) {
+            Integer claimed = transactionTemplate.execute(status -> eventRepository.claimReminder(eventId, now));
+            if (claimed == null || claimed == 0) {
+                continue;
+            }
+            try {
+                rabbitTemplate.convertAndSend(NotificationConfig.EXCHANGE, NotificationConfig.EVENTS_ROUTING_KEY,
+                        new EventNotificationMessage(eventId, EventNotificationMessage.Type.REMINDER));
+                published++;
+            } catch (AmqpException e) {
+                transactionTemplate.execute(status -> eventRepository.clearReminder(eventId));
+                log.warn("Rappel de l'événement {} non publié, repris au prochain passage : {}", eventId, e.getMessage());
+            }
+        }
+        if (published > 0) {
+            log.info("{} rappels d'événements planifiés", published);
+        }
+    }
+
+    private void notifyRecipients(EventNotificationMessage message) {
+        Optional<Event> found = eventRepository.findById(message.getEventId());
+        if (found.isEmpty()) {
+            return;
+        }
+        Event event = found.get();
+        if (message.getType() != EventNotificationMessage.Type.REMINDER && !Boolean.TRUE.equals(event.getNotifyMembers())) {
+            return;
+        }
+
+        // Parcours par pages d'identifiants croissants : la mémoire ne dépend pas du nombre de membres
+        int queued = 0;
+        UUID after = message.getAfter() != null ? message.getAfter() : FIRST_ID;
+        List<User> page;
+        do {
+            PageRequest limit = PageRequest.of(0, recipientsPageSize);
+            page = message.getType() == EventNotificationMessage.Type.CREATED
+                    ? userRepository.findActiveMembersAfter(after, limit)
+                    : userRepository.findEventParticipantsAfter(event.getId(), after, limit);
+            publishConfirmed(event, message.getType(), page);
+            queued += page.size();
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getId();
+                // Page confirmée : une reprise repart après elle
+                message.setAfter(after);
+            }
+        } while (page.size() == recipientsPageSize);
+
+        log.info("{} e-mails ({}) en file pour l'événement {}", queued, message.getType(), event.getId());
+    }
+
+    /**
+     * Publie les e-mails d'une page sur un même canal et attend que le broker les ait tous acceptés
+     * (publisher confirms, spring.rabbitmq.publisher-confirm-type=simple). Un refus ou un délai dépassé
+     * lève une exception : la page est reprise en entier, un e-mail de cette page peut alors partir deux fois.
+     */
+    private void publishConfirmed(Event event, EventNotificationMessage.Type type, List<User> page) {
+        if (page.isEmpty()) {
+            return;
+        }
+        rabbitTemplate.invoke(operations -> {
+            for (User user : page) {
+                operations.convertAndSend(NotificationConfig.EXCHANGE, NotificationConfig.MAIL_ROUTING_KEY,
+                        mailFor(event, type, user));
+            }
+            operations.waitForConfirmsOrDie(confirmTimeoutMs);
+            return null;
+        });
+    }
+
+    /**
+     * Republie un message interrompu avec son curseur, dans la file des événements tant qu'il reste des essais,
+     * sinon dans la file de rebut. Si le broker refuse aussi cette publication, l'exception remonte
+     * et le conteneur retente le lot (NotificationConfig).
+     */
+    private void retryLater(EventNotificationMessage message, RuntimeException cause) {
+        message.setAttempts(message.getAttempts() + 1);
+        boolean exhausted = message.getAttempts() >= maxAttempts;
+        log.warn("Notification {} de l'événement {} interrompue après {} ({}), {} : {}",
+                message.getType(), message.getEventId(), message.getAfter(), message.getAttempts(),
+                exhausted ? "mise au rebut" : "reprise", cause.getMessage());
+        try {
+            if (exhausted) {
+                rabbitTemplate.convertAndSend(NotificationConfig.DEAD_LETTER_EXCHANGE,
+                        NotificationConfig.EVENTS_ROUTING_KEY, message);
+            } else {
+                rabbitTemplate.convertAndSend(NotificationConfig.EXCHANGE, NotificationConfig.EVENTS_ROUTING_KEY, message);
+            }
+        } catch (AmqpException e) {
+            e.addSuppressed(cause);
+            throw e;
+        }
+    }
+
+    private static MailNotificationMessage mailFor(Event event, EventNotificationMessage.Type type, User user) {
+        String subject = switch (type) {
+            case CREATED -> "Nouvel événement : " + event.getTitle();
+            case UPDATED -> "Événement modifié : " + event.getTitle();
+            case REMINDER -> "Rappel : " + event.getTitle();
+        };
+        String greeting = user.getFirstName() != null && !user.getFirstName().isBlank()
+                ? "Bonjour " + user.getFirstName() + ","
+                : "Bonjour,";
+        String body = greeting + "\n\n"
+                + event.getTitle() + "\n"
+                + "Le " + DATE_FORMAT.format(event.getStartDate()) + "\n"
+                + "Lieu : " + event.getLocation() + "\n\n"
+                + event.getDescription() + "\n";
+        return new MailNotificationMessage(user.getEmail(), subject, body);
+    }
+}
@@ -1,7 +1,6 @@
 package com.enspy.syndicmanager.services;
 
 import com.enspy.syndicmanager.client.dto.response.OrganizationDto;
-import com.enspy.syndicmanager.client.dto.response.AgencyDto;
 import com.enspy.syndicmanager.client.services.OrganisationPavel;
 import com.enspy.syndicmanager.dto.response.ResponseDto;
 import lombok.AllArgsConstructor;
@@ -20,7 +19,7 @@ public class OrganisationPavelService {
     public Mono<ResponseDto> getAgencies(String organisationId) {
         return organisationPavel.getAgencies(organisationId)
                 .flatMap(responseDto -> {
-                    List<AgencyDto> agencies = (List<AgencyDto>) responseDto.getData();
+                    List<?> agencies = (List<?>) responseDto.getData();
                     if (agencies == null || agencies.isEmpty()) {
                         return createEmptyResponse();
                     }
@@ -44,14 +43,14 @@ public class OrganisationPavelService {
 
     // Méthodes utilitaires pour les réponses
     private Mono<ResponseDto> createEmptyResponse() {
-        ResponseDto response = new ResponseDto();
+        ResponseDto<List<Object>> response = new ResponseDto<>();
         response.setData(Collections.emptyList());
         response.setStatus(204);
         return Mono.just(response);
     }
 
     private Mono<ResponseDto> createSuccessResponse(Object data) {
-        ResponseDto response = new ResponseDto();
+        ResponseDto<Object> response = new ResponseDto<>();
         response.setData(data);
         response.setStatus(200);
         return Mono.just(response);
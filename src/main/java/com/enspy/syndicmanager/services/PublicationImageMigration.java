@@ -0,0 +1,119 @@
+package com.enspy.syndicmanager.services;
+
+import com.enspy.syndicmanager.models.MediaBlob;
+import com.enspy.syndicmanager.repositories.MediaBlobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Déplace les images encore stockées en Base64 dans l'ancienne colonne publications.image
+ * vers le MediaStoreService, puis vide la colonne. Sans effet si la colonne n'existe pas.
+ * Enregistre aussi les références des images déjà déplacées quand la table media_blobs est vide.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PublicationImageMigration {
+
+    private static final int BATCH_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlobStorageService blobStorageService;
+    private final MediaStoreService mediaStoreService;
+    private final MediaBlobRepository mediaBlobRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateInlineImages() {
+        backfillBlobReferences();
+
+        if (!legacyColumnExists()) {
+            return;
+        }
+
+        int migrated = 0;
+        List<Map<String, Object>> rows;
+        do {
+            rows = jdbcTemplate.queryForList(
+                    "SELECT id, image FROM publications WHERE image IS NOT NULL LIMIT " + BATCH_SIZE);
+            for (Map<String, Object> row : rows) {
+                Object id = row.get("id");
+                String image = String.valueOf(row.get("image"));
+                try {
+                    BlobStorageService.StoredBlob blob = mediaStoreService.retainBase64(image);
+                    jdbcTemplate.update(
+                            "UPDATE publications SET image_hash = ?, image_content_type = ?, image = NULL WHERE id = ?",
+                            blob.hash(), blob.contentType(), id);
+                    migrated++;
+                } catch (IllegalArgumentException e) {
+                    // Base64 invalide : l'image ne pourra jamais être relue
+                    log.warn("Image de publication illisible, ignorée : {}", e.getMessage());
+                    jdbcTemplate.update("UPDATE publications SET image = NULL WHERE id = ?", id);
+                } catch (IOException e) {
+                    // Erreur du stockage (disque plein, droits) : la colonne reste la seule copie,
+                    // les images restantes seront reprises au prochain démarrage
+                    log.error("Migration des images de publication interrompue : {}", e.getMessage());
+                    logMigrated(migrated);
+                    return;
+                }
+            }
+        } while (rows.size() == BATCH_SIZE);
+
+        logMigrated(migrated);
+    }
+
+    private void logMigrated(int migrated) {
+        if (migrated > 0) {
+            log.info("{} images de publication déplacées vers le stockage de blobs", migrated);
+        }
+    }
+
+    /**
+     * Les images rangées avant le comptage des références n'ont pas de ligne media_blobs :
+     * un même contenu envoyé ensuite démarrerait son compteur à 1 et le blob pourrait être
+     * supprimé alors que la publication y pointe encore. On les enregistre une fois, tant que la table est vide.
+     */
+    private void backfillBlobReferences() {
+        Integer blobRows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM media_blobs", Integer.class);
+        if (blobRows == null || blobRows > 0) {
+            return;
+        }
+
+        List<Map<String, Object>> references = jdbcTemplate.queryForList(
+                "SELECT image_hash, MAX(image_content_type) AS content_type, COUNT(*) AS refs " +
+                        "FROM publications WHERE image_hash IS NOT NULL GROUP BY image_hash");
+        for (Map<String, Object> reference : references) {
+            String hash = String.valueOf(reference.get("image_hash"));
+            long size = blobStorageService.resolve(hash).map(path -> path.toFile().length()).orElse(0L);
+            mediaBlobRepository.save(MediaBlob.builder()
+                    .hash(hash)
+                    .size(size)
+                    .contentType((String) reference.get("content_type"))
+                    .refCount(((Number) reference.get("refs")).longValue())
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+
+        if (!references.isEmpty()) {
+            log.info("{} références d'images de publication enregistrées", references.size());
+        }
+    }
+
+    private boolean legacyColumnExists() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((Connection connection) -> {
+            try (ResultSet columns = connection.getMetaData().getColumns(null, null, "publications", "image")) {
+                return columns.next();
+            }
+        }));
+    }
+}
@@ -1,41 +1,97 @@
 package com.enspy.syndicmanager.services;
 
+import com.enspy.syndicmanager.dto.feed.FeedDelta;
+import com.enspy.syndicmanager.dto.request.KeysetCursor;
 import com.enspy.syndicmanager.dto.request.PublicationRequest;
+import com.enspy.syndicmanager.dto.response.CursorPage;
 import com.enspy.syndicmanager.dto.response.ResponseDto;
 import com.enspy.syndicmanager.models.Publication;
 import com.enspy.syndicmanager.models.User;
 import com.enspy.syndicmanager.repositories.PublicationRepository;
 import com.enspy.syndicmanager.repositories.UserRepository;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class PublicationService {
 
+    public static final int MAX_PAGE_SIZE = 50;
+
     private final PublicationRepository publicationRepository;
     private final UserRepository userRepository;
-    private final ObjectMapper objectMapper;
+    private final BlobStorageService blobStorageService;
+    private final MediaStoreService mediaStoreService;
+    private final ImageVariantService imageVariantService;
+    private final EntityCacheService entityCacheService;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    /**
+     * Fil d'actualité paginé par curseur (createdAt, id), du plus récent au plus ancien.
+     *
+     * @param cursor curseur renvoyé par la page précédente, null pour la première page
+     * @param size   taille de page demandée, bornée à MAX_PAGE_SIZE
+     */
+    @Transactional(readOnly = true)
+    public ResponseDto<CursorPage<Publication>> getAllPublications(String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // Une ligne de plus que demandé pour savoir s'il reste une page
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<Publication> publications;
+        if (cursor == null || cursor.isBlank()) {
+            publications = publicationRepository.findFeedFirstPage(limit);
+        } else {
+            KeysetCursor keyset;
+            try {
+                keyset = KeysetCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return createErrorResponse(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+            publications = publicationRepository.findFeedPageBefore(keyset.getTimestamp(), keyset.getId(), limit);
+        }
+
+        boolean hasMore = publications.size() > pageSize;
+        List<Publication> items = hasMore ? publications.subList(0, pageSize) : publications;
+        String nextCursor = null;
+        if (hasMore) {
+            Publication last = items.get(items.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
 
-    public ResponseDto getAllPublications() {
-        List<Publication> publications = publicationRepository.findAllByOrderByCreatedAtDesc();
-        return createSuccessResponse("Publications retrieved successfully", publications);
+        CursorPage<Publication> page = CursorPage.<Publication>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+        return createSuccessResponse("Publications retrieved successfully", page);
     }
 
-    public ResponseDto getPublicationById(UUID id) {
-        Publication publication = publicationRepository.findById(id)
+    @Transactional(readOnly = true)
+    public ResponseDto<Publication> getPublicationById(UUID id) {
+        Publication publication = entityCacheService.getPublication(id, publicationRepository::findById)
                 .orElseThrow(() -> new RuntimeException("Publication not found with id: " + id));
         return createSuccessResponse("Publication retrieved successfully", publication);
     }
 
-    public ResponseDto createPublication(PublicationRequest request) {
+    @Transactional
+    public ResponseDto<Publication> createPublication(PublicationRequest request) {
         User author = null;
         if (request.getAuthorId() != null) {
             author = userRepository.findById(request.getAuthorId())
@@ -44,54 +100,125 @@ public class PublicationService {
 
         Publication publication = Publication.builder()
                 .content(request.getContent())
-                .image(request.getImage())
                 .authorName(request.getAuthorName())
                 .authorAvatar(request.getAuthorAvatar())
                 .author(author)
                 .createdAt(LocalDateTime.now())
                 .build();
 
+        ResponseDto<Publication> imageError = applyImage(publication, request.getImage());
+        if (imageError != null) {
+            return imageError;
+        }
+
         Publication savedPublication = publicationRepository.save(publication);
+        applicationEventPublisher.publishEvent(FeedDelta.publicationCreated(savedPublication));
         return createSuccessResponse("Publication created successfully", savedPublication);
     }
 
-    public ResponseDto updatePublication(UUID id, PublicationRequest request) {
+    @Transactional
+    public ResponseDto<Publication> updatePublication(UUID id, PublicationRequest request) {
         Publication publication = publicationRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Publication not found with id: " + id));
 
         publication.setContent(request.getContent());
-        publication.setImage(request.getImage());
+        ResponseDto<Publication> imageError = applyImage(publication, request.getImage());
+        if (imageError != null) {
+            return imageError;
+        }
         
         Publication updatedPublication = publicationRepository.save(publication);
+        applicationEventPublisher.publishEvent(FeedDelta.publicationUpdated(updatedPublication));
         return createSuccessResponse("Publication updated successfully", updatedPublication);
     }
 
-    public ResponseDto deletePublication(UUID id) {
-        if (!publicationRepository.existsById(id)) {
-            throw new RuntimeException("Publication not found with id: " + id);
+    /**
+     * Sert l'image d'une publication depuis le BlobStorageService.
+     * L'ETag est l'empreinte du contenu : les requêtes If-None-Match reçoivent un 304
+     * et les en-têtes Range une réponse partielle (gérés par Spring MVC pour un Resource).
+     * Une déclinaison réduite pas encore calculée est remplacée par l'original.
+     */
+    @Transactional(readOnly = true)
+    public ResponseEntity<Resource> getPublicationImage(UUID id, ImageVariantService.Variant variant) {
+        Optional<Publication> publication = publicationRepository.findById(id);
+        if (publication.isEmpty() || publication.get().getImageHash() == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+
+        String hash = publication.get().getImageHash();
+        Optional<Path> blob = blobStorageService.resolve(hash);
+        if (blob.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+
+        String contentType = publication.get().getImageContentType() != null
+                ? publication.get().getImageContentType()
+                : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        Optional<ImageVariantService.VariantFile> resized = imageVariantService.find(hash, contentType, variant);
+        if (resized.isPresent()) {
+            return ResponseEntity.ok()
+                    .eTag(resized.get().etag())
+                    .cacheControl(CacheControl.noCache())
+                    .contentType(MediaType.parseMediaType(resized.get().contentType()))
+                    .body(new FileSystemResource(resized.get().path()));
         }
-        publicationRepository.deleteById(id);
+        return ResponseEntity.ok()
+                .eTag(hash)
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.parseMediaType(contentType))
+                .body(new FileSystemResource(blob.get()));
+    }
+
+    @Transactional
+    public ResponseDto<Void> deletePublication(UUID id) {
+        Publication publication = publicationRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Publication not found with id: " + id));
+        publicationRepository.delete(publication);
+        mediaStoreService.release(publication.getImageHash());
+        applicationEventPublisher.publishEvent(FeedDelta.publicationDeleted(id));
         return createSuccessResponse("Publication deleted successfully", null);
     }
 
-    private ResponseDto createSuccessResponse(String message, Object data) {
-        String dataJson = null;
+    /**
+     * Range l'image reçue (data URL ou Base64 brut) dans le MediaStoreService
+     * et ne conserve que sa référence sur la publication ; l'image remplacée est rendue.
+     *
+     * @return une réponse d'erreur si l'image est invalide ou n'a pas pu être enregistrée, null sinon
+     */
+    private <T> ResponseDto<T> applyImage(Publication publication, String image) {
+        String previousHash = publication.getImageHash();
+        if (image == null || image.isBlank()) {
+            publication.setImageHash(null);
+            publication.setImageContentType(null);
+            mediaStoreService.release(previousHash);
+            return null;
+        }
+
         try {
-            if (data != null) {
-                dataJson = objectMapper.writeValueAsString(data);
-            }
-        } catch (JsonProcessingException e) {
-            return ResponseDto.builder()
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR.value())
-                    .text("Error processing response data")
-                    .data(null)
-                    .build();
+            BlobStorageService.StoredBlob blob = mediaStoreService.retainBase64(image);
+            publication.setImageHash(blob.hash());
+            publication.setImageContentType(blob.contentType());
+            mediaStoreService.release(previousHash);
+            return null;
+        } catch (IllegalArgumentException e) {
+            return createErrorResponse(HttpStatus.BAD_REQUEST, "Invalid image payload: " + e.getMessage());
+        } catch (IOException e) {
+            return createErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to store image: " + e.getMessage());
         }
-        
-        return ResponseDto.builder()
+    }
+
+    private <T> ResponseDto<T> createSuccessResponse(String message, T data) {
+        return ResponseDto.<T>builder()
                 .status(HttpStatus.OK.value())
                 .text(message)
-                .data(dataJson)
+                .data(data)
+                .build();
+    }
+
+    private <T> ResponseDto<T> createErrorResponse(HttpStatus status, String message) {
+        return ResponseDto.<T>builder()
+                .status(status.value())
+                .text(message)
                 .build();
     }
 }
@@ -0,0 +1,66 @@
+package com.enspy.syndicmanager.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Initialise les compteurs de réactions et de commentaires à partir des données existantes,
+ * pour les bases créées avant leur maintenance par ReactionService / CommentService.
+ * Le recalcul n'a lieu qu'une fois par base : il est ensuite noté dans data_backfills.
+ * Crée aussi l'index unique des réactions, que ddl-auto=update n'ajoute pas sur une table SQLite existante.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReactionCounterBackfill {
+
+    static final String BACKFILL_NAME = "reaction_comment_counters";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillCounters() {
+        ensureUniqueReactionIndex();
+
+        // Les colonnes de compteurs existaient déjà, à 0 : seule cette marque dit si le recalcul a été fait
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS data_backfills (" +
+                "name VARCHAR(100) PRIMARY KEY, applied_at TIMESTAMP NOT NULL)");
+        Integer applied = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM data_backfills WHERE name = ?", Integer.class, BACKFILL_NAME);
+        if (applied != null && applied > 0) {
+            return;
+        }
+
+        jdbcTemplate.update("DELETE FROM publication_reaction_counts");
+        jdbcTemplate.update(
+                "INSERT INTO publication_reaction_counts (publication_id, reaction_type, reaction_count) " +
+                "SELECT publication_id, reaction_type, COUNT(*) FROM reactions GROUP BY publication_id, reaction_type");
+        int publications = jdbcTemplate.update(
+                "UPDATE publications SET " +
+                "likes_count = (SELECT COUNT(*) FROM reactions r WHERE r.publication_id = publications.id), " +
+                "comments_count = (SELECT COUNT(*) FROM comments c WHERE c.publication_id = publications.id)");
+        jdbcTemplate.update("INSERT INTO data_backfills (name, applied_at) VALUES (?, ?)",
+                BACKFILL_NAME, Timestamp.valueOf(LocalDateTime.now()));
+
+        log.info("Compteurs de réactions et de commentaires recalculés pour {} publications", publications);
+    }
+
+    private void ensureUniqueReactionIndex() {
+        try {
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uk_reactions_publication_user_type " +
+                    "ON reactions (publication_id, user_id, reaction_type)");
+        } catch (DataAccessException e) {
+            log.warn("Index unique des réactions non créé (doublons existants ?) : {}", e.getMessage());
+        }
+    }
+}
@@ -1,123 +1,479 @@
 package com.enspy.syndicmanager.services;
 
+import com.enspy.syndicmanager.dto.feed.FeedDelta;
 import com.enspy.syndicmanager.dto.request.ReactionRequest;
+import com.enspy.syndicmanager.dto.response.ReactionSummaryDto;
 import com.enspy.syndicmanager.dto.response.ResponseDto;
+import com.enspy.syndicmanager.models.PublicationReactionCount;
 import com.enspy.syndicmanager.models.Reaction;
+import com.enspy.syndicmanager.repositories.PublicationReactionCountRepository;
+import com.enspy.syndicmanager.repositories.PublicationRepository;
 import com.enspy.syndicmanager.repositories.ReactionRepository;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class ReactionService {
 
+    public static final int MAX_SUMMARY_BATCH = 50;
+
+    /**
+     * SYNC : chaque réaction est écrite dans la transaction de la requête.
+     * BUFFERED : les bascules sont regroupées en mémoire et écrites par lots ;
+     * celles non encore écrites sont perdues si le processus s'arrête brutalement.
+     */
+    public enum WriteMode { SYNC, BUFFERED }
+
     private final ReactionRepository reactionRepository;
-    private final ObjectMapper objectMapper;
+    private final PublicationReactionCountRepository reactionCountRepository;
+    private final PublicationRepository publicationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
-    public ResponseDto getAllReactions() {
-        try {
-            List<Reaction> reactions = reactionRepository.findAll();
-            String jsonData = objectMapper.writeValueAsString(reactions);
-            return ResponseDto.builder()
-                    .status(HttpStatus.OK.value())
-                    .text("Reactions retrieved successfully")
-                    .data(jsonData)
-                    .build();
-        } catch (JsonProcessingException e) {
-            return ResponseDto.builder()
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR.value())
-                    .text("Failed to retrieve reactions: " + e.getMessage())
-                    .build();
-        }
+    @Value("${syndicmanager.reactions.write-mode:SYNC}")
+    private WriteMode writeMode;
+
+    @Value("${syndicmanager.reactions.flush-threshold:200}")
+    private int flushThreshold;
+
+    // Dernier état demandé par (utilisateur, publication, type) : true = présente, false = retirée
+    private final Map<PendingReaction, Boolean> pendingReactions = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ExecutorService flushExecutor =
+            Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "reaction-flush"));
+
+    private Timer flushTimer;
+    private Counter flushedReactions;
+    private Counter droppedReactions;
+
+    private record PendingReaction(UUID userId, UUID publicationId, Reaction.ReactionType reactionType) {
     }
 
-    public ResponseDto getReactionsByPublicationId(UUID publicationId) {
-        try {
-            List<Reaction> reactions = reactionRepository.findByPublicationId(publicationId);
-            String jsonData = objectMapper.writeValueAsString(reactions);
-            return ResponseDto.builder()
-                    .status(HttpStatus.OK.value())
-                    .text("Reactions for target retrieved successfully")
-                    .data(jsonData)
-                    .build();
-        } catch (JsonProcessingException e) {
-            return ResponseDto.builder()
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR.value())
-                    .text("Failed to retrieve reactions: " + e.getMessage())
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("syndicmanager.reactions.pending", pendingReactions, Map::size)
+                .description("Bascules de réactions en attente d'écriture")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("syndicmanager.reactions.flush")
+                .description("Durée d'écriture d'un lot de réactions")
+                .register(meterRegistry);
+        flushedReactions = Counter.builder("syndicmanager.reactions.flushed")
+                .description("Bascules de réactions écrites en base")
+                .register(meterRegistry);
+        droppedReactions = Counter.builder("syndicmanager.reactions.dropped")
+                .description("Bascules de réactions abandonnées car refusées par la base")
+                .register(meterRegistry);
+    }
+
+    @Transactional(readOnly = true)
+    public ResponseDto<List<Reaction>> getAllReactions() {
+        List<Reaction> reactions = reactionRepository.findAll();
+        return ResponseDto.<List<Reaction>>builder()
+                .status(HttpStatus.OK.value())
+                .text("Reactions retrieved successfully")
+                .data(reactions)
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public ResponseDto<List<Reaction>> getReactionsByPublicationId(UUID publicationId) {
+        List<Reaction> reactions = reactionRepository.findByPublicationId(publicationId);
+        return ResponseDto.<List<Reaction>>builder()
+                .status(HttpStatus.OK.value())
+                .text("Reactions for target retrieved successfully")
+                .data(reactions)
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public ResponseDto<ReactionSummaryDto> getReactionSummary(UUID publicationId, UUID userId) {
+        ReactionSummaryDto summary = buildSummaries(List.of(publicationId), userId).get(0);
+        return ResponseDto.<ReactionSummaryDto>builder()
+                .status(HttpStatus.OK.value())
+                .text("Reaction summary retrieved successfully")
+                .data(summary)
+                .build();
+    }
+
+    /**
+     * Résumés de plusieurs publications en deux requêtes, pour afficher une page du fil.
+     */
+    @Transactional(readOnly = true)
+    public ResponseDto<List<ReactionSummaryDto>> getReactionSummaries(Collection<UUID> publicationIds, UUID userId) {
+        if (publicationIds.size() > MAX_SUMMARY_BATCH) {
+            return ResponseDto.<List<ReactionSummaryDto>>builder()
+                    .status(HttpStatus.BAD_REQUEST.value())
+                    .text("At most " + MAX_SUMMARY_BATCH + " publications per request")
                     .build();
         }
+
+        return ResponseDto.<List<ReactionSummaryDto>>builder()
+                .status(HttpStatus.OK.value())
+                .text("Reaction summaries retrieved successfully")
+                .data(buildSummaries(new LinkedHashSet<>(publicationIds), userId))
+                .build();
     }
 
-    public ResponseDto createReaction(ReactionRequest request) {
-        try {
-            // Vérifier si la réaction existe déjà
-            Optional<Reaction> existingReaction = reactionRepository.findByUserIdAndPublicationIdAndReactionType(
-                    request.getUserId(),
-                    request.getPublicationId(),
-                    request.getReactionType()
-            );
-            
-            if (existingReaction.isPresent()) {
-                String jsonData = objectMapper.writeValueAsString(existingReaction.get());
-                return ResponseDto.builder()
-                        .status(HttpStatus.OK.value())
-                        .text("Reaction already exists")
-                        .data(jsonData)
-                        .build();
-            }
-            
+    public ResponseDto<Reaction> createReaction(ReactionRequest request) {
+        ResponseDto<Reaction> invalid = validate(request.getUserId(), request.getPublicationId(), request.getReactionType());
+        if (invalid != null) {
+            return invalid;
+        }
+        if (!publicationRepository.existsById(request.getPublicationId())) {
+            return ResponseDto.<Reaction>builder()
+                    .status(HttpStatus.NOT_FOUND.value())
+                    .text("Publication not found with id: " + request.getPublicationId())
+                    .build();
+        }
+        if (writeMode == WriteMode.BUFFERED) {
+            bufferReaction(request.getUserId(), request.getPublicationId(), request.getReactionType(), true);
             Reaction reaction = Reaction.builder()
                     .publicationId(request.getPublicationId())
                     .userId(request.getUserId())
                     .reactionType(request.getReactionType())
                     .build();
-            
-            Reaction savedReaction = reactionRepository.save(reaction);
-            String jsonData = objectMapper.writeValueAsString(savedReaction);
-            
-            return ResponseDto.builder()
-                    .status(HttpStatus.CREATED.value())
-                    .text("Reaction created successfully")
-                    .data(jsonData)
+            return ResponseDto.<Reaction>builder()
+                    .status(HttpStatus.ACCEPTED.value())
+                    .text("Reaction accepted")
+                    .data(reaction)
                     .build();
-        } catch (JsonProcessingException e) {
-            return ResponseDto.builder()
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR.value())
-                    .text("Failed to create reaction: " + e.getMessage())
+        }
+        try {
+            return transactionTemplate.execute(status -> createReactionNow(request));
+        } catch (DataIntegrityViolationException e) {
+            // Même réaction, ou premier compteur de ce type, créés en même temps par une autre requête :
+            // la transaction est rejouée une fois et voit alors la ligne de l'autre
+            log.debug("Réaction concurrente sur la publication {}, nouvel essai : {}", request.getPublicationId(), e.getMessage());
+            return transactionTemplate.execute(status -> createReactionNow(request));
+        }
+    }
+
+    public ResponseDto<Void> removeReaction(UUID userId, UUID publicationId, Reaction.ReactionType reactionType) {
+        ResponseDto<Void> invalid = validate(userId, publicationId, reactionType);
+        if (invalid != null) {
+            return invalid;
+        }
+        if (writeMode == WriteMode.BUFFERED) {
+            bufferReaction(userId, publicationId, reactionType, false);
+            return ResponseDto.<Void>builder()
+                    .status(HttpStatus.ACCEPTED.value())
+                    .text("Reaction removal accepted")
                     .build();
         }
+        return transactionTemplate.execute(status -> removeReactionNow(userId, publicationId, reactionType));
     }
 
-    @Transactional
-    public ResponseDto removeReaction(UUID userId, UUID publicationId, Reaction.ReactionType reactionType) {
+    /**
+     * Écrit les bascules en attente, au plus flushThreshold par transaction.
+     * Appelée à intervalle fixe, dès que le seuil est atteint, et à l'arrêt de l'application.
+     */
+    @Scheduled(fixedDelayString = "${syndicmanager.reactions.flush-interval-ms:500}")
+    public void flushPendingReactions() {
+        if (pendingReactions.isEmpty()) {
+            return;
+        }
+
+        flushLock.lock();
         try {
-            Optional<Reaction> reaction = reactionRepository.findByUserIdAndPublicationIdAndReactionType(userId, publicationId, reactionType);
-            if (reaction.isEmpty()) {
-                return ResponseDto.builder()
-                        .status(HttpStatus.NOT_FOUND.value())
-                        .text("Reaction not found")
-                        .build();
+            Map<PendingReaction, Boolean> batch = new HashMap<>();
+            for (Map.Entry<PendingReaction, Boolean> entry : pendingReactions.entrySet()) {
+                batch.put(entry.getKey(), entry.getValue());
+                if (batch.size() >= flushThreshold) {
+                    flushBatch(batch);
+                    batch = new HashMap<>();
+                }
             }
-            
-            reactionRepository.deleteByUserIdAndPublicationIdAndReactionType(userId, publicationId, reactionType);
-            
-            return ResponseDto.builder()
+            if (!batch.isEmpty()) {
+                flushBatch(batch);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() throws InterruptedException {
+        flushExecutor.shutdown();
+        flushExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        flushPendingReactions();
+    }
+
+    private void bufferReaction(UUID userId, UUID publicationId, Reaction.ReactionType reactionType, boolean present) {
+        // Une nouvelle bascule remplace la précédente : seul l'état final est écrit
+        pendingReactions.put(new PendingReaction(userId, publicationId, reactionType), present);
+
+        if (pendingReactions.size() >= flushThreshold && flushScheduled.compareAndSet(false, true)) {
+            flushExecutor.execute(() -> {
+                flushScheduled.set(false);
+                flushPendingReactions();
+            });
+        }
+    }
+
+    /**
+     * Réponse 400 si un identifiant ou le type manque, null sinon
+     */
+    private <T> ResponseDto<T> validate(UUID userId, UUID publicationId, Reaction.ReactionType reactionType) {
+        if (userId == null || publicationId == null || reactionType == null) {
+            return ResponseDto.<T>builder()
+                    .status(HttpStatus.BAD_REQUEST.value())
+                    .text("userId, publicationId and reactionType are required")
+                    .build();
+        }
+        return null;
+    }
+
+    /**
+     * Écrit le lot en une transaction. S'il est refusé par la base (contrainte) même rejoué, il est repris
+     * entrée par entrée : les bascules fautives sont abandonnées sans bloquer les autres.
+     * Toute autre erreur (base verrouillée, indisponible) laisse le lot pour le prochain passage.
+     */
+    private void flushBatch(Map<PendingReaction, Boolean> batch) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            writeBatch(batch);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Lot de {} réactions refusé, écriture entrée par entrée : {}", batch.size(), e.getMessage());
+            writeOneByOne(batch);
+        } catch (RuntimeException e) {
+            log.error("Échec de l'écriture de {} réactions, nouvel essai au prochain passage", batch.size(), e);
+        } finally {
+            sample.stop(flushTimer);
+        }
+    }
+
+    private void writeOneByOne(Map<PendingReaction, Boolean> batch) {
+        for (Map.Entry<PendingReaction, Boolean> entry : batch.entrySet()) {
+            try {
+                writeBatch(Map.of(entry.getKey(), entry.getValue()));
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Réaction abandonnée {} : {}", entry.getKey(), e.getMessage());
+                pendingReactions.remove(entry.getKey(), entry.getValue());
+                droppedReactions.increment();
+            } catch (RuntimeException e) {
+                log.error("Échec de l'écriture des réactions, nouvel essai au prochain passage", e);
+                return;
+            }
+        }
+    }
+
+    private void writeBatch(Map<PendingReaction, Boolean> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> applyBatch(batch));
+        } catch (DataIntegrityViolationException e) {
+            // Premier compteur d'un type créé entre-temps par une autre instance : le lot relu l'incrémente
+            log.debug("Écriture concurrente des compteurs de réactions, nouvel essai : {}", e.getMessage());
+            transactionTemplate.executeWithoutResult(status -> applyBatch(batch));
+        }
+        // Les entrées restent visibles jusqu'au commit ; une bascule reçue pendant l'écriture est conservée
+        batch.forEach(pendingReactions::remove);
+        flushedReactions.increment(batch.size());
+    }
+
+    private void applyBatch(Map<PendingReaction, Boolean> batch) {
+        Set<UUID> userIds = new HashSet<>();
+        Set<UUID> publicationIds = new HashSet<>();
+        batch.keySet().forEach(key -> {
+            userIds.add(key.userId());
+            publicationIds.add(key.publicationId());
+        });
+
+        // Un seul SELECT pour connaître l'état en base de tout le lot
+        Map<PendingReaction, Reaction> existing = new HashMap<>();
+        for (Reaction reaction : reactionRepository.findByUserIdInAndPublicationIdIn(userIds, publicationIds)) {
+            existing.put(new PendingReaction(reaction.getUserId(), reaction.getPublicationId(), reaction.getReactionType()), reaction);
+        }
+
+        List<Reaction> toInsert = new ArrayList<>();
+        List<Reaction> toDelete = new ArrayList<>();
+        Map<PublicationReactionCount.Key, Integer> countDeltas = new HashMap<>();
+        Map<UUID, Integer> likesDeltas = new HashMap<>();
+
+        batch.forEach((key, present) -> {
+            Reaction current = existing.get(key);
+            int delta = 0;
+            if (present && current == null) {
+                toInsert.add(Reaction.builder()
+                        .publicationId(key.publicationId())
+                        .userId(key.userId())
+                        .reactionType(key.reactionType())
+                        .build());
+                delta = 1;
+            } else if (!present && current != null) {
+                toDelete.add(current);
+                delta = -1;
+            }
+
+            if (delta != 0) {
+                countDeltas.merge(new PublicationReactionCount.Key(key.publicationId(), key.reactionType()), delta, Integer::sum);
+                likesDeltas.merge(key.publicationId(), delta, Integer::sum);
+            }
+        });
+
+        reactionRepository.saveAll(toInsert);
+        reactionRepository.deleteAll(toDelete);
+
+        // Un seul incrément par compteur pour tout le lot
+        countDeltas.forEach((key, delta) -> addToReactionCount(key.getPublicationId(), key.getReactionType(), delta));
+        likesDeltas.forEach((publicationId, delta) -> {
+            if (delta != 0) {
+                publicationRepository.addToLikesCount(publicationId, delta);
+            }
+        });
+        countDeltas.keySet().stream()
+                .map(PublicationReactionCount.Key::getPublicationId)
+                .distinct()
+                .forEach(publicationId -> applicationEventPublisher.publishEvent(FeedDelta.reactionsChanged(publicationId)));
+    }
+
+    private ResponseDto<Reaction> createReactionNow(ReactionRequest request) {
+        // Vérifier si la réaction existe déjà
+        Optional<Reaction> existingReaction = reactionRepository.findByUserIdAndPublicationIdAndReactionType(
+                request.getUserId(),
+                request.getPublicationId(),
+                request.getReactionType()
+        );
+        
+        if (existingReaction.isPresent()) {
+            return ResponseDto.<Reaction>builder()
                     .status(HttpStatus.OK.value())
-                    .text("Reaction removed successfully")
+                    .text("Reaction already exists")
+                    .data(existingReaction.get())
                     .build();
-        } catch (Exception e) {
-            return ResponseDto.builder()
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR.value())
-                    .text("Failed to remove reaction: " + e.getMessage())
+        }
+        
+        Reaction reaction = Reaction.builder()
+                .publicationId(request.getPublicationId())
+                .userId(request.getUserId())
+                .reactionType(request.getReactionType())
+                .build();
+        
+        Reaction savedReaction = reactionRepository.save(reaction);
+        updateCounters(savedReaction.getPublicationId(), savedReaction.getReactionType(), 1);
+        
+        return ResponseDto.<Reaction>builder()
+                .status(HttpStatus.CREATED.value())
+                .text("Reaction created successfully")
+                .data(savedReaction)
+                .build();
+    }
+
+    private ResponseDto<Void> removeReactionNow(UUID userId, UUID publicationId, Reaction.ReactionType reactionType) {
+        long deleted = reactionRepository.deleteByUserIdAndPublicationIdAndReactionType(userId, publicationId, reactionType);
+        if (deleted == 0) {
+            return ResponseDto.<Void>builder()
+                    .status(HttpStatus.NOT_FOUND.value())
+                    .text("Reaction not found")
                     .build();
         }
+        
+        updateCounters(publicationId, reactionType, -1);
+        
+        return ResponseDto.<Void>builder()
+                .status(HttpStatus.OK.value())
+                .text("Reaction removed successfully")
+                .build();
+    }
+
+    /**
+     * Répercute une réaction ajoutée (+1) ou retirée (-1) sur le compteur par type
+     * et sur Publication.likesCount. Doit être appelée dans la transaction de la réaction.
+     */
+    private void updateCounters(UUID publicationId, Reaction.ReactionType reactionType, int delta) {
+        addToReactionCount(publicationId, reactionType, delta);
+        publicationRepository.addToLikesCount(publicationId, delta);
+        applicationEventPublisher.publishEvent(FeedDelta.reactionsChanged(publicationId));
+    }
+
+    /**
+     * Met à jour le compteur, ou le crée au premier ajout. Deux premiers ajouts simultanés créent tous deux
+     * la ligne : le perdant échoue sur la clé primaire au commit et sa transaction est rejouée par l'appelant.
+     */
+    private void addToReactionCount(UUID publicationId, Reaction.ReactionType reactionType, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        int updated = reactionCountRepository.addToCount(publicationId, reactionType, delta);
+        if (updated == 0 && delta > 0) {
+            reactionCountRepository.save(PublicationReactionCount.builder()
+                    .id(new PublicationReactionCount.Key(publicationId, reactionType))
+                    .count(delta)
+                    .build());
+        }
+    }
+
+    private List<ReactionSummaryDto> buildSummaries(Collection<UUID> publicationIds, UUID userId) {
+        Map<UUID, ReactionSummaryDto> summaries = new LinkedHashMap<>();
+        for (UUID publicationId : publicationIds) {
+            Map<Reaction.ReactionType, Long> counts = new LinkedHashMap<>();
+            for (Reaction.ReactionType type : Reaction.ReactionType.values()) {
+                counts.put(type, 0L);
+            }
+            summaries.put(publicationId, ReactionSummaryDto.builder()
+                    .publicationId(publicationId)
+                    .counts(counts)
+                    .build());
+        }
+
+        for (PublicationReactionCount count : reactionCountRepository.findByIdPublicationIdIn(publicationIds)) {
+            ReactionSummaryDto summary = summaries.get(count.getId().getPublicationId());
+            summary.getCounts().put(count.getId().getReactionType(), count.getCount());
+            summary.setTotal(summary.getTotal() + count.getCount());
+        }
+
+        if (userId != null) {
+            for (Reaction reaction : reactionRepository.findByUserIdAndPublicationIdIn(userId, publicationIds)) {
+                summaries.get(reaction.getPublicationId()).getUserReactions().add(reaction.getReactionType());
+            }
+            // Les bascules pas encore écrites de l'utilisateur priment sur l'état en base
+            pendingReactions.forEach((key, present) -> {
+                ReactionSummaryDto summary = summaries.get(key.publicationId());
+                if (summary == null || !key.userId().equals(userId)) {
+                    return;
+                }
+                summary.getUserReactions().remove(key.reactionType());
+                if (present) {
+                    summary.getUserReactions().add(key.reactionType());
+                }
+            });
+        }
+
+        return new ArrayList<>(summaries.values());
     }
 }
@@ -0,0 +1,177 @@
+package com.enspy.syndicmanager.services;
+
+import com.enspy.syndicmanager.dto.feed.FeedDelta;
+import com.enspy.syndicmanager.dto.request.KeysetCursor;
+import com.enspy.syndicmanager.dto.response.ResponseDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Réponses JSON des listes (fil, événements à venir, unions) gardées déjà encodées.
+ * La clé contient la version de la région : une écriture incrémente la version après la validation de sa transaction,
+ * les anciennes entrées ne sont plus lues et sortent du cache par taille (max-bytes) ou par âge (ttl-seconds).
+ * Les réponses portent un ETag : Spring MVC répond 304 à un If-None-Match identique,
+ * sans relire la base ni resérialiser tant que l'entrée est en cache.
+ */
+@Service
+@RequiredArgsConstructor
+public class ResponseCacheService {
+
+    public enum Region { PUBLICATIONS, EVENTS, UNIONS }
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${syndicmanager.response-cache.max-bytes:16777216}")
+    private long maxBytes;
+
+    @Value("${syndicmanager.response-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private final Map<Region, AtomicLong> versions = new EnumMap<>(Region.class);
+    private Cache<String, Encoded> responses;
+
+    private record Encoded(int status, byte[] body, String etag) {
+    }
+
+    @PostConstruct
+    void init() {
+        for (Region region : Region.values()) {
+            versions.put(region, new AtomicLong());
+        }
+        responses = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, Encoded encoded) -> encoded.body().length + key.length())
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "responses");
+        Gauge.builder("syndicmanager.cache.hit-ratio", responses, cache -> cache.stats().hitRate())
+                .tag("cache", "responses")
+                .description("Part des réponses de liste servies sans relire la base")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Clé d'une page de liste paginée par curseur : la taille est bornée comme dans le service
+     * et le curseur normalisé, pour que les requêtes qui donnent la même page partagent une entrée.
+     * null si le curseur est mal formé : le service répond 400 sans que la requête passe par le cache.
+     */
+    public static String pageKey(String list, String cursor, int size, int maxPageSize) {
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        if (cursor == null || cursor.isBlank()) {
+            return list + "?size=" + pageSize;
+        }
+        try {
+            return list + "?cursor=" + KeysetCursor.decode(cursor).encode() + "&size=" + pageSize;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Réponse encodée pour key dans la région, calculée par loader si elle n'est pas en cache.
+     * Les appels simultanés pour la même clé attendent un seul calcul ; les réponses en erreur ne sont pas gardées.
+     * Sans clé, la réponse est calculée sans lire ni remplir le cache.
+     */
+    public ResponseEntity<byte[]> serve(Region region, String key, Supplier<? extends ResponseDto<?>> loader) {
+        if (key == null) {
+            return toResponse(encode(loader.get()));
+        }
+        Encoded[] uncached = new Encoded[1];
+        Encoded encoded = responses.get(versionedKey(region, key), ignored -> {
+            Encoded fresh = encode(loader.get());
+            if (fresh.status() == HttpStatus.OK.value()) {
+                return fresh;
+            }
+            uncached[0] = fresh;
+            return null;
+        });
+        return toResponse(encoded != null ? encoded : uncached[0]);
+    }
+
+    /**
+     * Variante pour les services réactifs
+     */
+    @SuppressWarnings("rawtypes")
+    public Mono<ResponseEntity<byte[]>> serve(Region region, String key, Mono<? extends ResponseDto> loader) {
+        if (key == null) {
+            return loader.map(response -> toResponse(encode(response)));
+        }
+        // Version lue avant le chargement : une écriture pendant celui-ci rend l'entrée obsolète aussitôt
+        String versionedKey = versionedKey(region, key);
+        Encoded cached = responses.getIfPresent(versionedKey);
+        if (cached != null) {
+            return Mono.just(toResponse(cached));
+        }
+        return loader.map(response -> {
+            Encoded fresh = encode(response);
+            if (fresh.status() == HttpStatus.OK.value()) {
+                responses.put(versionedKey, fresh);
+            }
+            return toResponse(fresh);
+        });
+    }
+
+    /**
+     * À appeler une fois l'écriture validée
+     */
+    public void bump(Region region) {
+        versions.get(region).incrementAndGet();
+    }
+
+    @TransactionalEventListener
+    public void onFeedDelta(FeedDelta delta) {
+        switch (delta.getType()) {
+            // Le fil contient les compteurs de réactions et de commentaires
+            case PUBLICATION_CREATED, PUBLICATION_UPDATED, PUBLICATION_DELETED,
+                    COMMENT_CREATED, COMMENT_DELETED, REACTIONS_CHANGED -> bump(Region.PUBLICATIONS);
+            case EVENT_CREATED, EVENT_UPDATED, EVENT_DELETED, PARTICIPANTS_CHANGED -> bump(Region.EVENTS);
+        }
+    }
+
+    private String versionedKey(Region region, String key) {
+        return region + ":" + versions.get(region).get() + ":" + key;
+    }
+
+    private Encoded encode(ResponseDto<?> response) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(response);
+            return new Encoded(response.getStatus(), body, DigestUtils.md5DigestAsHex(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize response", e);
+        }
+    }
+
+    private static ResponseEntity<byte[]> toResponse(Encoded encoded) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(encoded.status())
+                .contentType(MediaType.APPLICATION_JSON);
+        if (encoded.status() == HttpStatus.OK.value()) {
+            // no-cache : le client revalide à chaque fois, un 304 quand rien n'a changé
+            builder.eTag(encoded.etag()).cacheControl(CacheControl.noCache());
+        }
+        return builder.body(encoded.body());
+    }
+}
@@ -2,11 +2,14 @@ package com.enspy.syndicmanager.services;
 
 import com.enspy.syndicmanager.dto.response.ResponseDto;
 import com.enspy.syndicmanager.models.Branch;
+import com.enspy.syndicmanager.models.MediaFile;
 import com.enspy.syndicmanager.models.OrganisationUnion;
 import com.enspy.syndicmanager.models.SyndUser;
 import com.enspy.syndicmanager.repositories.BranchRepository;
 import com.enspy.syndicmanager.repositories.OrganisationUnionRepositories;
 import com.enspy.syndicmanager.repositories.SyndUserRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
 import jakarta.servlet.ServletContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -15,18 +18,31 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
 import java.nio.file.Files;
 import org.springframework.web.multipart.MultipartFile;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
 
 @Service
 public class StorageService {
@@ -43,9 +59,45 @@ public class StorageService {
     @Autowired
     OrganisationUnionRepositories organisationUnionRepository;
 
+    @Autowired
+    MediaStoreService mediaStoreService;
+
+    @Autowired
+    ImageVariantService imageVariantService;
+
     @Value("${syndicmanager.file-storage}")
     private String filepath;
 
+    @Value("${syndicmanager.upload.max-file-size:100MB}")
+    private DataSize maxUploadSize;
+
+    @Value("${syndicmanager.upload.parallelism:4}")
+    private int uploadParallelism;
+
+    // Threads dédiés aux écritures de fichiers, pour ne pas saturer le boundedElastic partagé
+    private final Scheduler ioScheduler = Schedulers.newBoundedElastic(
+            Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "storage-io");
+
+    /**
+     * Fichier enregistré, avec sa taille et l'empreinte SHA-256 de son contenu.
+     */
+    public record StoredFile(String filename, long size, String sha256) {
+    }
+
+    private volatile Path uploadRoot;
+
+    // Répertoires déjà résolus et créés : les uploads suivants évitent la base et le disque
+    private final Map<UUID, Path> branchFolders = new ConcurrentHashMap<>();
+    private final Map<UUID, Path> unionFolders = new ConcurrentHashMap<>();
+    private final Map<UserFolderKey, Path> userFolders = new ConcurrentHashMap<>();
+
+    // Métadonnées des fichiers déjà servis (chemin, type MIME, ETag) par répertoire logique et nom demandé,
+    // invalidées à chaque écriture ou suppression dans le répertoire
+    private final Map<FileKey, FileServingService.ServedFile> fileIndex = new ConcurrentHashMap<>();
+
+    @Value("${syndicmanager.files.metadata-cache-size:10000}")
+    private int metadataCacheSize;
+
     /**
      * Génère un nom aléatoire de la longueur spécifiée.
      * Le nom est composé de chiffres et de lettres (majuscule et minuscule).
@@ -54,18 +106,18 @@ public class StorageService {
      * @return Un Mono contenant une chaîne de caractères représentant le nom généré.
      */
     public Mono<String> nameGenerator(int length) {
+        return Mono.just(generateName(length));
+    }
+
+    private static String generateName(int length) {
         int leftLimit = 48; // numeral '0'
         int rightLimit = 122; // letter 'z'
-        int targetStringLength = length;
-        Random random = new Random();
 
-        String generatedString = random.ints(leftLimit, rightLimit + 1)
+        return ThreadLocalRandom.current().ints(leftLimit, rightLimit + 1)
                 .filter(i -> (i <= 57 || i >= 65) && (i <= 90 || i >= 97))
-                .limit(targetStringLength)
+                .limit(length)
                 .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append)
                 .toString();
-
-        return Mono.just(generatedString);
     }
 
     /**
@@ -75,11 +127,8 @@ public class StorageService {
      * @return Un Mono contenant le chemin du répertoire de stockage.
      */
     public Mono<String> getUploadPath() {
-        String uploadDir = System.getProperty("user.dir") + "/" + filepath;
-        if (!new File(uploadDir).exists()) {
-            new File(uploadDir).mkdir();
-        }
-        return Mono.just(uploadDir);
+        return Mono.fromCallable(() -> uploadRoot().toString())
+                .subscribeOn(Schedulers.boundedElastic());
     }
 
     /**
@@ -89,44 +138,11 @@ public class StorageService {
      * @return Un Mono contenant le repertoire de stockage des média pour une branche donnée
      */
     public Mono<String> getBranchPath(UUID branchId) {
-        Branch branch = branchRepository.findById(branchId)
-                .orElseThrow(() -> new RuntimeException("the Branch not exist"));
-        String mediaFolder = branch.getMediaFolder();
-        String uploadDir = System.getProperty("user.dir") + "/" + filepath;
-        if (!new File(uploadDir).exists()) {
-            new File(uploadDir).mkdir();
-        }
-
-        if(mediaFolder == null || mediaFolder.length() == 0){
-            mediaFolder = nameGenerator(10).block(); // Synchronous call for simplicity
-            branch.setMediaFolder(mediaFolder);
-            branchRepository.save(branch);
-            new File(uploadDir + "/" + mediaFolder).mkdir();
-        } else {
-            new File(uploadDir + "/" + mediaFolder).mkdir();
-        }
-        return Mono.just(uploadDir + "/" + mediaFolder);
+        return resolveCached(branchFolders, branchId, this::resolveBranchFolder);
     }
 
-
-
     public Mono<String> getUnionPath(UUID unionId){
-        OrganisationUnion union = organisationUnionRepository.findById(unionId)
-          .orElseThrow(() -> new RuntimeException("Union not exist"));
-        String mediaFolder = union.getMediaFolder();
-        String uploadDir = System.getProperty("user.dir") + "/" + filepath;
-        if (!new File(uploadDir).exists()) {
-            new File(uploadDir).mkdir();
-        }
-        if(mediaFolder == null || mediaFolder.length() == 0){
-            mediaFolder = nameGenerator(10).block(); // Synchronous call for simplicity
-            union.setMediaFolder(mediaFolder);
-            organisationUnionRepository.save(union);
-            new File(uploadDir + "/" + mediaFolder).mkdir();
-        } else {
-            new File(uploadDir + "/" + mediaFolder).mkdir();
-        }
-        return Mono.just(uploadDir + "/" + mediaFolder);
+        return resolveCached(unionFolders, unionId, this::resolveUnionFolder);
     }
 
     /**
@@ -137,25 +153,109 @@ public class StorageService {
      * @return Un Mono contenant le reperoire de stockage de l'utilisateur
      */
     public Mono<String> getUserPath(UUID userId, UUID branchId) {
-        SyndUser user = syndUserRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("the user not exist"));
+        UserFolderKey key = new UserFolderKey(userId, branchId);
+        Path cached = userFolders.get(key);
+        if (cached != null) {
+            return Mono.just(cached.toString());
+        }
+        return getBranchPath(branchId)
+                .flatMap(branchPath -> resolveCached(userFolders, key,
+                        k -> resolveUserFolder(userId, Path.of(branchPath))));
+    }
 
-        String folder = user.getFolder();
-        String mediaFolder = getBranchPath(branchId).block(); // Synchronous call for simplicity
-        String uploadDir = System.getProperty("user.dir") + "/" + filepath;
-        if (!new File(uploadDir).exists()) {
-            new File(uploadDir).mkdir();
+    /**
+     * Équivalent synchrone de getUserPath, pour les appels déjà sur un thread de requête.
+     */
+    private Path userFolder(UUID userId, UUID branchId) {
+        Path cached = userFolders.get(new UserFolderKey(userId, branchId));
+        if (cached != null) {
+            return cached;
+        }
+        Path branchPath = branchFolders.computeIfAbsent(branchId, this::resolveBranchFolder);
+        return userFolders.computeIfAbsent(new UserFolderKey(userId, branchId),
+                k -> resolveUserFolder(userId, branchPath));
+    }
+
+    /**
+     * Sert le répertoire depuis le cache, sinon le résout (base + système de fichiers)
+     * sur le scheduler d'E/S. computeIfAbsent garantit un seul nom de dossier par clé
+     * même si plusieurs uploads arrivent en même temps.
+     */
+    private <K> Mono<String> resolveCached(Map<K, Path> cache, K key, Function<K, Path> resolver) {
+        Path cached = cache.get(key);
+        if (cached != null) {
+            return Mono.just(cached.toString());
+        }
+        return Mono.fromCallable(() -> cache.computeIfAbsent(key, resolver).toString())
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Path resolveBranchFolder(UUID branchId) {
+        Branch branch = branchRepository.findById(branchId)
+                .orElseThrow(() -> new EntityNotFoundException("the Branch not exist"));
+        String mediaFolder = branch.getMediaFolder();
+        if (mediaFolder == null || mediaFolder.isEmpty()) {
+            mediaFolder = generateName(10);
+            branch.setMediaFolder(mediaFolder);
+            branchRepository.save(branch);
         }
+        return createDirectory(uploadRoot().resolve(mediaFolder));
+    }
 
-        if (folder == null || folder.length() == 0) {
-            folder = nameGenerator(10).block(); // Synchronous call for simplicity
+    private Path resolveUnionFolder(UUID unionId) {
+        OrganisationUnion union = organisationUnionRepository.findById(unionId)
+                .orElseThrow(() -> new EntityNotFoundException("Union not exist"));
+        String mediaFolder = union.getMediaFolder();
+        if (mediaFolder == null || mediaFolder.isEmpty()) {
+            mediaFolder = generateName(10);
+            union.setMediaFolder(mediaFolder);
+            organisationUnionRepository.save(union);
+        }
+        return createDirectory(uploadRoot().resolve(mediaFolder));
+    }
+
+    private Path resolveUserFolder(UUID userId, Path branchPath) {
+        SyndUser user = syndUserRepository.findById(userId)
+                .orElseThrow(() -> new EntityNotFoundException("the user not exist"));
+        String folder = user.getFolder();
+        if (folder == null || folder.isEmpty()) {
+            folder = generateName(10);
             user.setFolder(folder);
             syndUserRepository.save(user);
-            new File(mediaFolder + "/" +  folder).mkdir();
-        } else if (!Files.exists(Path.of(mediaFolder + "/" + folder))) {
-            new File(mediaFolder + "/" + folder).mkdir();
         }
-        return Mono.just(uploadDir + "/" + mediaFolder + "/" + folder);
+        return createDirectory(branchPath.resolve(folder));
+    }
+
+    private Path uploadRoot() {
+        Path root = uploadRoot;
+        if (root == null) {
+            root = createDirectory(Path.of(System.getProperty("user.dir"), filepath));
+            uploadRoot = root;
+        }
+        return root;
+    }
+
+    private static Path createDirectory(Path directory) {
+        try {
+            return Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record UserFolderKey(UUID userId, UUID branchId) {
+    }
+
+    private record FileKey(String scope, String name, ImageVariantService.Variant variant) {
+    }
+
+    // Fichier trouvé, et s'il peut entrer dans l'index (faux tant que la déclinaison demandée n'est pas prête)
+    private record ServedLookup(FileServingService.ServedFile file, boolean cacheable) {
+    }
+
+    @PreDestroy
+    void disposeScheduler() {
+        ioScheduler.dispose();
     }
 
     /**
@@ -166,44 +266,119 @@ public class StorageService {
      * @param branchId    la branche concernée
      *
      */
-    public Mono<Void> save(MultipartFile file, UUID userId, UUID branchId) {
-        try {
-            String userPath = getUserPath(userId, branchId).block(); // Synchronous call for simplicity
-            String filename = file.getOriginalFilename();
-            String storedFile = "";
+    public Mono<StoredFile> save(MultipartFile file, UUID userId, UUID branchId) {
+        return getUserPath(userId, branchId)
+                .flatMap(userPath -> writeMultipart(file, Path.of(userPath, "KYC")));
+    }
 
-            if (!Files.exists(Path.of(userPath + "/KYC"))) {
-                new File(userPath + "/KYC").mkdir();
-            }
-            storedFile = userPath + "/" + "KYC" + "/" + filename;
+    public Mono<StoredFile> saveUnionLogo(MultipartFile  file, UUID unionId){
+        return getUnionPath(unionId)
+                .flatMap(path -> writeMultipart(file, Path.of(path, "asset")));
+    }
 
-            File dest = new File(storedFile);
-            file.transferTo(dest);
-            return Mono.empty();
-        } catch (IOException | IllegalStateException e) {
-            return Mono.error(new RuntimeException(e));
-        }
+    /**
+     * Enregistre un fichier KYC reçu comme corps brut de la requête, sans passer par le multipart.
+     *
+     * @param content       le corps de la requête, lu au fil de l'eau
+     * @param contentLength la taille annoncée (Content-Length), -1 si inconnue
+     */
+    public Mono<ResponseDto<com.enspy.syndicmanager.models.File>> uploadKycStream(
+            InputStream content, long contentLength, String contentType, UUID userId, UUID branchId, String filename) {
+        return getUserPath(userId, branchId)
+                .flatMap(userPath -> writeStream(content, contentLength, Path.of(userPath, "KYC"), filename, contentType))
+                .map(stored -> uploadResponse(stored, contentType))
+                .onErrorResume(ex -> Mono.just(uploadErrorResponse(ex)));
     }
 
+    /**
+     * Enregistre le logo d'une union reçu comme corps brut de la requête.
+     */
+    public Mono<ResponseDto<com.enspy.syndicmanager.models.File>> uploadUnionLogoStream(
+            InputStream content, long contentLength, String contentType, UUID unionId, String filename) {
+        return getUnionPath(unionId)
+                .flatMap(path -> writeStream(content, contentLength, Path.of(path, "asset"), filename, contentType))
+                .map(stored -> uploadResponse(stored, contentType))
+                .onErrorResume(ex -> Mono.just(uploadErrorResponse(ex)));
+    }
 
+    private Mono<StoredFile> writeMultipart(MultipartFile file, Path directory) {
+        return Mono.defer(() -> {
+            try {
+                return writeStream(file.getInputStream(), file.getSize(), directory,
+                        file.getOriginalFilename(), file.getContentType());
+            } catch (IOException e) {
+                return Mono.error(new RuntimeException(e));
+            }
+        });
+    }
 
-    public Mono<Void> saveUnionLogo(MultipartFile  file, UUID unionId){
-        try {
-            String path = getUnionPath(unionId).block(); // Synchronous call for simplicity
-            String filename = file.getOriginalFilename();
-            String storedFile = "";
+    /**
+     * Range le contenu dans le MediaStoreService sous (répertoire, nom) : la copie se fait
+     * en flux avec contrôle de taille, et un contenu déjà stocké n'occupe pas de place en plus.
+     */
+    private Mono<StoredFile> writeStream(InputStream content, long declaredLength, Path directory,
+                                         String filename, String contentType) {
+        return Mono.fromCallable(() -> {
+                    try (InputStream in = content) {
+                        String scope = scopeOf(directory);
+                        MediaFile stored = mediaStoreService.put(scope, safeFileName(filename), in,
+                                declaredLength, maxUploadSize.toBytes(), contentType);
+                        invalidateFileIndex(scope);
+                        return new StoredFile(stored.getFilename(), stored.getSize(), stored.getHash());
+                    }
+                })
+                .subscribeOn(ioScheduler);
+    }
 
-            if (!Files.exists(Path.of(path + "/asset"))) {
-                new File(path + "/asset").mkdir();
-            }
-            storedFile = path + "/" + "asset" + "/" + filename;
+    /**
+     * Répertoire logique d'un fichier : son ancien chemin relatif à la racine des uploads.
+     */
+    private String scopeOf(Path directory) {
+        return uploadRoot().relativize(directory).toString().replace(File.separatorChar, '/');
+    }
 
-            File dest = new File(storedFile);
-            file.transferTo(dest);
-            return Mono.empty();
-        } catch (IOException | IllegalStateException e) {
-            return Mono.error(new RuntimeException(e));
+    /**
+     * Ne garde que le dernier segment du nom reçu pour empêcher d'écrire hors du répertoire cible.
+     */
+    private static String safeFileName(String filename) {
+        if (filename == null || filename.isBlank()) {
+            throw new IllegalArgumentException("File name is required");
         }
+        Path name = Path.of(filename.replace('\\', '/')).getFileName();
+        if (name == null || name.toString().equals(".") || name.toString().equals("..")) {
+            throw new IllegalArgumentException("Invalid file name: " + filename);
+        }
+        return name.toString();
+    }
+
+    private ResponseDto<com.enspy.syndicmanager.models.File> uploadResponse(StoredFile stored, String contentType) {
+        com.enspy.syndicmanager.models.File uploaded = new com.enspy.syndicmanager.models.File();
+        uploaded.setFilename(stored.filename());
+        uploaded.setContent(contentType);
+        uploaded.setSize(stored.size());
+        uploaded.setChecksum(stored.sha256());
+        return ResponseDto.<com.enspy.syndicmanager.models.File>builder()
+                .status(HttpStatus.OK.value())
+                .text("File Uploaded Successfully")
+                .data(uploaded)
+                .build();
+    }
+
+    private ResponseDto<com.enspy.syndicmanager.models.File> uploadErrorResponse(Throwable ex) {
+        HttpStatus status;
+        if (ex instanceof MaxUploadSizeExceededException) {
+            status = HttpStatus.PAYLOAD_TOO_LARGE;
+        } else if (ex instanceof EntityNotFoundException) {
+            status = HttpStatus.NOT_FOUND;
+        } else if (ex instanceof IllegalArgumentException) {
+            status = HttpStatus.BAD_REQUEST;
+        } else {
+            status = HttpStatus.INTERNAL_SERVER_ERROR;
+        }
+        return ResponseDto.<com.enspy.syndicmanager.models.File>builder()
+                .status(status.value())
+                .text(ex.getMessage())
+                .build();
     }
 
     /**
@@ -213,17 +388,19 @@ public class StorageService {
      * @return Un Mono contenant le fichier sous forme de ressource.
      */
     public Mono<Resource> loadFileAsResource(String fileId) {
-        try {
-            Path filePath = getFilePathFromId(fileId);
-            Resource resource = new UrlResource(filePath.toUri());
-            if (resource.exists()) {
-                return Mono.just(resource);
-            } else {
-                return Mono.error(new RuntimeException("File not found: " + fileId));
-            }
-        } catch (MalformedURLException ex) {
-            return Mono.error(new RuntimeException("File not found: " + fileId, ex));
-        }
+        return getFilePathFromId(fileId)
+                .flatMap(filePath -> {
+                    try {
+                        Resource resource = new UrlResource(filePath.toUri());
+                        if (resource.exists()) {
+                            return Mono.just(resource);
+                        } else {
+                            return Mono.error(new RuntimeException("File not found: " + fileId));
+                        }
+                    } catch (MalformedURLException ex) {
+                        return Mono.error(new RuntimeException("File not found: " + fileId, ex));
+                    }
+                });
     }
 
     /**
@@ -252,69 +429,133 @@ public class StorageService {
      * @param fileId L'identifiant unique du fichier.
      * @return Le chemin du fichier.
      */
-    private Path getFilePathFromId(String fileId) {
+    private Mono<Path> getFilePathFromId(String fileId) {
         String[] parts = fileId.split("_");
         String username = parts[0];
         String type = parts[1];
 
         if (type.equals("personId")) {
             String fileName = parts[2];
-            return Paths.get(getUserPath(null, null).block() + "/personId", fileName);
+            return getUserPath(null, null).map(userPath -> Paths.get(userPath + "/personId", fileName));
         } else if (type.equals("phoneNumber")) {
             String phoneNumber = parts[2];
             String fileName = parts[3];
-            return Paths.get(getUserPath(null, null).block() + phoneNumber, fileName);
+            return getUserPath(null, null).map(userPath -> Paths.get(userPath + phoneNumber, fileName));
         }
-        return null;
+        return Mono.error(new RuntimeException("File not found: " + fileId));
     }
 
     public Mono<Void> deleteSingleFile(UUID userId, UUID branchId, String fileName) {
-        String userPath = this.getUserPath(userId, branchId).block(); // Synchronous call for simplicity
+        return this.getUserPath(userId, branchId)
+                .flatMap(userPath -> {
+                    if (userPath.isEmpty()) {
+                        return Mono.error(new IllegalArgumentException("User path is invalid or empty"));
+                    }
+                    return Mono.<Void>fromCallable(() -> {
+                                String scope = scopeOf(Path.of(userPath, "KYC"));
+                                mediaStoreService.remove(scope, safeFileName(fileName));
+                                invalidateFileIndex(scope);
+                                // Fichier écrit avant le stockage dédupliqué
+                                File targetFile = new File(userPath + "/KYC/" + fileName);
+                                if (targetFile.exists() && !targetFile.isDirectory()) {
+                                    if (!targetFile.delete()) {
+                                        throw new RuntimeException("Failed to delete file: " + targetFile.getAbsolutePath());
+                                    }
+                                    System.out.println("File deleted successfully: " + targetFile.getAbsolutePath());
+                                }
+                                return null;
+                            })
+                            .subscribeOn(Schedulers.boundedElastic());
+                });
+    }
 
-        if (userPath == null || userPath.isEmpty()) {
-            return Mono.error(new IllegalArgumentException("User path is invalid or empty"));
+    /**
+     * Enregistre un lot de fichiers KYC. Le répertoire de l'utilisateur est résolu une seule fois,
+     * puis les fichiers sont écrits en parallèle (au plus syndicmanager.upload.parallelism à la fois).
+     * Un fichier en échec n'interrompt pas le lot : son erreur est renvoyée dans son résultat.
+     * Deux fichiers du même nom s'écraseraient : le lot est refusé (400) avant toute écriture.
+     */
+    public Mono<ResponseDto> UploadMultipleFile(UUID userId, UUID branchId, MultipartFile[] files) {
+        Optional<String> duplicate = duplicateFileName(files);
+        if (duplicate.isPresent()) {
+            ResponseDto<Void> response = new ResponseDto<>();
+            response.setText("Duplicate file name: " + duplicate.get());
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return Mono.just(response);
         }
+        return getUserPath(userId, branchId)
+                .map(userPath -> Path.of(userPath, "KYC"))
+                .flatMap(kycDirectory -> Flux.fromArray(files)
+                        .flatMapSequential(file -> writeMultipart(file, kycDirectory)
+                                .map(stored -> uploadedFile(file, stored, null))
+                                .onErrorResume(ex -> Mono.just(uploadedFile(file, null, ex.getMessage()))),
+                                uploadParallelism)
+                        .collectList()
+                        .map(this::batchResponse))
+                .onErrorResume(EntityNotFoundException.class, ex -> {
+                    ResponseDto<Void> response = new ResponseDto<>();
+                    response.setText("Account not found");
+                    response.setStatus(HttpStatus.NOT_FOUND.value());
+                    return Mono.just(response);
+                })
+                .onErrorResume(ex -> {
+                    ResponseDto<Void> response = new ResponseDto<>();
+                    response.setText("Upload failed: " + ex.getMessage());
+                    response.setStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
+                    return Mono.just(response);
+                });
+    }
 
-        File targetFile = new File(userPath + "/KYC/" + fileName);
-
-        if (targetFile.exists() && !targetFile.isDirectory()) {
-            if (targetFile.delete()) {
-                System.out.println("File deleted successfully: " + targetFile.getAbsolutePath());
-                return Mono.empty();
-            } else {
-                return Mono.error(new RuntimeException("Failed to delete file: " + targetFile.getAbsolutePath()));
+    /**
+     * Premier nom porté par deux fichiers du lot, une fois réduit à son dernier segment.
+     * Un nom invalide est laissé à l'écriture, qui le signale dans le résultat du fichier.
+     */
+    private static Optional<String> duplicateFileName(MultipartFile[] files) {
+        Set<String> names = new HashSet<>();
+        for (MultipartFile file : files) {
+            String name;
+            try {
+                name = safeFileName(file.getOriginalFilename());
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            if (!names.add(name)) {
+                return Optional.of(name);
             }
         }
-        return Mono.empty();
+        return Optional.empty();
     }
 
-    public Mono<ResponseDto> UploadMultipleFile(UUID userId, UUID branchId, MultipartFile[] files) {
-        Map<String, Object> map = new HashMap<>();
-        ResponseDto response = new ResponseDto();
-
-        if (files.length > 0) {
-            Arrays.stream(files).forEach((file) -> {
-                this.deleteSingleFile(userId, branchId, file.getOriginalFilename()).block();
-                this.save(file, userId, branchId).block();
-                com.enspy.syndicmanager.models.File uploaded = new com.enspy.syndicmanager.models.File();
-                uploaded.setFilename(file.getOriginalFilename());
-                uploaded.setContent(file.getContentType());
-                uploaded.setSize(file.getSize());
-                map.put(file.getOriginalFilename(), uploaded);
-            });
+    private com.enspy.syndicmanager.models.File uploadedFile(MultipartFile file, StoredFile stored, String error) {
+        com.enspy.syndicmanager.models.File uploaded = new com.enspy.syndicmanager.models.File();
+        uploaded.setFilename(file.getOriginalFilename());
+        uploaded.setContent(file.getContentType());
+        uploaded.setSize(stored != null ? stored.size() : file.getSize());
+        uploaded.setChecksum(stored != null ? stored.sha256() : null);
+        uploaded.setError(error);
+        return uploaded;
+    }
+
+    private ResponseDto batchResponse(List<com.enspy.syndicmanager.models.File> uploaded) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        long failed = 0;
+        for (com.enspy.syndicmanager.models.File file : uploaded) {
+            map.put(file.getFilename(), file);
+            if (file.getError() != null) {
+                failed++;
+            }
         }
-        Optional<SyndUser> user = syndUserRepository.findById(userId);
-        if (user.isEmpty()) {
-            response.setText("Account not found");
-            response.setStatus(404);
-            response.setData(null);
-        } else {
+
+        ResponseDto<Map<String, Object>> response = new ResponseDto<>();
+        if (failed == 0) {
             response.setText("Files Uploaded Successfully");
-            response.setStatus(200);
-            response.setData(map);
+            response.setStatus(HttpStatus.OK.value());
+        } else {
+            response.setText((uploaded.size() - failed) + " of " + uploaded.size() + " files uploaded");
+            response.setStatus(HttpStatus.MULTI_STATUS.value());
         }
-
-        return Mono.just(response);
+        response.setData(map);
+        return response;
     }
 
     public Mono<List<File>> getAllFilesInDirectory(String directoryName) {
@@ -345,42 +586,141 @@ public class StorageService {
     }
 
     public Mono<ResponseEntity<Resource>> getFile(UUID userId, UUID branchId, String fileName) {
-        String userPath = this.getUserPath(userId, branchId).block(); // Synchronous call for simplicity
+        return Mono.fromCallable(() -> findKycFile(userId, branchId, fileName))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(found -> found
+                        .map(file -> ResponseEntity.ok()
+                                .eTag(file.etag())
+                                .lastModified(file.lastModified())
+                                .header(HttpHeaders.CONTENT_TYPE, file.contentType())
+                                .header(HttpHeaders.CONTENT_DISPOSITION, FileServingService.contentDisposition(file.filename()))
+                                .body((Resource) new FileSystemResource(file.path())))
+                        .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(null)));
+    }
+
+    /**
+     * Retrouve un document KYC par son nom, avec ou sans extension d'image.
+     * Le résultat est gardé dans l'index des fichiers : les requêtes suivantes ne touchent
+     * ni la base ni le disque avant l'envoi.
+     *
+     * @param variant déclinaison demandée ; l'original est servi tant qu'elle n'est pas prête
+     * @return vide si l'utilisateur, la branche ou le fichier n'existent pas
+     */
+    public Optional<FileServingService.ServedFile> findKycFile(UUID userId, UUID branchId, String fileName,
+                                                               ImageVariantService.Variant variant) {
+        Path kycDirectory;
+        try {
+            kycDirectory = userFolder(userId, branchId).resolve("KYC");
+        } catch (RuntimeException e) {
+            // Utilisateur ou branche inconnus
+            return Optional.empty();
+        }
+        return findFile(kycDirectory, fileName, variant);
+    }
+
+    public Optional<FileServingService.ServedFile> findKycFile(UUID userId, UUID branchId, String fileName) {
+        return findKycFile(userId, branchId, fileName, ImageVariantService.Variant.ORIGINAL);
+    }
 
-        if (userPath == null || userPath.isEmpty()) {
-            return Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body(null));
+    /**
+     * Retrouve le logo d'une union par son nom, dans la déclinaison demandée.
+     *
+     * @return vide si l'union ou le fichier n'existent pas
+     */
+    public Optional<FileServingService.ServedFile> findUnionLogo(UUID unionId, String fileName,
+                                                                 ImageVariantService.Variant variant) {
+        Path assetDirectory;
+        try {
+            assetDirectory = unionFolders.computeIfAbsent(unionId, this::resolveUnionFolder).resolve("asset");
+        } catch (RuntimeException e) {
+            // Union inconnue
+            return Optional.empty();
         }
+        return findFile(assetDirectory, fileName, variant);
+    }
 
-        File targetFile = new File(userPath + "/KYC/" + fileName);
-        String[] possibleExtensions = { ".png", ".PNG", ".jpg", ".jpeg" };
+    private Optional<FileServingService.ServedFile> findFile(Path directory, String fileName,
+                                                             ImageVariantService.Variant variant) {
+        String scope = scopeOf(directory);
+        FileKey key = new FileKey(scope, fileName, variant);
+        FileServingService.ServedFile cached = fileIndex.get(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
 
-        if (!targetFile.exists() || targetFile.isDirectory()) {
-            for (String ext : possibleExtensions) {
-                File possibleFile = new File(userPath + "/KYC/" + fileName + ext);
-                if (possibleFile.exists() && !possibleFile.isDirectory()) {
-                    targetFile = possibleFile;
-                    break;
+        Optional<ServedLookup> found = lookupFile(directory, scope, fileName, variant);
+        // L'original servi à la place d'une déclinaison pas encore calculée n'est pas retenu
+        found.filter(ServedLookup::cacheable).ifPresent(lookup -> {
+            if (fileIndex.size() >= metadataCacheSize) {
+                fileIndex.clear();
+            }
+            fileIndex.put(key, lookup.file());
+        });
+        return found.map(ServedLookup::file);
+    }
+
+    private void invalidateFileIndex(String scope) {
+        fileIndex.keySet().removeIf(key -> key.scope().equals(scope));
+    }
+
+    private Optional<ServedLookup> lookupFile(Path directory, String scope, String fileName,
+                                              ImageVariantService.Variant variant) {
+        String[] possibleExtensions = { "", ".png", ".PNG", ".jpg", ".jpeg" };
+        List<String> candidates = Arrays.stream(possibleExtensions).map(ext -> fileName + ext).toList();
+
+        // Une seule requête pour le nom exact et les extensions possibles, dans cet ordre de préférence
+        Map<String, MediaFile> stored = new HashMap<>();
+        mediaStoreService.find(scope, candidates).forEach(file -> stored.put(file.getFilename(), file));
+        for (String candidate : candidates) {
+            MediaFile file = stored.get(candidate);
+            Optional<Path> blob = file != null ? mediaStoreService.resolve(file) : Optional.empty();
+            if (blob.isPresent()) {
+                Instant lastModified = file.getUpdatedAt() != null
+                        ? file.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant()
+                        : Instant.EPOCH;
+                Optional<ImageVariantService.VariantFile> resized =
+                        imageVariantService.find(file.getHash(), file.getContentType(), variant);
+                if (resized.isPresent()) {
+                    return Optional.of(new ServedLookup(new FileServingService.ServedFile(
+                            resized.get().path(),
+                            file.getFilename(),
+                            resized.get().contentType(),
+                            resized.get().size(),
+                            lastModified,
+                            resized.get().etag()), true));
                 }
+                return Optional.of(new ServedLookup(new FileServingService.ServedFile(
+                        blob.get(),
+                        file.getFilename(),
+                        file.getContentType() != null ? file.getContentType() : MediaType.APPLICATION_OCTET_STREAM_VALUE,
+                        file.getSize(),
+                        lastModified,
+                        "\"" + file.getHash() + "\""),
+                        imageVariantService.isFinal(file.getHash(), file.getContentType(), variant)));
             }
         }
 
-        if (targetFile.exists() && !targetFile.isDirectory()) {
-            try {
-                String mimeType = Files.probeContentType(targetFile.toPath());
-                Resource fileResource = new FileSystemResource(targetFile);
-
-                ResponseEntity<Resource> responseEntity = ResponseEntity.ok()
-                        .header(HttpHeaders.CONTENT_TYPE, mimeType)
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + targetFile.getName() + "\"")
-                        .body(fileResource);
-
-                return Mono.just(responseEntity);
-            } catch (Exception e) {
-                e.printStackTrace();
-                return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null));
+        // Fichiers écrits directement dans le répertoire avant le stockage dédupliqué
+        for (String candidate : candidates) {
+            Path legacy = directory.resolve(candidate);
+            if (Files.isRegularFile(legacy)) {
+                try {
+                    long size = Files.size(legacy);
+                    Instant lastModified = Files.getLastModifiedTime(legacy).toInstant();
+                    String mimeType = Files.probeContentType(legacy);
+                    // Pas de déclinaison pour ces fichiers : l'original est servi quelle que soit la taille demandée
+                    return Optional.of(new ServedLookup(new FileServingService.ServedFile(
+                            legacy,
+                            candidate,
+                            mimeType != null ? mimeType : MediaType.APPLICATION_OCTET_STREAM_VALUE,
+                            size,
+                            lastModified,
+                            "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified.toEpochMilli()) + "\""), true));
+                } catch (IOException e) {
+                    return Optional.empty();
+                }
             }
-        } else {
-            return Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body(null));
         }
+        return Optional.empty();
     }
-}
\ No newline at end of file
+}
@@ -14,6 +14,7 @@ import com.enspy.syndicmanager.repositories.SyndUserRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -30,20 +31,23 @@ public class UnionService {
     TokenContextUtils tokenContextUtils;
     SyndUserRepository syndUserRepository;
     StorageService storageService;
+    TransactionTemplate transactionTemplate;
+    ResponseCacheService responseCacheService;
 
     public Mono<ResponseDto> createUnion(UnionDto organisationDto) {
        
-        Mono<SyndUser> creatorMono = TokenContextUtils.getCurrentUserId()
-                .map(UUID::fromString)
-                .flatMap(id ->
-                        Mono.justOrEmpty(syndUserRepository.findById(id))
-                                .switchIfEmpty(Mono.error(new EntityNotFoundException("User not found")))
-                );
+        Mono<UUID> creatorIdMono = TokenContextUtils.getCurrentUserId()
+                .map(UUID::fromString);
 
 
-        return creatorMono
-                .flatMap(creator ->
-                        Mono.fromCallable(() -> {
+        return creatorIdMono
+                .flatMap(creatorId ->
+                        Mono.fromCallable(() -> transactionTemplate.execute(status -> {
+                                    // Le créateur est chargé dans la transaction d'écriture :
+                                    // addMember modifie sa collection de branches (lazy)
+                                    SyndUser creator = syndUserRepository.findById(creatorId)
+                                            .orElseThrow(() -> new EntityNotFoundException("User not found"));
+
                                     // Création de l'union
                                     OrganisationUnion union = new OrganisationUnion();
                                     union.setLongName(organisationDto.getLongName());
@@ -65,11 +69,11 @@ public class UnionService {
                                         union.addBranch(branch);
                                     }
 
-                                    // Sauvegarde synchrone encapsulée
                                     return organisationUnionRepositories.save(union);
-                                })
+                                }))
                                 .subscribeOn(Schedulers.boundedElastic())
                 )
+                .doOnNext(savedUnion -> responseCacheService.bump(ResponseCacheService.Region.UNIONS))
                 .map(savedUnion -> {
                     ResponseDto response = new ResponseDto();
                     response.setStatus(200);
@@ -126,8 +130,9 @@ public class UnionService {
         if(union.isEmpty()){
            return createEmptyResponse();
         } else {
-            this.storageService.saveUnionLogo(file, unionId);
-            return createSuccessReponse(null);
+            return this.storageService.saveUnionLogo(file, unionId)
+                    .then(createSuccessReponse(null))
+                    .onErrorResume(this::createErrorResponse);
         }
     }
 
@@ -136,14 +141,14 @@ public class UnionService {
 
 
     private Mono<ResponseDto> createEmptyResponse() {
-        ResponseDto response = new ResponseDto();
+        ResponseDto<List<Object>> response = new ResponseDto<>();
         response.setData(Collections.emptyList());
         response.setStatus(204);
         return Mono.just(response);
     }
 
     private Mono<ResponseDto> createSuccessReponse(Object data) {
-        ResponseDto response = new ResponseDto();
+        ResponseDto<Object> response = new ResponseDto<>();
         response.setData(data);
         response.setStatus(200);
         return Mono.just(response);
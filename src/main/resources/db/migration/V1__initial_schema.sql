@@ -0,0 +1,165 @@
+-- Schéma initial, aligné sur les entités JPA (validé au démarrage par ddl-auto=validate)
+
+create table users (
+    id uuid not null,
+    first_name varchar(255),
+    last_name varchar(255),
+    username varchar(255) unique,
+    email varchar(255) unique,
+    phone_number varchar(255),
+    password varchar(255),
+    session_id varchar(255),
+    active boolean not null,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    deleted_at timestamp(6),
+    created_by varchar(255),
+    updated_by varchar(255),
+    primary key (id)
+);
+
+create table synd_user (
+    id uuid not null,
+    username varchar(255) not null unique,
+    email varchar(255) not null unique,
+    password varchar(255) not null,
+    first_name varchar(255),
+    last_name varchar(255),
+    phone_number varchar(255),
+    folder varchar(255),
+    primary key (id)
+);
+
+create table organisation_union (
+    id uuid not null,
+    union_type varchar(31) not null,
+    long_name varchar(255) not null,
+    short_name varchar(50) not null,
+    email varchar(255) not null,
+    description varchar,
+    media_folder varchar(255),
+    logo_url varchar(255),
+    legal_form varchar(255),
+    "web-site_url" varchar(255),
+    social_network varchar(255),
+    business_registration_number varchar(255),
+    tax_number varchar(255),
+    capital_share numeric(19,2),
+    registration_date timestamp(6) not null,
+    ceo_name varchar(255),
+    year_founded timestamp(6),
+    number_of_employees integer,
+    primary key (id)
+);
+
+create table organisation_union_business_domains (
+    organisation_union_id uuid not null,
+    business_domains varchar(255)
+);
+
+create table organisation_union_keywords (
+    organisation_union_id uuid not null,
+    keyword varchar(255)
+);
+
+create table branch (
+    id uuid not null,
+    name varchar(255) not null,
+    longitude float(53) not null,
+    latitude float(53) not null,
+    media_folder varchar(255),
+    organisation_id uuid not null,
+    primary key (id)
+);
+
+create table branch_members (
+    user_id uuid not null,
+    branch_id uuid not null
+);
+
+create table publications (
+    id uuid not null,
+    content varchar(2000) not null,
+    image_hash varchar(64),
+    image_content_type varchar(100),
+    author_name varchar(255) not null,
+    author_avatar varchar(255),
+    author_id uuid,
+    created_at timestamp(6) not null,
+    updated_at timestamp(6),
+    likes_count integer,
+    comments_count integer,
+    primary key (id)
+);
+
+create table comments (
+    id uuid not null,
+    content varchar(1000) not null,
+    publication_id uuid not null,
+    user_id uuid not null,
+    created_at timestamp(6),
+    parent_id uuid,
+    target_id uuid,
+    primary key (id)
+);
+
+create table reactions (
+    id uuid not null,
+    publication_id uuid not null,
+    user_id uuid not null,
+    reaction_type varchar(255) not null check (reaction_type in ('LIKE','LOVE','LAUGH','WOW','SAD','ANGRY')),
+    created_at timestamp(6),
+    target_id uuid,
+    primary key (id),
+    constraint uk_reactions_publication_user_type unique (publication_id, user_id, reaction_type)
+);
+
+create table publication_reaction_counts (
+    publication_id uuid not null,
+    reaction_type varchar(255) not null check (reaction_type in ('LIKE','LOVE','LAUGH','WOW','SAD','ANGRY')),
+    reaction_count bigint not null,
+    primary key (publication_id, reaction_type)
+);
+
+create table events (
+    id uuid not null,
+    title varchar(255) not null,
+    description varchar(2000) not null,
+    location varchar(255) not null,
+    start_date timestamp(6) not null,
+    end_date timestamp(6) not null,
+    author_name varchar(255) not null,
+    author_avatar varchar(255),
+    author_id uuid,
+    category varchar(255) not null,
+    is_public boolean not null,
+    notify_members boolean not null,
+    is_upcoming boolean,
+    created_at timestamp(6) not null,
+    updated_at timestamp(6),
+    primary key (id)
+);
+
+create table event_images (
+    event_id uuid not null,
+    image_url varchar
+);
+
+create table event_participants (
+    event_id uuid not null,
+    user_id uuid not null
+);
+
+alter table branch add constraint fk_branch_organisation foreign key (organisation_id) references organisation_union;
+alter table branch_members add constraint fk_branch_members_branch foreign key (branch_id) references branch;
+alter table branch_members add constraint fk_branch_members_user foreign key (user_id) references synd_user;
+alter table organisation_union_business_domains add constraint fk_business_domains_union foreign key (organisation_union_id) references organisation_union;
+alter table organisation_union_keywords add constraint fk_keywords_union foreign key (organisation_union_id) references organisation_union;
+alter table publications add constraint fk_publications_author foreign key (author_id) references users;
+alter table comments add constraint fk_comments_target foreign key (target_id) references publications;
+alter table comments add constraint fk_comments_parent foreign key (parent_id) references comments;
+alter table reactions add constraint fk_reactions_target foreign key (target_id) references publications;
+alter table events add constraint fk_events_author foreign key (author_id) references users;
+alter table event_images add constraint fk_event_images_event foreign key (event_id) references events;
+alter table event_participants add constraint fk_event_participants_event foreign key (event_id) references events;
+alter table event_participants add constraint fk_event_participants_user foreign key (user_id) references users;
@@ -0,0 +1,23 @@
+-- Index utilisés par les requêtes des services
+
+-- Fil d'actualité paginé par curseur (PublicationRepository.findFeed*)
+create index idx_publications_created_at_id on publications (created_at, id);
+
+-- Fils de commentaires et "charger plus" (CommentRepository.findThreads*, findReplies*, findFirstRepliesByParentIds)
+create index idx_comments_publication_parent_created on comments (publication_id, parent_id, created_at, id);
+create index idx_comments_parent_created on comments (parent_id, created_at, id);
+
+-- Les recherches de réactions par (publication, utilisateur) utilisent uk_reactions_publication_user_type (V1)
+
+-- Événements à venir / passés (EventRepository.findByStartDate*)
+create index idx_events_start_date on events (start_date);
+
+-- Chargement par lots des collections (hibernate.default_batch_fetch_size) et clés étrangères
+create index idx_event_images_event on event_images (event_id);
+create index idx_event_participants_event on event_participants (event_id);
+create index idx_event_participants_user on event_participants (user_id);
+create index idx_branch_organisation on branch (organisation_id);
+create index idx_branch_members_user on branch_members (user_id);
+create index idx_branch_members_branch on branch_members (branch_id);
+create index idx_business_domains_union on organisation_union_business_domains (organisation_union_id);
+create index idx_keywords_union on organisation_union_keywords (organisation_union_id);
@@ -0,0 +1,27 @@
+-- Stockage dédupliqué des médias (MediaStoreService)
+
+create table media_blobs (
+    hash varchar(64) not null,
+    size bigint not null,
+    content_type varchar(255),
+    ref_count bigint not null,
+    created_at timestamp(6),
+    released_at timestamp(6),
+    primary key (hash)
+);
+
+create index idx_media_blobs_released on media_blobs (ref_count, released_at);
+
+create table media_files (
+    id uuid not null,
+    scope varchar(255) not null,
+    filename varchar(255) not null,
+    hash varchar(64) not null,
+    content_type varchar(255),
+    size bigint not null,
+    updated_at timestamp(6),
+    primary key (id),
+    constraint uk_media_files_scope_filename unique (scope, filename)
+);
+
+create index idx_media_files_hash on media_files (hash);
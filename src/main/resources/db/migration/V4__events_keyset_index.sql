@@ -0,0 +1,4 @@
+-- Listes d'événements paginées par curseur (EventRepository.findSummaries*) :
+-- (start_date, id) remplace l'index sur start_date seul, qui en est un préfixe
+drop index idx_events_start_date;
+create index idx_events_start_date_id on events (start_date, id);
@@ -0,0 +1,11 @@
+-- Participants écrits ligne à ligne (EventParticipant) avec compteur et limite de places sur l'événement
+
+alter table events add column participants_count integer;
+alter table events add column capacity integer;
+alter table event_participants add column joined_at timestamp(6);
+
+update events set participants_count =
+    (select count(*) from event_participants p where p.event_id = events.id);
+
+-- Une inscription par utilisateur et par événement
+alter table event_participants add constraint uk_event_participants_event_user unique (event_id, user_id);
@@ -0,0 +1,3 @@
+-- Rappel réservé en base avant sa publication : une seule instance le publie, une seule fois par date de début
+
+alter table events add column reminder_sent_at timestamp(6);
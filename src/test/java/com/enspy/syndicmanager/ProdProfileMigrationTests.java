@@ -0,0 +1,177 @@
+package com.enspy.syndicmanager;
+
+import com.enspy.syndicmanager.dto.request.CommentRequest;
+import com.enspy.syndicmanager.dto.request.EventRequest;
+import com.enspy.syndicmanager.dto.request.PublicationRequest;
+import com.enspy.syndicmanager.dto.request.ReactionRequest;
+import com.enspy.syndicmanager.dto.response.CommentThreadDto;
+import com.enspy.syndicmanager.dto.response.CursorPage;
+import com.enspy.syndicmanager.dto.response.EventSummaryDto;
+import com.enspy.syndicmanager.dto.response.ParticipantsUpdateDto;
+import com.enspy.syndicmanager.dto.response.ReactionSummaryDto;
+import com.enspy.syndicmanager.dto.response.ResponseDto;
+import com.enspy.syndicmanager.models.Publication;
+import com.enspy.syndicmanager.models.Reaction;
+import com.enspy.syndicmanager.models.User;
+import com.enspy.syndicmanager.repositories.UserRepository;
+import com.enspy.syndicmanager.services.CommentService;
+import com.enspy.syndicmanager.services.EventService;
+import com.enspy.syndicmanager.services.PublicationService;
+import com.enspy.syndicmanager.services.ReactionService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Profil prod sur une base H2 embarquée en mode PostgreSQL : les migrations Flyway
+ * doivent s'appliquer et correspondre aux entités (ddl-auto=validate fait échouer le contexte sinon).
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:syndicmanager;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"syndicmanager.reactions.write-mode=SYNC",
+		"syndicmanager.notifications.enabled=false"
+})
+@ActiveProfiles("prod")
+class ProdProfileMigrationTests {
+
+	@Autowired
+	private Flyway flyway;
+
+	@Autowired
+	private PublicationService publicationService;
+
+	@Autowired
+	private CommentService commentService;
+
+	@Autowired
+	private ReactionService reactionService;
+
+	@Autowired
+	private EventService eventService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void migrationsAreApplied() {
+		assertThat(flyway.info().applied()).isNotEmpty();
+		assertThat(flyway.info().pending()).isEmpty();
+	}
+
+	@Test
+	void queriesRunOnMigratedSchema() {
+		User user = userRepository.save(User.builder()
+				.username("membre")
+				.email("membre@syndic.test")
+				.active(true)
+				.build());
+
+		Publication publication = publicationService.createPublication(PublicationRequest.builder()
+				.content("Assemblée générale")
+				.authorName("Bureau")
+				.build()).getData();
+
+		ResponseDto<CursorPage<Publication>> feed = publicationService.getAllPublications(null, 10);
+		assertThat(feed.getData().getItems()).extracting(Publication::getId).contains(publication.getId());
+
+		UUID parentId = commentService.createComment(
+				new CommentRequest("Présent", publication.getId(), user.getId(), null)).getData().getId();
+		commentService.createComment(new CommentRequest("Moi aussi", publication.getId(), user.getId(), parentId));
+
+		ResponseDto<CursorPage<CommentThreadDto>> threads =
+				commentService.getCommentsByPublicationId(publication.getId(), null, 10, 3);
+		assertThat(threads.getData().getItems()).hasSize(1);
+		assertThat(threads.getData().getItems().get(0).getReplies()).hasSize(1);
+
+		reactionService.createReaction(new ReactionRequest(publication.getId(), user.getId(), Reaction.ReactionType.LIKE));
+		ReactionSummaryDto summary = reactionService.getReactionSummary(publication.getId(), user.getId()).getData();
+		assertThat(summary.getTotal()).isEqualTo(1);
+		assertThat(summary.getUserReactions()).containsExactly(Reaction.ReactionType.LIKE);
+	}
+
+	@Test
+	void eventWindowIsPagedByCursor() {
+		User user = userRepository.save(User.builder()
+				.username("participant")
+				.email("participant@syndic.test")
+				.active(true)
+				.build());
+
+		LocalDateTime start = LocalDateTime.now().plusDays(10).withNano(0);
+		List<UUID> ids = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			ids.add(eventService.createEvent(EventRequest.builder()
+					.title("Réunion " + i)
+					.description("Ordre du jour")
+					.location("Siège")
+					.startDate(start.plusHours(i))
+					.endDate(start.plusHours(i + 1))
+					.authorName("Bureau")
+					.category("AG")
+					.capacity(1)
+					.images(List.of("https://example.test/" + i + ".png"))
+					.build()).getData().getId());
+		}
+		assertThat(eventService.addParticipant(ids.get(0), user.getId()).getData().getParticipantsCount()).isEqualTo(1);
+		assertThat(eventService.addParticipant(ids.get(0), user.getId()).getData().getChanged()).isZero();
+
+		CursorPage<EventSummaryDto> first = eventService.getAllEvents(start, start.plusDays(1), null, 2).getData();
+		assertThat(first.getItems()).extracting(EventSummaryDto::getId).containsExactly(ids.get(2), ids.get(1));
+		assertThat(first.isHasMore()).isTrue();
+
+		CursorPage<EventSummaryDto> second = eventService.getAllEvents(start, start.plusDays(1), first.getNextCursor(), 2).getData();
+		assertThat(second.getItems()).extracting(EventSummaryDto::getId).containsExactly(ids.get(0));
+		assertThat(second.getItems().get(0).getParticipantsCount()).isEqualTo(1);
+		assertThat(second.isHasMore()).isFalse();
+
+		CursorPage<EventSummaryDto> upcoming = eventService.getUpcomingEvents(null, 10).getData();
+		assertThat(upcoming.getItems()).extracting(EventSummaryDto::getId).containsSubsequence(ids);
+	}
+
+	@Test
+	void participantsRespectEventCapacity() {
+		List<UUID> userIds = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			userIds.add(userRepository.save(User.builder()
+					.username("invite" + i)
+					.email("invite" + i + "@syndic.test")
+					.active(true)
+					.build()).getId());
+		}
+		LocalDateTime start = LocalDateTime.now().plusDays(20);
+		UUID eventId = eventService.createEvent(EventRequest.builder()
+				.title("Assemblée")
+				.description("Vote du budget")
+				.location("Salle des fêtes")
+				.startDate(start)
+				.endDate(start.plusHours(2))
+				.authorName("Bureau")
+				.category("AG")
+				.capacity(2)
+				.build()).getData().getId();
+
+		ResponseDto<ParticipantsUpdateDto> tooMany = eventService.addParticipants(eventId, userIds);
+		assertThat(tooMany.getStatus()).isEqualTo(409);
+
+		ParticipantsUpdateDto added = eventService.addParticipants(eventId, userIds.subList(0, 2)).getData();
+		assertThat(added.getChanged()).isEqualTo(2);
+		assertThat(added.getParticipantsCount()).isEqualTo(2);
+		assertThat(eventService.addParticipant(eventId, userIds.get(2)).getStatus()).isEqualTo(409);
+
+		ParticipantsUpdateDto removed = eventService.removeParticipants(eventId, userIds).getData();
+		assertThat(removed.getChanged()).isEqualTo(2);
+		assertThat(removed.getParticipantsCount()).isZero();
+	}
+}
@@ -0,0 +1,107 @@
+package com.enspy.syndicmanager.benchmark;
+
+import com.enspy.syndicmanager.config.WebClientConfig;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Charge une gateway locale (reactor-netty) avec le client HTTP de WebClientConfig :
+ * - avant : une connexion neuve par requête (ConnectionProvider.newConnection())
+ * - après : pool keep-alive gatewayConnectionProvider
+ * Le débit de chaque variante est journalisé ; on vérifie que le pool réutilise ses connexions.
+ */
+@SpringBootTest(properties = "syndicmanager.gateway.pool.max-connections=" + GatewayConnectionPoolLoadTests.CONCURRENCY)
+class GatewayConnectionPoolLoadTests {
+
+    private static final Logger log = LoggerFactory.getLogger(GatewayConnectionPoolLoadTests.class);
+
+    static final int CONCURRENCY = 32;
+    private static final int REQUESTS = 2000;
+
+    private static final AtomicInteger openedConnections = new AtomicInteger();
+    private static DisposableServer stubGateway;
+
+    @Autowired
+    private WebClientConfig webClientConfig;
+
+    @Autowired
+    private ConnectionProvider gatewayConnectionProvider;
+
+    @BeforeAll
+    static void startStubGateway() {
+        stubGateway = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .doOnChannelInit((observer, channel, address) -> openedConnections.incrementAndGet())
+                .route(routes -> routes.get("/auth-service/api/ping", (request, response) ->
+                        response.sendString(Mono.just("{\"status\":\"UP\"}").delayElement(Duration.ofMillis(2)))))
+                .bindNow();
+    }
+
+    @AfterAll
+    static void stopStubGateway() {
+        stubGateway.disposeNow();
+    }
+
+    @Test
+    void pooledClientReusesConnections() {
+        ConnectionProvider newConnection = ConnectionProvider.newConnection();
+        double before = run("newConnection", newConnection);
+        int connectionsBefore = openedConnections.getAndSet(0);
+
+        double after = run("pool", gatewayConnectionProvider);
+        int connectionsAfter = openedConnections.getAndSet(0);
+
+        log.info("Gateway stub : {} requêtes, concurrence {}", REQUESTS, CONCURRENCY);
+        log.info("newConnection : {} req/s, {} connexions", Math.round(before), connectionsBefore);
+        log.info("pool          : {} req/s, {} connexions", Math.round(after), connectionsAfter);
+
+        assertThat(connectionsBefore).isEqualTo(REQUESTS);
+        assertThat(connectionsAfter).isLessThanOrEqualTo(CONCURRENCY);
+    }
+
+    private double run(String name, ConnectionProvider connectionProvider) {
+        WebClient client = WebClient.builder()
+                .baseUrl("http://127.0.0.1:" + stubGateway.port())
+                .clientConnector(new ReactorClientHttpConnector(webClientConfig.gatewayHttpClient(connectionProvider)))
+                .build();
+
+        // Échauffement (JIT, résolution, première connexion)
+        send(client, CONCURRENCY * 4);
+        openedConnections.set(0);
+
+        long start = System.nanoTime();
+        long ok = send(client, REQUESTS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        assertThat(ok).as(name).isEqualTo(REQUESTS);
+        return REQUESTS / seconds;
+    }
+
+    private long send(WebClient client, int requests) {
+        return Flux.range(0, requests)
+                .flatMap(i -> client.get()
+                        .uri("/auth-service/api/ping")
+                        .retrieve()
+                        .bodyToMono(String.class), CONCURRENCY)
+                .count()
+                .block(Duration.ofMinutes(2));
+    }
+}
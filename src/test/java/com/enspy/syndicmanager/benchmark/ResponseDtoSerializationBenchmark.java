@@ -0,0 +1,90 @@
+package com.enspy.syndicmanager.benchmark;
+
+import com.enspy.syndicmanager.dto.response.ResponseDto;
+import com.enspy.syndicmanager.models.Publication;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare le rendu d'une liste de 500 publications :
+ * - doubleSerialization : ancien chemin, data encodé en chaîne par le service puis ré-encodé par Spring
+ * - singlePass : ResponseDto typé, sérialisé une seule fois
+ *
+ * Lancement : exécuter main() depuis l'IDE, ou
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.enspy.syndicmanager.benchmark.ResponseDtoSerializationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseDtoSerializationBenchmark {
+
+    @Param("500")
+    int size;
+
+    private ObjectMapper objectMapper;
+    private List<Publication> publications;
+
+    @Setup
+    public void setUp() {
+        // Même configuration que l'ObjectMapper auto-configuré par Spring Boot (JavaTimeModule, dates ISO)
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        LocalDateTime now = LocalDateTime.now();
+        publications = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            publications.add(Publication.builder()
+                    .id(UUID.randomUUID())
+                    .content("Assemblée générale du syndicat, point n°" + i + " : \"ordre du jour\" et votes.")
+                    .authorName("Membre " + i)
+                    .authorAvatar("https://example.com/avatars/" + i + ".png")
+                    .imageHash(i % 3 == 0 ? String.format("%064x", i) : null)
+                    .createdAt(now.minusMinutes(i))
+                    .likesCount(i % 17)
+                    .commentsCount(i % 5)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public byte[] doubleSerialization() throws JsonProcessingException {
+        String dataJson = objectMapper.writeValueAsString(publications);
+        ResponseDto<String> response = ResponseDto.<String>builder()
+                .status(200)
+                .text("Publications retrieved successfully")
+                .data(dataJson)
+                .build();
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] singlePass() throws JsonProcessingException {
+        ResponseDto<List<Publication>> response = ResponseDto.<List<Publication>>builder()
+                .status(200)
+                .text("Publications retrieved successfully")
+                .data(publications)
+                .build();
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ResponseDtoSerializationBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,143 @@
+package com.enspy.syndicmanager.cache;
+
+import com.enspy.syndicmanager.dto.feed.FeedDelta;
+import com.enspy.syndicmanager.dto.request.CommentRequest;
+import com.enspy.syndicmanager.dto.request.EventRequest;
+import com.enspy.syndicmanager.dto.request.PublicationRequest;
+import com.enspy.syndicmanager.models.Publication;
+import com.enspy.syndicmanager.models.User;
+import com.enspy.syndicmanager.repositories.UserRepository;
+import com.enspy.syndicmanager.services.CommentService;
+import com.enspy.syndicmanager.services.EventService;
+import com.enspy.syndicmanager.services.PublicationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cache des publications et événements lus par identifiant (EntityCacheService) :
+ * un changement validé n'invalide que l'entrée concernée, un changement annulé n'invalide rien.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:entitycache;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"syndicmanager.notifications.enabled=false"
+})
+@ActiveProfiles("prod")
+class EntityCacheInvalidationTests {
+
+	@Autowired
+	private PublicationService publicationService;
+
+	@Autowired
+	private CommentService commentService;
+
+	@Autowired
+	private EventService eventService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ApplicationEventPublisher applicationEventPublisher;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void commentInvalidatesOnlyItsPublication() {
+		UUID commented = newPublication();
+		UUID untouched = newPublication();
+		publicationService.getPublicationById(commented);
+		publicationService.getPublicationById(untouched);
+
+		User user = newUser();
+		commentService.createComment(new CommentRequest("D'accord", commented, user.getId(), null));
+
+		double misses = gets("publications", "miss");
+		Publication reloaded = publicationService.getPublicationById(commented).getData();
+		assertThat(reloaded.getCommentsCount()).isEqualTo(1);
+		assertThat(gets("publications", "miss")).isEqualTo(misses + 1);
+
+		double hits = gets("publications", "hit");
+		publicationService.getPublicationById(untouched);
+		assertThat(gets("publications", "hit")).isEqualTo(hits + 1);
+	}
+
+	@Test
+	void registrationInvalidatesOnlyItsEvent() {
+		UUID joined = newEvent();
+		UUID untouched = newEvent();
+		eventService.getEventById(joined);
+		eventService.getEventById(untouched);
+
+		eventService.addParticipant(joined, newUser().getId());
+
+		assertThat(eventService.getEventById(joined).getData().getParticipantsCount()).isEqualTo(1);
+		double hits = gets("events", "hit");
+		eventService.getEventById(untouched);
+		assertThat(gets("events", "hit")).isEqualTo(hits + 1);
+	}
+
+	@Test
+	void rolledBackChangeKeepsTheEntry() {
+		UUID id = newPublication();
+		publicationService.getPublicationById(id);
+
+		transactionTemplate.executeWithoutResult(status -> {
+			applicationEventPublisher.publishEvent(FeedDelta.publicationDeleted(id));
+			status.setRollbackOnly();
+		});
+
+		double hits = gets("publications", "hit");
+		publicationService.getPublicationById(id);
+		assertThat(gets("publications", "hit")).isEqualTo(hits + 1);
+	}
+
+	private double gets(String cache, String result) {
+		return meterRegistry.get("cache.gets").tag("cache", cache).tag("result", result).functionCounter().count();
+	}
+
+	private UUID newPublication() {
+		return publicationService.createPublication(PublicationRequest.builder()
+				.content("Assemblée générale")
+				.authorName("Bureau")
+				.build()).getData().getId();
+	}
+
+	private UUID newEvent() {
+		LocalDateTime start = LocalDateTime.now().plusDays(10);
+		return eventService.createEvent(EventRequest.builder()
+				.title("Assemblée")
+				.description("Vote du budget")
+				.location("Salle des fêtes")
+				.startDate(start)
+				.endDate(start.plusHours(2))
+				.authorName("Bureau")
+				.category("AG")
+				.build()).getData().getId();
+	}
+
+	private User newUser() {
+		String name = "membre-" + UUID.randomUUID();
+		return userRepository.save(User.builder()
+				.username(name)
+				.email(name + "@syndic.test")
+				.active(true)
+				.build());
+	}
+}
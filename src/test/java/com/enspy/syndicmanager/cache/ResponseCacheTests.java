@@ -0,0 +1,143 @@
+package com.enspy.syndicmanager.cache;
+
+import com.enspy.syndicmanager.dto.request.EventRequest;
+import com.enspy.syndicmanager.dto.request.KeysetCursor;
+import com.enspy.syndicmanager.dto.request.PublicationRequest;
+import com.enspy.syndicmanager.services.EventService;
+import com.enspy.syndicmanager.services.PublicationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Réponses de liste gardées encodées (ResponseCacheService) : ETag et 304,
+ * nouvelle version après une écriture validée, une seule entrée par page quelle que soit la taille demandée
+ * au-delà du maximum, et aucune entrée pour un curseur mal formé.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:responsecache;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"syndicmanager.notifications.enabled=false"
+})
+@ActiveProfiles("prod")
+@AutoConfigureMockMvc
+class ResponseCacheTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private PublicationService publicationService;
+
+	@Autowired
+	private EventService eventService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void feedIsRevalidatedUntilAPublicationChangesIt() throws Exception {
+		newPublication("Première annonce");
+		String etag = mockMvc.perform(get("/publications"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader("ETag");
+		assertThat(etag).isNotNull();
+
+		mockMvc.perform(get("/publications").header("If-None-Match", etag))
+				.andExpect(status().isNotModified());
+
+		newPublication("Deuxième annonce");
+		mockMvc.perform(get("/publications").header("If-None-Match", etag))
+				.andExpect(status().isOk())
+				.andExpect(header().string("ETag", not(etag)))
+				.andExpect(jsonPath("$.data.items[0].content").value("Deuxième annonce"));
+	}
+
+	@Test
+	void upcomingEventsAreRevalidatedAfterAnEventIsCreated() throws Exception {
+		String etag = mockMvc.perform(get("/events/upcoming"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader("ETag");
+
+		newEvent();
+
+		mockMvc.perform(get("/events/upcoming").header("If-None-Match", etag))
+				.andExpect(status().isOk())
+				.andExpect(header().string("ETag", not(etag)));
+	}
+
+	@Test
+	void sizesAboveTheMaximumShareOneEntry() throws Exception {
+		newPublication("Annonce");
+		mockMvc.perform(get("/publications").param("size", String.valueOf(PublicationService.MAX_PAGE_SIZE)))
+				.andExpect(status().isOk());
+
+		double hits = gets("hit");
+		double misses = gets("miss");
+		mockMvc.perform(get("/publications").param("size", "1000000"))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/publications").param("size", "999"))
+				.andExpect(status().isOk());
+
+		assertThat(gets("hit")).isEqualTo(hits + 2);
+		assertThat(gets("miss")).isEqualTo(misses);
+	}
+
+	@Test
+	void malformedCursorIsNeverCached() throws Exception {
+		double lookups = gets("hit") + gets("miss");
+
+		mockMvc.perform(get("/publications").param("cursor", "pas-un-curseur"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/events/upcoming").param("cursor", "pas-un-curseur"))
+				.andExpect(status().isBadRequest());
+
+		assertThat(gets("hit") + gets("miss")).isEqualTo(lookups);
+
+		// Un curseur valide passe bien par le cache
+		String cursor = new KeysetCursor(LocalDateTime.now(), UUID.randomUUID()).encode();
+		mockMvc.perform(get("/publications").param("cursor", cursor))
+				.andExpect(status().isOk());
+		assertThat(gets("hit") + gets("miss")).isEqualTo(lookups + 1);
+	}
+
+	private double gets(String result) {
+		return meterRegistry.get("cache.gets").tag("cache", "responses").tag("result", result).functionCounter().count();
+	}
+
+	private void newPublication(String content) {
+		publicationService.createPublication(PublicationRequest.builder()
+				.content(content)
+				.authorName("Bureau")
+				.build());
+	}
+
+	private void newEvent() {
+		LocalDateTime start = LocalDateTime.now().plusDays(10);
+		eventService.createEvent(EventRequest.builder()
+				.title("Assemblée")
+				.description("Vote du budget")
+				.location("Salle des fêtes")
+				.startDate(start)
+				.endDate(start.plusHours(2))
+				.authorName("Bureau")
+				.category("AG")
+				.build());
+	}
+}
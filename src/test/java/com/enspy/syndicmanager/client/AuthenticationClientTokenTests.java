@@ -0,0 +1,126 @@
+package com.enspy.syndicmanager.client;
+
+import com.enspy.syndicmanager.client.dto.response.LoginResponse;
+import com.enspy.syndicmanager.client.services.Authentication;
+import com.enspy.syndicmanager.dto.request.LoginDto;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Token client_credentials d'Authentication contre un IdP et une gateway locaux (reactor-netty) :
+ * une seule demande de token pour des logins simultanés, et le token n'est oublié
+ * que lorsque la gateway le déclare invalide.
+ * Les tests partagent le token en cache : chacun raisonne sur l'écart du compteur de demandes.
+ */
+@SpringBootTest
+class AuthenticationClientTokenTests {
+
+	private static final AtomicInteger tokenRequests = new AtomicInteger();
+	// Token que la gateway accepte, null tant qu'aucun n'a été délivré
+	private static final AtomicReference<String> validToken = new AtomicReference<>();
+	private static DisposableServer stubGateway;
+
+	@Autowired
+	private Authentication authentication;
+
+	@DynamicPropertySource
+	static void stubGateway(DynamicPropertyRegistry registry) {
+		stubGateway = HttpServer.create()
+				.host("127.0.0.1")
+				.port(0)
+				.route(routes -> routes
+						.post("/auth-service/oauth/token", (request, response) -> {
+							String token = "client-v" + tokenRequests.incrementAndGet();
+							validToken.set(token);
+							return response.header("Content-Type", "application/json")
+									.sendString(Mono.just("{\"access_token\":\"" + token + "\",\"token_type\":\"bearer\",\"expires_in\":3600}")
+											.delayElement(Duration.ofMillis(200)));
+						})
+						.post("/auth-service/api/login", (request, response) -> {
+							String authorization = request.requestHeaders().get("Authorization");
+							if (!("Bearer " + validToken.get()).equals(authorization)) {
+								return response.status(401)
+										.header("WWW-Authenticate", "Bearer error=\"invalid_token\"")
+										.send();
+							}
+							return request.receive().aggregate().asString().flatMap(body -> {
+								if (body.contains("\"password\":\"wrong\"")) {
+									return response.status(401).send().then();
+								}
+								return response.header("Content-Type", "application/json")
+										.sendString(Mono.just("{\"access_token\":{\"token\":\"user-token\",\"type\":\"bearer\"}}"))
+										.then();
+							});
+						}))
+				.bindNow();
+		String baseUrl = "http://127.0.0.1:" + stubGateway.port();
+		registry.add("syndicmanager.gateway.base-url", () -> baseUrl);
+		registry.add("syndicmanager.auth.token-endpoint", () -> baseUrl + "/auth-service/oauth/token");
+	}
+
+	@AfterAll
+	static void stopStubGateway() {
+		stubGateway.disposeNow();
+	}
+
+	@Test
+	void concurrentLoginsShareOneTokenRequest() {
+		int before = tokenRequests.get();
+		List<LoginResponse> responses = Flux.range(0, 20)
+				.flatMap(i -> authentication.login(credentials("membre" + i, "secret")))
+				.collectList()
+				.block(Duration.ofSeconds(10));
+
+		assertThat(responses).hasSize(20)
+				.allSatisfy(response -> assertThat(response.getAccessToken().getToken()).isEqualTo("user-token"));
+		assertThat(tokenRequests.get() - before).isLessThanOrEqualTo(1);
+	}
+
+	@Test
+	void wrongUserCredentialsKeepTheClientToken() {
+		authentication.login(credentials("membre", "secret")).block(Duration.ofSeconds(10));
+		int before = tokenRequests.get();
+
+		assertThatThrownBy(() -> authentication.login(credentials("membre", "wrong")).block(Duration.ofSeconds(10)))
+				.isInstanceOf(WebClientResponseException.Unauthorized.class);
+		authentication.login(credentials("membre", "secret")).block(Duration.ofSeconds(10));
+
+		assertThat(tokenRequests.get()).isEqualTo(before);
+	}
+
+	@Test
+	void rejectedClientTokenIsRequestedAgain() {
+		authentication.login(credentials("membre", "secret")).block(Duration.ofSeconds(10));
+		int before = tokenRequests.get();
+		// L'IdP révoque le token en cache
+		validToken.set("revoked");
+
+		assertThatThrownBy(() -> authentication.login(credentials("membre", "secret")).block(Duration.ofSeconds(10)))
+				.isInstanceOf(WebClientResponseException.Unauthorized.class);
+		LoginResponse response = authentication.login(credentials("membre", "secret")).block(Duration.ofSeconds(10));
+
+		assertThat(response.getAccessToken().getToken()).isEqualTo("user-token");
+		assertThat(tokenRequests.get()).isEqualTo(before + 1);
+	}
+
+	private static LoginDto credentials(String username, String password) {
+		return LoginDto.builder().username(username).password(password).build();
+	}
+}
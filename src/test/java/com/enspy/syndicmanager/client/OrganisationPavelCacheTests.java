@@ -0,0 +1,149 @@
+package com.enspy.syndicmanager.client;
+
+import com.enspy.syndicmanager.client.dto.response.AgencyDto;
+import com.enspy.syndicmanager.client.services.OrganisationPavel;
+import com.enspy.syndicmanager.dto.response.ResponseDto;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Cache des appels à l'organization-service (OrganisationPavel), contre une gateway locale (reactor-netty)
+ * qui compte les requêtes reçues par organisation et garde les en-têtes Authorization reçus.
+ */
+@SpringBootTest(properties = {
+		"syndicmanager.gateway.cache.fresh-ms=500",
+		"syndicmanager.gateway.cache.stale-ms=60000",
+		"syndicmanager.gateway.cache.not-found-ms=60000"
+})
+@AutoConfigureMockMvc
+class OrganisationPavelCacheTests {
+
+	private static final Duration GATEWAY_DELAY = Duration.ofMillis(300);
+
+	private static final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+	private static final Queue<String> authorizations = new ConcurrentLinkedQueue<>();
+	private static DisposableServer stubGateway;
+
+	@Autowired
+	private OrganisationPavel organisationPavel;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@DynamicPropertySource
+	static void stubGateway(DynamicPropertyRegistry registry) {
+		stubGateway = HttpServer.create()
+				.host("127.0.0.1")
+				.port(0)
+				.route(routes -> routes.get("/organization-service/organizations/{id}/agencies", (request, response) -> {
+					String id = request.param("id");
+					int count = requests.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+					if (id.equals("scoped")) {
+						authorizations.add(String.valueOf(request.requestHeaders().get("Authorization")));
+					}
+					return switch (id) {
+						case "missing" -> response.status(404).send();
+						case "rejected" -> response.status(400).send();
+						default -> response.header("Content-Type", "application/json")
+								.sendString(Mono.just("[{\"agency_id\":\"" + id + "-v" + count + "\",\"name\":\"Antenne\"}]")
+										.delayElement(GATEWAY_DELAY));
+					};
+				}))
+				.bindNow();
+		registry.add("syndicmanager.gateway.base-url", () -> "http://127.0.0.1:" + stubGateway.port());
+	}
+
+	@AfterAll
+	static void stopStubGateway() {
+		stubGateway.disposeNow();
+	}
+
+	@Test
+	void concurrentLookupsShareOneGatewayRequest() {
+		List<ResponseDto> responses = Flux.range(0, 20)
+				.flatMap(i -> organisationPavel.getAgencies("concurrent"))
+				.collectList()
+				.block(Duration.ofSeconds(10));
+
+		assertThat(responses).hasSize(20).allSatisfy(response -> assertThat(agencyId(response)).isEqualTo("concurrent-v1"));
+		assertThat(requests.get("concurrent")).hasValue(1);
+	}
+
+	@Test
+	void staleAgenciesAreServedWhileRevalidated() throws Exception {
+		assertThat(agencyId(organisationPavel.getAgencies("stale").block())).isEqualTo("stale-v1");
+		Thread.sleep(600);
+
+		long start = System.nanoTime();
+		assertThat(agencyId(organisationPavel.getAgencies("stale").block())).isEqualTo("stale-v1");
+		// Servie sans attendre la gateway
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(GATEWAY_DELAY);
+
+		Thread.sleep(GATEWAY_DELAY.toMillis() + 300);
+		assertThat(agencyId(organisationPavel.getAgencies("stale").block())).isEqualTo("stale-v2");
+		assertThat(requests.get("stale")).hasValue(2);
+	}
+
+	@Test
+	void notFoundIsCachedButOtherErrorsAreNot() {
+		assertThat(organisationPavel.getAgencies("missing").block().getStatus()).isEqualTo(404);
+		assertThat(organisationPavel.getAgencies("missing").block().getStatus()).isEqualTo(404);
+		assertThat(requests.get("missing")).hasValue(1);
+
+		assertThat(organisationPavel.getAgencies("rejected").block().getStatus()).isEqualTo(400);
+		assertThat(organisationPavel.getAgencies("rejected").block().getStatus()).isEqualTo(400);
+		assertThat(requests.get("rejected")).hasValue(2);
+	}
+
+	@Test
+	void responsesAreKeptPerCallerToken() throws Exception {
+		agenciesAs("token-a").andExpect(jsonPath("$.data[0].agency_id").value("scoped-v1"));
+		agenciesAs("token-a").andExpect(jsonPath("$.data[0].agency_id").value("scoped-v1"));
+		assertThat(requests.get("scoped")).hasValue(1);
+
+		// Un autre token n'obtient pas la réponse accordée au premier : la gateway est interrogée avec le sien
+		agenciesAs("token-b").andExpect(jsonPath("$.data[0].agency_id").value("scoped-v2"));
+		assertThat(requests.get("scoped")).hasValue(2);
+		assertThat(authorizations).containsExactly("Bearer token-a", "Bearer token-b");
+	}
+
+	private ResultActions agenciesAs(String token) throws Exception {
+		MvcResult started = mockMvc.perform(get("/organisations/{id}/agencies", "scoped")
+						.header("Authorization", "Bearer " + token))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		return mockMvc.perform(asyncDispatch(started));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static String agencyId(ResponseDto response) {
+		assertThat(response.getStatus()).isEqualTo(200);
+		return ((List<AgencyDto>) response.getData()).get(0).getAgency_id();
+	}
+}
@@ -0,0 +1,110 @@
+package com.enspy.syndicmanager.config;
+
+import com.enspy.syndicmanager.dto.request.EventRequest;
+import com.enspy.syndicmanager.dto.request.PublicationRequest;
+import com.enspy.syndicmanager.models.User;
+import com.enspy.syndicmanager.repositories.UserRepository;
+import com.enspy.syndicmanager.services.EventService;
+import com.enspy.syndicmanager.services.PublicationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Routage SQLite (SqliteDataSourceConfig) : les transactions readOnly lisent sur le pool query_only,
+ * les autres écrivent sur l'unique connexion d'écriture.
+ * Avec open-in-view désactivé, les entités renvoyées par les contrôleurs doivent être sérialisables
+ * une fois la transaction fermée.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:sqlite:target/routing-tests.db",
+		"syndicmanager.notifications.enabled=false"
+})
+@AutoConfigureMockMvc
+class SqliteDataSourceRoutingTests {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private PublicationService publicationService;
+
+	@Autowired
+	private EventService eventService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void readOnlyTransactionsUseTheReadPool() {
+		TransactionTemplate read = new TransactionTemplate(transactionManager);
+		read.setReadOnly(true);
+		TransactionTemplate write = new TransactionTemplate(transactionManager);
+
+		Integer readQueryOnly = read.execute(status -> jdbcTemplate.queryForObject("PRAGMA query_only", Integer.class));
+		Integer writeQueryOnly = write.execute(status -> jdbcTemplate.queryForObject("PRAGMA query_only", Integer.class));
+		assertThat(readQueryOnly).isEqualTo(1);
+		assertThat(writeQueryOnly).isZero();
+		assertThat(jdbcTemplate.queryForObject("PRAGMA journal_mode", String.class)).isEqualToIgnoringCase("wal");
+
+		assertThatThrownBy(() -> read.executeWithoutResult(status ->
+				jdbcTemplate.update("create table if not exists routing_probe (id integer)")))
+				.hasMessageContaining("readonly");
+	}
+
+	@Test
+	void entitiesAreSerializedWithoutOpenSessionInView() throws Exception {
+		User user = userRepository.save(User.builder()
+				.username("routage-" + UUID.randomUUID())
+				.email(UUID.randomUUID() + "@syndic.test")
+				.active(true)
+				.build());
+		UUID publicationId = publicationService.createPublication(PublicationRequest.builder()
+				.content("Assemblée générale")
+				.authorName("Bureau")
+				.authorId(user.getId())
+				.build()).getData().getId();
+		LocalDateTime start = LocalDateTime.now().plusDays(3);
+		UUID eventId = eventService.createEvent(EventRequest.builder()
+				.title("Réunion")
+				.description("Ordre du jour")
+				.location("Siège")
+				.startDate(start)
+				.endDate(start.plusHours(2))
+				.authorName("Bureau")
+				.authorId(user.getId())
+				.category("AG")
+				.images(List.of("affiche.png"))
+				.build()).getData().getId();
+		eventService.addParticipant(eventId, user.getId());
+
+		mockMvc.perform(get("/publications/{id}", publicationId))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.author.username").value(user.getUsername()));
+		mockMvc.perform(get("/events/{id}", eventId))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.images[0]").value("affiche.png"))
+				.andExpect(jsonPath("$.data.participants[0].username").value(user.getUsername()));
+	}
+}
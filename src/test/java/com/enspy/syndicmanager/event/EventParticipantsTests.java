@@ -0,0 +1,147 @@
+package com.enspy.syndicmanager.event;
+
+import com.enspy.syndicmanager.dto.request.EventRequest;
+import com.enspy.syndicmanager.dto.response.ParticipantsUpdateDto;
+import com.enspy.syndicmanager.dto.response.ResponseDto;
+import com.enspy.syndicmanager.models.Event;
+import com.enspy.syndicmanager.models.User;
+import com.enspy.syndicmanager.repositories.UserRepository;
+import com.enspy.syndicmanager.services.EventService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Inscriptions aux événements sur le profil prod (H2 en mode PostgreSQL, transactions concurrentes) :
+ * capacité, inscriptions simultanées du même utilisateur et mise à jour de la capacité.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:participants;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"syndicmanager.notifications.enabled=false"
+})
+@ActiveProfiles("prod")
+class EventParticipantsTests {
+
+	private static final int SIGN_UPS = 8;
+
+	@Autowired
+	private EventService eventService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void concurrentSignUpsOfTheSameUserCountOnce() throws Exception {
+		UUID eventId = newEvent(null);
+		UUID userId = newUser();
+
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(SIGN_UPS);
+		List<Future<ResponseDto<ParticipantsUpdateDto>>> responses = new ArrayList<>();
+		try {
+			for (int i = 0; i < SIGN_UPS; i++) {
+				responses.add(executor.submit(() -> {
+					start.await();
+					return eventService.addParticipant(eventId, userId);
+				}));
+			}
+			start.countDown();
+
+			int changed = 0;
+			for (Future<ResponseDto<ParticipantsUpdateDto>> response : responses) {
+				assertThat(response.get().getStatus()).isEqualTo(200);
+				changed += response.get().getData().getChanged();
+			}
+			assertThat(changed).isEqualTo(1);
+		} finally {
+			executor.shutdownNow();
+		}
+		assertThat(event(eventId).getParticipantsCount()).isEqualTo(1);
+	}
+
+	@Test
+	void seatsAreReservedAllOrNothing() {
+		UUID eventId = newEvent(2);
+		List<UUID> userIds = List.of(newUser(), newUser(), newUser());
+
+		assertThat(eventService.addParticipants(eventId, userIds).getStatus()).isEqualTo(409);
+		assertThat(event(eventId).getParticipantsCount()).isZero();
+
+		assertThat(eventService.addParticipants(eventId, userIds.subList(0, 2)).getData().getChanged()).isEqualTo(2);
+		assertThat(eventService.addParticipant(eventId, userIds.get(2)).getStatus()).isEqualTo(409);
+		// Réinscrire un participant ne consomme pas de place
+		assertThat(eventService.addParticipant(eventId, userIds.get(0)).getData().getChanged()).isZero();
+	}
+
+	@Test
+	void missingParticipantsAreRejected() {
+		UUID eventId = newEvent(null);
+
+		assertThat(eventService.addParticipants(eventId, null).getStatus()).isEqualTo(400);
+		assertThat(eventService.removeParticipants(eventId, null).getStatus()).isEqualTo(400);
+		assertThat(eventService.addParticipants(eventId, List.of()).getStatus()).isEqualTo(400);
+	}
+
+	@Test
+	void capacityIsKeptUnlessExplicitlyCleared() {
+		UUID eventId = newEvent(10);
+
+		eventService.updateEvent(eventId, request(null));
+		assertThat(event(eventId).getCapacity()).isEqualTo(10);
+
+		EventRequest clear = request(null);
+		clear.setClearCapacity(true);
+		eventService.updateEvent(eventId, clear);
+		assertThat(event(eventId).getCapacity()).isNull();
+
+		EventRequest conflicting = request(5);
+		conflicting.setClearCapacity(true);
+		assertThat(eventService.updateEvent(eventId, conflicting).getStatus()).isEqualTo(400);
+	}
+
+	private Event event(UUID eventId) {
+		return eventService.getEventById(eventId).getData();
+	}
+
+	private UUID newEvent(Integer capacity) {
+		return eventService.createEvent(request(capacity)).getData().getId();
+	}
+
+	private static EventRequest request(Integer capacity) {
+		LocalDateTime start = LocalDateTime.now().plusDays(10);
+		return EventRequest.builder()
+				.title("Assemblée")
+				.description("Vote du budget")
+				.location("Salle des fêtes")
+				.startDate(start)
+				.endDate(start.plusHours(2))
+				.authorName("Bureau")
+				.category("AG")
+				.capacity(capacity)
+				.build();
+	}
+
+	private UUID newUser() {
+		String name = "membre-" + UUID.randomUUID();
+		return userRepository.save(User.builder()
+				.username(name)
+				.email(name + "@syndic.test")
+				.active(true)
+				.build()).getId();
+	}
+}
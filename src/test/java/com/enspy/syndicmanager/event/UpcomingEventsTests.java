@@ -0,0 +1,119 @@
+package com.enspy.syndicmanager.event;
+
+import com.enspy.syndicmanager.dto.request.EventRequest;
+import com.enspy.syndicmanager.models.Event;
+import com.enspy.syndicmanager.repositories.EventRepository;
+import com.enspy.syndicmanager.services.EventService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Événements à venir (EventService.refreshUpcomingFlags et /events/upcoming/count) : un événement qui commence
+ * perd son indicateur isUpcoming, sort du compte et de la liste gardée en cache.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:upcomingevents;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		// Seul le passage du démarrage est planifié, le test déclenche les suivants
+		"syndicmanager.events.status-refresh-ms=3600000",
+		"syndicmanager.notifications.enabled=false"
+})
+@ActiveProfiles("prod")
+@AutoConfigureMockMvc
+class UpcomingEventsTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EventService eventService;
+
+	@Autowired
+	private EventRepository eventRepository;
+
+	@Test
+	void startedEventLeavesTheUpcomingFlagCountAndCachedList() throws Exception {
+		// Indicateur resté vrai pendant un arrêt de l'application : rattrapé par le premier passage
+		UUID stale = newEvent(LocalDateTime.now().minusDays(1));
+		Event staleEvent = eventRepository.findById(stale).orElseThrow();
+		staleEvent.setIsUpcoming(true);
+		eventRepository.save(staleEvent);
+
+		LocalDateTime soon = LocalDateTime.now().plusSeconds(2);
+		UUID starting = newEvent(soon);
+		UUID later = newEvent(LocalDateTime.now().plusDays(10));
+
+		ReflectionTestUtils.setField((Object) AopTestUtils.getUltimateTargetObject(eventService), "lastStatusRefresh", null);
+		eventService.refreshUpcomingFlags();
+		assertThat(upcoming(stale)).isFalse();
+		assertThat(upcoming(starting)).isTrue();
+
+		String etag = mockMvc.perform(get("/events/upcoming"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.items[*].id", hasItem(starting.toString())))
+				.andReturn().getResponse().getHeader("ETag");
+		long count = count();
+
+		while (!LocalDateTime.now().isAfter(soon)) {
+			Thread.sleep(50);
+		}
+		assertThat(count()).isEqualTo(count - 1);
+		// Tant que le passage n'a pas eu lieu, la liste en cache est encore servie
+		mockMvc.perform(get("/events/upcoming").header("If-None-Match", etag))
+				.andExpect(status().isNotModified());
+
+		// Passage incrémental : seuls les événements commencés depuis le précédent sont basculés
+		eventService.refreshUpcomingFlags();
+		assertThat(upcoming(starting)).isFalse();
+		assertThat(upcoming(later)).isTrue();
+
+		mockMvc.perform(get("/events/upcoming").header("If-None-Match", etag))
+				.andExpect(status().isOk())
+				.andExpect(header().string("ETag", not(etag)))
+				.andExpect(jsonPath("$.data.items[*].id", not(hasItem(starting.toString()))))
+				.andExpect(jsonPath("$.data.items[*].id", hasItem(later.toString())));
+	}
+
+	private long count() throws Exception {
+		String body = mockMvc.perform(get("/events/upcoming/count"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return JsonPath.<Number>read(body, "$.data").longValue();
+	}
+
+	private Boolean upcoming(UUID eventId) {
+		return eventRepository.findById(eventId).orElseThrow().getIsUpcoming();
+	}
+
+	private UUID newEvent(LocalDateTime start) {
+		return eventService.createEvent(EventRequest.builder()
+				.title("Assemblée")
+				.description("Vote du budget")
+				.location("Salle des fêtes")
+				.startDate(start)
+				.endDate(start.plusHours(2))
+				.authorName("Bureau")
+				.category("AG")
+				.build()).getData().getId();
+	}
+}
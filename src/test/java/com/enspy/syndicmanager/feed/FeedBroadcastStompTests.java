@@ -0,0 +1,203 @@
+package com.enspy.syndicmanager.feed;
+
+import com.enspy.syndicmanager.dto.feed.FeedDelta;
+import com.enspy.syndicmanager.dto.feed.FeedUpdate;
+import com.enspy.syndicmanager.dto.request.PublicationRequest;
+import com.enspy.syndicmanager.dto.request.ReactionRequest;
+import com.enspy.syndicmanager.models.Publication;
+import com.enspy.syndicmanager.models.Reaction;
+import com.enspy.syndicmanager.models.User;
+import com.enspy.syndicmanager.repositories.UserRepository;
+import com.enspy.syndicmanager.services.FeedBroadcastService;
+import com.enspy.syndicmanager.services.PublicationService;
+import com.enspy.syndicmanager.services.ReactionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Diffusion STOMP du fil (FeedBroadcastService, WebSocketConfig) avec un vrai client sur /ws.
+ * Le passage planifié est espacé d'une heure : les tests déclenchent eux-mêmes chaque envoi.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:feed;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"syndicmanager.feed.tick-ms=3600000",
+		"syndicmanager.notifications.enabled=false"
+})
+@ActiveProfiles("prod")
+class FeedBroadcastStompTests {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private FeedBroadcastService feedBroadcastService;
+
+	@Autowired
+	private PublicationService publicationService;
+
+	@Autowired
+	private ReactionService reactionService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private WebSocketStompClient stompClient;
+
+	@BeforeEach
+	void createClient() {
+		MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+		converter.setObjectMapper(objectMapper);
+		stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+		stompClient.setMessageConverter(converter);
+	}
+
+	@AfterEach
+	void stopClient() {
+		stompClient.stop();
+	}
+
+	@Test
+	void reactionsOfATickAreSentAsOneCountPerPublication() throws Exception {
+		Publication publication = newPublication();
+		StompSession session = connect(new StompSessionHandlerAdapter() { });
+		BlockingQueue<FeedUpdate> updates = subscribe(session, FeedBroadcastService.publicationTopic(publication.getId()));
+		FeedUpdate last = awaitSubscribed(updates, publication);
+
+		react(publication, "aimer1", Reaction.ReactionType.LIKE);
+		react(publication, "aimer2", Reaction.ReactionType.LIKE);
+		react(publication, "adorer", Reaction.ReactionType.LOVE);
+		feedBroadcastService.broadcastTick();
+
+		FeedUpdate update = updates.poll(5, TimeUnit.SECONDS);
+		assertThat(update).isNotNull();
+		assertThat(update.getPreviousTick()).isEqualTo(last.getTick());
+		assertThat(update.isResync()).isFalse();
+		assertThat(update.getDeltas()).singleElement().satisfies(delta -> {
+			assertThat(delta.getType()).isEqualTo(FeedDelta.Type.REACTIONS_CHANGED);
+			assertThat(delta.getTotal()).isEqualTo(3);
+			assertThat(delta.getCounts()).isEqualTo(Map.of(Reaction.ReactionType.LIKE, 2L, Reaction.ReactionType.LOVE, 1L));
+		});
+		// Un seul message pour tout l'intervalle
+		assertThat(updates.poll(300, TimeUnit.MILLISECONDS)).isNull();
+	}
+
+	@Test
+	void clientsCannotSendToFeedTopics() throws Exception {
+		BlockingQueue<String> errors = new LinkedBlockingQueue<>();
+		StompSession session = connect(errorRecorder(errors));
+
+		session.send("/topic/feed", FeedUpdate.builder().tick(1).resync(true).build());
+
+		assertThat(errors.poll(5, TimeUnit.SECONDS)).contains("read-only");
+	}
+
+	@Test
+	void onlyFeedTopicsCanBeSubscribed() throws Exception {
+		BlockingQueue<String> errors = new LinkedBlockingQueue<>();
+		StompSession session = connect(errorRecorder(errors));
+
+		subscribe(session, "/topic/autre");
+
+		assertThat(errors.poll(5, TimeUnit.SECONDS)).contains("/topic/autre");
+	}
+
+	private StompSession connect(StompSessionHandlerAdapter handler) throws Exception {
+		return stompClient.connectAsync("ws://localhost:" + port + "/synd/ws", handler).get(5, TimeUnit.SECONDS);
+	}
+
+	private static BlockingQueue<FeedUpdate> subscribe(StompSession session, String topic) {
+		BlockingQueue<FeedUpdate> updates = new LinkedBlockingQueue<>();
+		session.subscribe(topic, new StompFrameHandler() {
+			@Override
+			public Type getPayloadType(StompHeaders headers) {
+				return FeedUpdate.class;
+			}
+
+			@Override
+			public void handleFrame(StompHeaders headers, Object payload) {
+				updates.add((FeedUpdate) payload);
+			}
+		});
+		return updates;
+	}
+
+	/**
+	 * Le broker enregistre l'abonnement de façon asynchrone et ne l'acquitte pas :
+	 * un changement est diffusé à chaque essai jusqu'à ce que le client le reçoive.
+	 */
+	private FeedUpdate awaitSubscribed(BlockingQueue<FeedUpdate> updates, Publication publication) throws InterruptedException {
+		for (int attempt = 0; attempt < 50; attempt++) {
+			feedBroadcastService.onFeedDelta(FeedDelta.publicationUpdated(publication));
+			feedBroadcastService.broadcastTick();
+			FeedUpdate update = updates.poll(100, TimeUnit.MILLISECONDS);
+			if (update != null) {
+				FeedUpdate next;
+				while ((next = updates.poll(100, TimeUnit.MILLISECONDS)) != null) {
+					update = next;
+				}
+				return update;
+			}
+		}
+		throw new AssertionError("Abonnement jamais actif");
+	}
+
+	private static StompSessionHandlerAdapter errorRecorder(BlockingQueue<String> errors) {
+		return new StompSessionHandlerAdapter() {
+			@Override
+			public Type getPayloadType(StompHeaders headers) {
+				return byte[].class;
+			}
+
+			// Trame ERROR du serveur
+			@Override
+			public void handleFrame(StompHeaders headers, Object payload) {
+				errors.add(String.valueOf(headers.getFirst("message")));
+			}
+		};
+	}
+
+	private void react(Publication publication, String username, Reaction.ReactionType type) {
+		User user = userRepository.save(User.builder()
+				.username(username + "-" + UUID.randomUUID())
+				.email(UUID.randomUUID() + "@syndic.test")
+				.active(true)
+				.build());
+		assertThat(reactionService.createReaction(new ReactionRequest(publication.getId(), user.getId(), type))
+				.getStatus()).isEqualTo(201);
+	}
+
+	private Publication newPublication() {
+		return publicationService.createPublication(PublicationRequest.builder()
+				.content("Assemblée générale")
+				.authorName("Bureau")
+				.build()).getData();
+	}
+}
@@ -0,0 +1,165 @@
+package com.enspy.syndicmanager.feed;
+
+import com.enspy.syndicmanager.dto.feed.FeedDelta;
+import com.enspy.syndicmanager.services.FeedStreamService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Flux SSE du fil (FeedStreamService) sur un vrai port : reprise avec Last-Event-ID
+ * et déconnexion d'un client qui ne lit plus, sans retarder les autres flux.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:feedstream;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"syndicmanager.feed.sse.max-pending-bytes=65536",
+		"syndicmanager.notifications.enabled=false"
+})
+@ActiveProfiles("prod")
+class FeedStreamSseTests {
+
+	private final HttpClient httpClient = HttpClient.newBuilder()
+			.executor(Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable);
+				thread.setDaemon(true);
+				return thread;
+			}))
+			.build();
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private FeedStreamService feedStreamService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void reconnectingClientOnlyReceivesWhatItMissed() throws Exception {
+		BlockingQueue<String> first = stream(null);
+		List<UUID> publications = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+		publications.forEach(id -> feedStreamService.onFeedDelta(FeedDelta.publicationDeleted(id)));
+
+		String firstId = nextId(first);
+		nextId(first);
+		nextId(first);
+
+		BlockingQueue<String> resumed = stream(firstId);
+		assertThat(nextData(resumed)).contains(publications.get(1).toString());
+		assertThat(nextData(resumed)).contains(publications.get(2).toString());
+	}
+
+	@Test
+	void unknownLastEventIdAsksForAResync() throws Exception {
+		BlockingQueue<String> resumed = stream("autre-demarrage-12");
+
+		assertThat(nextLine(resumed, "event:")).isEqualTo("event:" + FeedStreamService.RESYNC_EVENT);
+	}
+
+	@Test
+	void clientThatStopsReadingIsDisconnectedWhileOthersKeepReceiving() throws Exception {
+		double overflowed = meterRegistry.counter("syndicmanager.feed.sse.overflow").count();
+		DoubleSupplier connections = () -> meterRegistry.get("syndicmanager.feed.sse.connections").gauge().value();
+		BlockingQueue<String> healthy = stream(null);
+		double before = connections.getAsDouble();
+
+		try (Socket slow = new Socket()) {
+			// Petit tampon de réception et aucune lecture : l'écriture côté serveur finit par bloquer
+			slow.setReceiveBufferSize(1024);
+			slow.connect(new InetSocketAddress("localhost", port));
+			OutputStream out = slow.getOutputStream();
+			out.write(("GET /synd/publications/stream HTTP/1.1\r\nHost: localhost\r\nAccept: text/event-stream\r\n\r\n")
+					.getBytes(StandardCharsets.US_ASCII));
+			out.flush();
+			awaitValue(connections, before + 1);
+
+			// Chaque changement arrive au client qui lit pendant que l'écriture vers l'autre bloque puis déborde
+			String title = "x".repeat(1500);
+			long deadline = System.currentTimeMillis() + 20_000;
+			while (meterRegistry.counter("syndicmanager.feed.sse.overflow").count() < overflowed + 1
+					&& System.currentTimeMillis() < deadline) {
+				UUID eventId = UUID.randomUUID();
+				feedStreamService.onFeedDelta(FeedDelta.builder()
+						.type(FeedDelta.Type.EVENT_UPDATED)
+						.eventId(eventId)
+						.title(title)
+						.build());
+				assertThat(nextData(healthy)).contains(eventId.toString());
+			}
+
+			assertThat(meterRegistry.counter("syndicmanager.feed.sse.overflow").count()).isEqualTo(overflowed + 1);
+			assertThat(connections.getAsDouble()).isEqualTo(before);
+
+			UUID deleted = UUID.randomUUID();
+			feedStreamService.onFeedDelta(FeedDelta.publicationDeleted(deleted));
+			assertThat(nextData(healthy)).contains(deleted.toString());
+		}
+	}
+
+	private BlockingQueue<String> stream(String lastEventId) {
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/synd/publications/stream"))
+				.header("Accept", "text/event-stream");
+		if (lastEventId != null) {
+			request.header("Last-Event-ID", lastEventId);
+		}
+		DoubleSupplier connections = () -> meterRegistry.get("syndicmanager.feed.sse.connections").gauge().value();
+		double before = connections.getAsDouble();
+
+		BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+		httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofLines())
+				.thenAccept(response -> response.body().forEach(lines::add));
+		awaitValue(connections, before + 1);
+		return lines;
+	}
+
+	private static String nextId(BlockingQueue<String> lines) throws InterruptedException {
+		return nextLine(lines, "id:").substring("id:".length());
+	}
+
+	private static String nextData(BlockingQueue<String> lines) throws InterruptedException {
+		return nextLine(lines, "data:");
+	}
+
+	private static String nextLine(BlockingQueue<String> lines, String prefix) throws InterruptedException {
+		String line;
+		while ((line = lines.poll(5, TimeUnit.SECONDS)) != null) {
+			if (line.startsWith(prefix)) {
+				return line;
+			}
+		}
+		throw new AssertionError("Aucune ligne " + prefix + " reçue");
+	}
+
+	private static void awaitValue(DoubleSupplier gauge, double expected) {
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (gauge.getAsDouble() != expected && System.currentTimeMillis() < deadline) {
+			Thread.onSpinWait();
+		}
+		assertThat(gauge.getAsDouble()).isEqualTo(expected);
+	}
+}
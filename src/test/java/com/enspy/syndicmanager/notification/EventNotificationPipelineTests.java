@@ -0,0 +1,344 @@
+package com.enspy.syndicmanager.notification;
+
+import com.enspy.syndicmanager.config.NotificationConfig;
+import com.enspy.syndicmanager.dto.notification.EventNotificationMessage;
+import com.enspy.syndicmanager.dto.notification.MailNotificationMessage;
+import com.enspy.syndicmanager.dto.request.EventRequest;
+import com.enspy.syndicmanager.models.Event;
+import com.enspy.syndicmanager.models.User;
+import com.enspy.syndicmanager.repositories.UserRepository;
+import com.enspy.syndicmanager.services.EventService;
+import com.enspy.syndicmanager.services.MailDispatchService;
+import com.enspy.syndicmanager.services.NotificationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.user.MessageDeliveryHandler;
+import com.icegreen.greenmail.user.UserManager;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.apache.qpid.server.SystemLauncher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+
+/**
+ * Chaîne complète des notifications : EventService → file des événements → fanOut → file des e-mails
+ * → MailDispatchService → SMTP, sur un broker Qpid embarqué et un serveur GreenMail.
+ * Destinataires parcourus par pages de 2 pour exercer la reprise d'une diffusion interrompue.
+ * Un destinataire refusé par le serveur SMTP part seul dans la file de rebut.
+ * Un rappel n'est publié qu'une fois, même planifié par deux instances ou après un refus du broker.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:notifications;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.rabbitmq.host=localhost",
+		"spring.mail.host=localhost",
+		"spring.mail.username=",
+		"spring.mail.password=",
+		"syndicmanager.notifications.enabled=true",
+		"syndicmanager.notifications.batch-size=2",
+		"syndicmanager.notifications.batch-timeout-ms=100",
+		"syndicmanager.notifications.mail-rate-per-second=10",
+		"syndicmanager.notifications.recipients-page-size=2",
+		"syndicmanager.notifications.reminder-lead-minutes=120",
+		"syndicmanager.notifications.reminder-scan-ms=3600000"
+})
+@ActiveProfiles("prod")
+// Le contexte est fermé avec la classe : ses consommateurs ne survivent pas au broker embarqué
+@DirtiesContext
+class EventNotificationPipelineTests {
+
+	@RegisterExtension
+	static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+	private static final SystemLauncher broker = new SystemLauncher();
+
+	@Autowired
+	private EventService eventService;
+
+	@Autowired
+	private NotificationService notificationService;
+
+	@Autowired
+	private MailDispatchService mailDispatchService;
+
+	@SpyBean
+	private RabbitTemplate rabbitTemplate;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@SpyBean
+	private UserRepository userRepository;
+
+	@DynamicPropertySource
+	static void embeddedServers(DynamicPropertyRegistry registry) throws Exception {
+		int amqpPort = freePort();
+		Map<String, Object> attributes = new HashMap<>();
+		attributes.put("type", "Memory");
+		attributes.put("initialConfigurationLocation",
+				EventNotificationPipelineTests.class.getResource("/qpid-config.json").toExternalForm());
+		attributes.put("startupLoggedToSystemOut", false);
+		attributes.put("context", Map.of(
+				"qpid.amqp_port", amqpPort,
+				"qpid.work_dir", Files.createTempDirectory("qpid").toString()));
+		broker.startup(attributes);
+
+		registry.add("spring.rabbitmq.port", () -> amqpPort);
+		registry.add("spring.mail.port", ServerSetupTest.SMTP::getPort);
+	}
+
+	@Test
+	void createdEventIsMailedToActiveMembersAtLimitedRate() throws Exception {
+		for (int i = 0; i < 5; i++) {
+			member("actif" + i, true);
+		}
+		member("inactif", false);
+		Set<String> activeMembers = userRepository.findAll().stream()
+				.filter(User::isActive)
+				.map(User::getEmail)
+				.collect(Collectors.toSet());
+
+		long start = System.nanoTime();
+		eventService.createEvent(event("Assemblée générale", LocalDateTime.now().plusDays(10), true));
+
+		assertThat(greenMail.waitForIncomingEmail(10_000, activeMembers.size())).isTrue();
+		long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+		MimeMessage[] mails = greenMail.getReceivedMessages();
+		assertThat(recipients(mails)).isEqualTo(activeMembers);
+		assertThat(mails[0].getSubject()).isEqualTo("Nouvel événement : Assemblée générale");
+		// Lots de 2 e-mails à 10 par seconde : chaque lot après le premier attend 200 ms
+		assertThat(elapsedMs).isGreaterThanOrEqualTo((activeMembers.size() - 2) * 100L);
+	}
+
+	@Test
+	void remindersReachParticipantsOfEventsStartingSoon() throws Exception {
+		List<User> participants = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			participants.add(member("participant" + i, true));
+		}
+		member("absent", true);
+
+		Event soon = eventService.createEvent(event("Réunion du bureau", LocalDateTime.now().plusMinutes(90), false)).getData();
+		Event later = eventService.createEvent(event("Fête annuelle", LocalDateTime.now().plusDays(30), false)).getData();
+		eventService.addParticipants(soon.getId(), participants.stream().map(User::getId).toList());
+		eventService.addParticipants(later.getId(), participants.stream().map(User::getId).toList());
+
+		// Deux instances planifient en même temps : le rappel n'est publié qu'une fois
+		Callable<Void> pass = () -> {
+			notificationService.scheduleReminders();
+			return null;
+		};
+		ExecutorService instances = Executors.newFixedThreadPool(2);
+		try {
+			for (Future<Void> done : instances.invokeAll(List.of(pass, pass))) {
+				done.get();
+			}
+		} finally {
+			instances.shutdownNow();
+		}
+
+		assertThat(greenMail.waitForIncomingEmail(10_000, participants.size())).isTrue();
+		// Laisse le temps à un éventuel e-mail en trop d'arriver
+		Thread.sleep(1_000);
+		MimeMessage[] mails = greenMail.getReceivedMessages();
+		assertThat(recipients(mails))
+				.isEqualTo(participants.stream().map(User::getEmail).collect(Collectors.toSet()));
+		assertThat(mails).hasSize(participants.size());
+		assertThat(mails[0].getSubject()).isEqualTo("Rappel : Réunion du bureau");
+	}
+
+	@Test
+	void refusedReminderIsRetriedWithoutRepeatingTheOthers() throws Exception {
+		List<User> first = List.of(member("rappel-a0", true), member("rappel-a1", true));
+		List<User> second = List.of(member("rappel-b0", true), member("rappel-b1", true));
+		Event published = eventService.createEvent(event("Permanence", LocalDateTime.now().plusMinutes(70), false)).getData();
+		Event refused = eventService.createEvent(event("Visite du chantier", LocalDateTime.now().plusMinutes(100), false)).getData();
+		eventService.addParticipants(published.getId(), first.stream().map(User::getId).toList());
+		eventService.addParticipants(refused.getId(), second.stream().map(User::getId).toList());
+
+		// Le broker refuse une fois le rappel du second événement, après la publication du premier
+		AtomicBoolean failed = new AtomicBoolean();
+		doAnswer(invocation -> {
+			if (invocation.getArgument(2) instanceof EventNotificationMessage message
+					&& message.getType() == EventNotificationMessage.Type.REMINDER
+					&& message.getEventId().equals(refused.getId())
+					&& failed.compareAndSet(false, true)) {
+				throw new AmqpConnectException(new IOException("Broker indisponible"));
+			}
+			return invocation.callRealMethod();
+		}).when(rabbitTemplate).convertAndSend(eq(NotificationConfig.EXCHANGE), eq(NotificationConfig.EVENTS_ROUTING_KEY),
+				any(Object.class));
+
+		notificationService.scheduleReminders();
+		notificationService.scheduleReminders();
+
+		Set<String> participants = new HashSet<>();
+		first.forEach(user -> participants.add(user.getEmail()));
+		second.forEach(user -> participants.add(user.getEmail()));
+		assertThat(greenMail.waitForIncomingEmail(10_000, participants.size())).isTrue();
+		// Laisse le temps à un rappel publié deux fois d'arriver
+		Thread.sleep(1_000);
+		MimeMessage[] mails = greenMail.getReceivedMessages();
+		assertThat(failed).isTrue();
+		assertThat(mails).hasSize(participants.size());
+		assertThat(recipients(mails)).isEqualTo(participants);
+	}
+
+	@Test
+	void interruptedFanOutResumesAfterTheLastConfirmedPage() throws Exception {
+		for (int i = 0; i < 5; i++) {
+			member("reprise" + i, true);
+		}
+		Set<String> activeMembers = userRepository.findAll().stream()
+				.filter(User::isActive)
+				.map(User::getEmail)
+				.collect(Collectors.toSet());
+
+		// La deuxième page échoue une fois : la première est déjà confirmée par le broker
+		AtomicBoolean failed = new AtomicBoolean();
+		// Le dépôt est un proxy Spring Data : l'appel réel passe par la réponse par défaut de l'espion
+		Answer<?> repository = mockingDetails(userRepository).getMockCreationSettings().getDefaultAnswer();
+		doAnswer(invocation -> {
+			UUID after = invocation.getArgument(0);
+			if (after.getMostSignificantBits() != 0 || after.getLeastSignificantBits() != 0) {
+				if (failed.compareAndSet(false, true)) {
+					throw new DataAccessResourceFailureException("Base indisponible");
+				}
+			}
+			return repository.answer(invocation);
+		}).when(userRepository).findActiveMembersAfter(any(), any());
+
+		eventService.createEvent(event("Élections du bureau", LocalDateTime.now().plusDays(20), true));
+
+		assertThat(greenMail.waitForIncomingEmail(10_000, activeMembers.size())).isTrue();
+		// Laisse le temps à un éventuel e-mail renvoyé d'arriver
+		Thread.sleep(1_000);
+		MimeMessage[] mails = greenMail.getReceivedMessages();
+		assertThat(failed).isTrue();
+		assertThat(mails).hasSize(activeMembers.size());
+		assertThat(recipients(mails)).isEqualTo(activeMembers);
+	}
+
+	@Test
+	void rejectedRecipientIsDeadLetteredWhileTheRestOfItsBatchIsSent() throws Exception {
+		// Le serveur répond 451 au DATA de cette boîte, les autres sont livrées normalement
+		UserManager users = greenMail.getUserManager();
+		MessageDeliveryHandler delivery = users.getMessageDeliveryHandler();
+		users.setMessageDeliveryHandler((message, address) -> {
+			if (address.getEmail().equals("refuse@syndic.test")) {
+				throw new MessagingException("Boîte inexistante");
+			}
+			return delivery.handle(message, address);
+		});
+		double sent = mails("sent");
+		double failed = mails("failed");
+
+		mailDispatchService.send(List.of(mail("accepte@syndic.test"), mail("refuse@syndic.test")));
+
+		assertThat(recipients(greenMail.getReceivedMessages())).containsExactly("accepte@syndic.test");
+		assertThat(deadLetteredMail().getTo()).isEqualTo("refuse@syndic.test");
+		assertThat(mails("sent")).isEqualTo(sent + 1);
+		assertThat(mails("failed")).isEqualTo(failed + 1);
+	}
+
+	private double mails(String result) {
+		return meterRegistry.counter("syndicmanager.notifications.mail", "result", result).count();
+	}
+
+	private MailNotificationMessage deadLetteredMail() throws IOException {
+		org.springframework.amqp.core.Message message;
+		while ((message = rabbitTemplate.receive(NotificationConfig.DEAD_LETTER_QUEUE, 5_000)) != null) {
+			if (NotificationConfig.MAIL_ROUTING_KEY.equals(message.getMessageProperties().getReceivedRoutingKey())) {
+				return objectMapper.readValue(message.getBody(), MailNotificationMessage.class);
+			}
+		}
+		throw new AssertionError("Aucun e-mail dans la file de rebut");
+	}
+
+	private static MailNotificationMessage mail(String to) {
+		return MailNotificationMessage.builder()
+				.to(to)
+				.subject("Assemblée générale")
+				.body("Ordre du jour à venir")
+				.build();
+	}
+
+	private User member(String username, boolean active) {
+		return userRepository.save(User.builder()
+				.username(username)
+				.firstName(username)
+				.email(username + "@syndic.test")
+				.active(active)
+				.build());
+	}
+
+	private static EventRequest event(String title, LocalDateTime startDate, boolean notifyMembers) {
+		return EventRequest.builder()
+				.title(title)
+				.description("Ordre du jour à venir")
+				.location("Salle des fêtes")
+				.startDate(startDate)
+				.endDate(startDate.plusHours(2))
+				.authorName("Bureau")
+				.category("Réunion")
+				.notifyMembers(notifyMembers)
+				.build();
+	}
+
+	private static Set<String> recipients(MimeMessage[] mails) throws Exception {
+		Set<String> recipients = new HashSet<>();
+		for (MimeMessage mail : mails) {
+			recipients.add(mail.getRecipients(Message.RecipientType.TO)[0].toString());
+		}
+		return recipients;
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
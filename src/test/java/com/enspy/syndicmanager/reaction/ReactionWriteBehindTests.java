@@ -0,0 +1,178 @@
+package com.enspy.syndicmanager.reaction;
+
+import com.enspy.syndicmanager.dto.request.PublicationRequest;
+import com.enspy.syndicmanager.dto.request.ReactionRequest;
+import com.enspy.syndicmanager.dto.response.ReactionSummaryDto;
+import com.enspy.syndicmanager.models.Publication;
+import com.enspy.syndicmanager.models.PublicationReactionCount;
+import com.enspy.syndicmanager.models.Reaction;
+import com.enspy.syndicmanager.models.User;
+import com.enspy.syndicmanager.repositories.PublicationReactionCountRepository;
+import com.enspy.syndicmanager.repositories.PublicationRepository;
+import com.enspy.syndicmanager.repositories.UserRepository;
+import com.enspy.syndicmanager.services.PublicationService;
+import com.enspy.syndicmanager.services.ReactionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mockingDetails;
+
+/**
+ * Mode BUFFERED des réactions : validation avant la mise en attente,
+ * écriture groupée, compteur créé en même temps par une autre instance
+ * et isolement d'une bascule refusée par la base.
+ * Le passage planifié est espacé d'une heure : les tests déclenchent eux-mêmes l'écriture.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:reactions;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"syndicmanager.reactions.write-mode=BUFFERED",
+		"syndicmanager.reactions.flush-interval-ms=3600000",
+		"syndicmanager.notifications.enabled=false"
+})
+@ActiveProfiles("prod")
+class ReactionWriteBehindTests {
+
+	@Autowired
+	private ReactionService reactionService;
+
+	@Autowired
+	private PublicationService publicationService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@SpyBean
+	private PublicationRepository publicationRepository;
+
+	@SpyBean
+	private PublicationReactionCountRepository reactionCountRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void invalidReactionsAreRejectedBeforeBuffering() {
+		User user = newUser("invalide");
+		Publication publication = newPublication();
+
+		assertThat(reactionService.createReaction(new ReactionRequest(publication.getId(), user.getId(), null))
+				.getStatus()).isEqualTo(400);
+		assertThat(reactionService.createReaction(new ReactionRequest(null, user.getId(), Reaction.ReactionType.LIKE))
+				.getStatus()).isEqualTo(400);
+		assertThat(reactionService.removeReaction(null, publication.getId(), Reaction.ReactionType.LIKE)
+				.getStatus()).isEqualTo(400);
+		assertThat(reactionService.createReaction(new ReactionRequest(UUID.randomUUID(), user.getId(), Reaction.ReactionType.LIKE))
+				.getStatus()).isEqualTo(404);
+	}
+
+	@Test
+	void togglesAreCollapsedAndWrittenOnFlush() {
+		User user = newUser("bascule");
+		Publication publication = newPublication();
+
+		assertThat(reactionService.createReaction(new ReactionRequest(publication.getId(), user.getId(), Reaction.ReactionType.LIKE))
+				.getStatus()).isEqualTo(202);
+		reactionService.removeReaction(user.getId(), publication.getId(), Reaction.ReactionType.LIKE);
+		reactionService.createReaction(new ReactionRequest(publication.getId(), user.getId(), Reaction.ReactionType.LIKE));
+		reactionService.createReaction(new ReactionRequest(publication.getId(), user.getId(), Reaction.ReactionType.LOVE));
+
+		// Rien n'est écrit avant le passage
+		assertThat(summary(publication, user).getTotal()).isZero();
+
+		reactionService.flushPendingReactions();
+
+		ReactionSummaryDto summary = summary(publication, user);
+		assertThat(summary.getTotal()).isEqualTo(2);
+		assertThat(summary.getUserReactions()).containsExactlyInAnyOrder(Reaction.ReactionType.LIKE, Reaction.ReactionType.LOVE);
+		assertThat(publicationRepository.findById(publication.getId()).orElseThrow().getLikesCount()).isEqualTo(2);
+	}
+
+	@Test
+	void rejectedToggleIsDroppedWithoutBlockingTheOthers() {
+		User user = newUser("refus");
+		Publication accepted = newPublication();
+		Publication rejected = newPublication();
+		doThrow(new DataIntegrityViolationException("likes_count"))
+				.when(publicationRepository).addToLikesCount(eq(rejected.getId()), anyInt());
+		double dropped = meterRegistry.counter("syndicmanager.reactions.dropped").count();
+
+		reactionService.createReaction(new ReactionRequest(accepted.getId(), user.getId(), Reaction.ReactionType.LIKE));
+		reactionService.createReaction(new ReactionRequest(rejected.getId(), user.getId(), Reaction.ReactionType.LIKE));
+		reactionService.flushPendingReactions();
+
+		assertThat(summary(accepted, user).getTotal()).isEqualTo(1);
+		assertThat(summary(rejected, user).getTotal()).isZero();
+		assertThat(meterRegistry.counter("syndicmanager.reactions.dropped").count()).isEqualTo(dropped + 1);
+		assertThat(meterRegistry.get("syndicmanager.reactions.pending").gauge().value()).isZero();
+	}
+
+	@Test
+	void counterCreatedConcurrentlyIsIncrementedAfterARetry() {
+		User user = newUser("concurrent");
+		Publication publication = newPublication();
+		PublicationReactionCount.Key key = new PublicationReactionCount.Key(publication.getId(), Reaction.ReactionType.LOVE);
+
+		// Une autre instance valide le premier LOVE juste après la mise à jour sans effet de ce lot
+		AtomicBoolean raced = new AtomicBoolean();
+		Answer<?> repository = mockingDetails(reactionCountRepository).getMockCreationSettings().getDefaultAnswer();
+		doAnswer(invocation -> {
+			Object updated = repository.answer(invocation);
+			if (Integer.valueOf(0).equals(updated) && raced.compareAndSet(false, true)) {
+				CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status ->
+						reactionCountRepository.save(PublicationReactionCount.builder().id(key).count(1).build()))).join();
+			}
+			return updated;
+		}).when(reactionCountRepository).addToCount(eq(publication.getId()), eq(Reaction.ReactionType.LOVE), anyLong());
+		double dropped = meterRegistry.counter("syndicmanager.reactions.dropped").count();
+
+		reactionService.createReaction(new ReactionRequest(publication.getId(), user.getId(), Reaction.ReactionType.LOVE));
+		reactionService.flushPendingReactions();
+
+		assertThat(raced).isTrue();
+		assertThat(summary(publication, user).getCounts()).containsEntry(Reaction.ReactionType.LOVE, 2L);
+		assertThat(summary(publication, user).getUserReactions()).containsExactly(Reaction.ReactionType.LOVE);
+		assertThat(meterRegistry.counter("syndicmanager.reactions.dropped").count()).isEqualTo(dropped);
+	}
+
+	private ReactionSummaryDto summary(Publication publication, User user) {
+		return reactionService.getReactionSummary(publication.getId(), user.getId()).getData();
+	}
+
+	private User newUser(String username) {
+		return userRepository.save(User.builder()
+				.username(username)
+				.email(username + "@syndic.test")
+				.active(true)
+				.build());
+	}
+
+	private Publication newPublication() {
+		return publicationService.createPublication(PublicationRequest.builder()
+				.content("Assemblée générale")
+				.authorName("Bureau")
+				.build()).getData();
+	}
+}
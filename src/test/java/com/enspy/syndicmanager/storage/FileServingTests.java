@@ -0,0 +1,175 @@
+package com.enspy.syndicmanager.storage;
+
+import com.enspy.syndicmanager.models.OrganisationUnion;
+import com.enspy.syndicmanager.repositories.OrganisationUnionRepositories;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ContentDisposition;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Envoi des fichiers stockés (FileServingService) : plages d'octets, If-Range, requêtes conditionnelles,
+ * HEAD et nom du fichier dans Content-Disposition.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:sqlite:target/file-serving-tests.db",
+		"syndicmanager.file-storage=target/file-serving-tests",
+		"syndicmanager.notifications.enabled=false"
+})
+@AutoConfigureMockMvc
+class FileServingTests {
+
+	// Guillemets : le nom doit être échappé dans Content-Disposition
+	private static final String FILENAME = "releve \"final\" v2.bin";
+
+	private final byte[] logo = randomBytes(1000);
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private OrganisationUnionRepositories organisationUnionRepositories;
+
+	private UUID unionId;
+
+	@BeforeEach
+	void uploadLogo() throws Exception {
+		unionId = newUnion();
+		MvcResult started = mockMvc.perform(put("/storage/unions/{id}/logo/{name}", unionId, FILENAME)
+						.contentType("application/octet-stream")
+						.content(logo))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void wholeFileKeepsItsNameInContentDisposition() throws Exception {
+		MockHttpServletResponse response = mockMvc.perform(get("/storage/unions/{id}/logo/{name}", unionId, FILENAME))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Accept-Ranges", "bytes"))
+				.andExpect(content().bytes(logo))
+				.andReturn().getResponse();
+
+		ContentDisposition disposition = ContentDisposition.parse(response.getHeader("Content-Disposition"));
+		assertThat(disposition.isInline()).isTrue();
+		assertThat(disposition.getFilename()).isEqualTo(FILENAME);
+	}
+
+	@Test
+	void rangeIsServedAsPartialContent() throws Exception {
+		logo("bytes=100-199")
+				.andExpect(status().isPartialContent())
+				.andExpect(header().string("Content-Range", "bytes 100-199/1000"))
+				.andExpect(header().longValue("Content-Length", 100))
+				.andExpect(content().bytes(Arrays.copyOfRange(logo, 100, 200)));
+
+		logo("bytes=-10")
+				.andExpect(status().isPartialContent())
+				.andExpect(header().string("Content-Range", "bytes 990-999/1000"))
+				.andExpect(content().bytes(Arrays.copyOfRange(logo, 990, 1000)));
+
+		// Fin au-delà du fichier, même trop grande pour un long : servie jusqu'au dernier octet
+		logo("bytes=900-99999999999999999999")
+				.andExpect(status().isPartialContent())
+				.andExpect(header().string("Content-Range", "bytes 900-999/1000"));
+	}
+
+	@Test
+	void rangeOutsideTheFileIsNotSatisfiable() throws Exception {
+		logo("bytes=1000-")
+				.andExpect(status().isRequestedRangeNotSatisfiable())
+				.andExpect(header().string("Content-Range", "bytes */1000"));
+
+		logo("bytes=99999999999999999999-")
+				.andExpect(status().isRequestedRangeNotSatisfiable())
+				.andExpect(header().string("Content-Range", "bytes */1000"));
+	}
+
+	@Test
+	void rangeOfAnotherVersionReturnsTheWholeFile() throws Exception {
+		String etag = mockMvc.perform(get("/storage/unions/{id}/logo/{name}", unionId, FILENAME))
+				.andReturn().getResponse().getHeader("ETag");
+
+		mockMvc.perform(get("/storage/unions/{id}/logo/{name}", unionId, FILENAME)
+						.header("Range", "bytes=0-9")
+						.header("If-Range", "\"autre-version\""))
+				.andExpect(status().isOk())
+				.andExpect(header().doesNotExist("Content-Range"))
+				.andExpect(content().bytes(logo));
+
+		mockMvc.perform(get("/storage/unions/{id}/logo/{name}", unionId, FILENAME)
+						.header("Range", "bytes=0-9")
+						.header("If-Range", etag))
+				.andExpect(status().isPartialContent())
+				.andExpect(content().bytes(Arrays.copyOfRange(logo, 0, 10)));
+	}
+
+	@Test
+	void unchangedFileIsNotSentAgain() throws Exception {
+		MockHttpServletResponse first = mockMvc.perform(get("/storage/unions/{id}/logo/{name}", unionId, FILENAME))
+				.andReturn().getResponse();
+
+		mockMvc.perform(get("/storage/unions/{id}/logo/{name}", unionId, FILENAME)
+						.header("If-None-Match", first.getHeader("ETag")))
+				.andExpect(status().isNotModified())
+				.andExpect(content().bytes(new byte[0]));
+
+		mockMvc.perform(get("/storage/unions/{id}/logo/{name}", unionId, FILENAME)
+						.header("If-Modified-Since", first.getHeader("Last-Modified")))
+				.andExpect(status().isNotModified());
+
+		mockMvc.perform(get("/storage/unions/{id}/logo/{name}", unionId, FILENAME)
+						.header("If-None-Match", "\"autre-version\""))
+				.andExpect(status().isOk())
+				.andExpect(content().bytes(logo));
+	}
+
+	@Test
+	void headAnnouncesTheFileWithoutItsBody() throws Exception {
+		mockMvc.perform(head("/storage/unions/{id}/logo/{name}", unionId, FILENAME))
+				.andExpect(status().isOk())
+				.andExpect(header().longValue("Content-Length", logo.length))
+				.andExpect(header().exists("ETag"))
+				.andExpect(content().bytes(new byte[0]));
+	}
+
+	private ResultActions logo(String range) throws Exception {
+		return mockMvc.perform(get("/storage/unions/{id}/logo/{name}", unionId, FILENAME).header("Range", range));
+	}
+
+	private UUID newUnion() {
+		OrganisationUnion union = new OrganisationUnion();
+		union.setLongName("Syndicat des transporteurs");
+		union.setShortName("SYNTRA");
+		union.setEmail(UUID.randomUUID() + "@syndic.test");
+		return organisationUnionRepositories.save(union).getId();
+	}
+
+	private static byte[] randomBytes(int length) {
+		byte[] bytes = new byte[length];
+		new Random(length).nextBytes(bytes);
+		return bytes;
+	}
+}
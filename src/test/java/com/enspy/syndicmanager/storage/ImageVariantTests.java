@@ -0,0 +1,154 @@
+package com.enspy.syndicmanager.storage;
+
+import com.enspy.syndicmanager.models.MediaFile;
+import com.enspy.syndicmanager.services.BlobStorageService;
+import com.enspy.syndicmanager.services.ImageVariantService;
+import com.enspy.syndicmanager.services.ImageVariantService.Variant;
+import com.enspy.syndicmanager.services.MediaStoreService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Déclinaisons des images (ImageVariantService) : miniature et taille moyenne calculées
+ * en arrière-plan après l'enregistrement, l'original servi en attendant.
+ * Une image illisible n'est plus retentée, une écriture ratée l'est à la lecture suivante.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:sqlite:target/storage-tests.db",
+		"syndicmanager.file-storage=target/storage-tests",
+		"syndicmanager.media.gc-grace-period-minutes=0",
+		"syndicmanager.notifications.enabled=false"
+})
+class ImageVariantTests {
+
+	@Autowired
+	private MediaStoreService mediaStoreService;
+
+	@Autowired
+	private ImageVariantService imageVariantService;
+
+	@SpyBean
+	private BlobStorageService blobStorageService;
+
+	@Test
+	void variantsAreScaledDownKeepingTheAspectRatio() throws Exception {
+		MediaFile logo = put("logo.png", png(1600, 1000), "image/png");
+
+		ImageVariantService.VariantFile thumbnail = awaitVariant(logo, Variant.THUMBNAIL);
+		ImageVariantService.VariantFile medium = awaitVariant(logo, Variant.MEDIUM);
+
+		BufferedImage small = ImageIO.read(thumbnail.path().toFile());
+		assertThat(small.getWidth()).isEqualTo(200);
+		assertThat(small.getHeight()).isEqualTo(125);
+		assertThat(thumbnail.contentType()).isEqualTo("image/png");
+		assertThat(ImageIO.read(medium.path().toFile()).getWidth()).isEqualTo(800);
+		assertThat(thumbnail.etag()).isNotEqualTo(medium.etag());
+	}
+
+	@Test
+	void nonImagesAndUnreadableImagesKeepTheOriginal() throws Exception {
+		MediaFile pdf = put("statuts.pdf", randomBytes(), "application/pdf");
+		assertThat(imageVariantService.find(pdf.getHash(), pdf.getContentType(), Variant.THUMBNAIL)).isEmpty();
+		assertThat(imageVariantService.isFinal(pdf.getHash(), pdf.getContentType(), Variant.THUMBNAIL)).isTrue();
+
+		MediaFile broken = put("casse.png", randomBytes(), "image/png");
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (!imageVariantService.isFinal(broken.getHash(), broken.getContentType(), Variant.THUMBNAIL)
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		// Échec retenu : l'original est servi sans relancer le calcul à chaque requête
+		assertThat(imageVariantService.isFinal(broken.getHash(), broken.getContentType(), Variant.THUMBNAIL)).isTrue();
+		assertThat(imageVariantService.find(broken.getHash(), broken.getContentType(), Variant.THUMBNAIL)).isEmpty();
+	}
+
+	@Test
+	void failedWriteIsRetriedOnTheNextRead() throws Exception {
+		// Le répertoire des déclinaisons est un fichier : leur écriture échoue comme sur un disque plein
+		Path blocker = Files.createDirectories(Path.of("target/storage-tests")).resolve("variants-blocked");
+		Files.write(blocker, new byte[0]);
+		byte[] content = png(400, 300);
+		String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+		AtomicBoolean blocked = new AtomicBoolean(true);
+		CountDownLatch failedWrite = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			if (blocked.get() && Thread.currentThread().getName().startsWith("image-variants-")) {
+				failedWrite.countDown();
+				return blocker.resolve("variant.png");
+			}
+			return invocation.callRealMethod();
+		}).when(blobStorageService).variantPath(eq(hash), any());
+
+		MediaFile logo = put("bloque.png", content, "image/png");
+		assertThat(failedWrite.await(5, TimeUnit.SECONDS)).isTrue();
+		blocked.set(false);
+
+		assertThat(awaitVariant(logo, Variant.THUMBNAIL).size()).isPositive();
+	}
+
+	@Test
+	void sizeParameterIsValidated() {
+		assertThat(Variant.fromParam(null)).isEqualTo(Variant.ORIGINAL);
+		assertThat(Variant.fromParam("Thumbnail")).isEqualTo(Variant.THUMBNAIL);
+		assertThatThrownBy(() -> Variant.fromParam("huge")).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private ImageVariantService.VariantFile awaitVariant(MediaFile file, Variant variant) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5_000;
+		Optional<ImageVariantService.VariantFile> found;
+		while ((found = imageVariantService.find(file.getHash(), file.getContentType(), variant)).isEmpty()
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		assertThat(found).as(variant.name()).isPresent();
+		return found.get();
+	}
+
+	private MediaFile put(String filename, byte[] content, String contentType) throws IOException {
+		return mediaStoreService.put("variants", filename, new ByteArrayInputStream(content), content.length,
+				Long.MAX_VALUE, contentType);
+	}
+
+	// Couleur aléatoire : un nouveau blob à chaque exécution, la base de test étant conservée
+	private static byte[] png(int width, int height) throws IOException {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		graphics.setColor(new Color(ThreadLocalRandom.current().nextInt(0x1000000)));
+		graphics.fillRect(0, 0, width, height);
+		graphics.dispose();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", out);
+		return out.toByteArray();
+	}
+
+	private static byte[] randomBytes() {
+		byte[] bytes = new byte[512];
+		ThreadLocalRandom.current().nextBytes(bytes);
+		return bytes;
+	}
+}
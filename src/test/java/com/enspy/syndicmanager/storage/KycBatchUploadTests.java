@@ -0,0 +1,118 @@
+package com.enspy.syndicmanager.storage;
+
+import com.enspy.syndicmanager.dto.response.ResponseDto;
+import com.enspy.syndicmanager.models.Branch;
+import com.enspy.syndicmanager.models.OrganisationUnion;
+import com.enspy.syndicmanager.models.SyndUser;
+import com.enspy.syndicmanager.repositories.BranchRepository;
+import com.enspy.syndicmanager.repositories.OrganisationUnionRepositories;
+import com.enspy.syndicmanager.repositories.SyndUserRepository;
+import com.enspy.syndicmanager.services.StorageService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lot de documents KYC (StorageService.UploadMultipleFile) : résultat par fichier,
+ * 404 réservé à un utilisateur ou une branche inconnus, noms en double refusés avant écriture.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:sqlite:target/storage-tests.db",
+		"syndicmanager.file-storage=target/storage-tests",
+		"syndicmanager.upload.max-file-size=64KB",
+		"syndicmanager.notifications.enabled=false"
+})
+class KycBatchUploadTests {
+
+	@Autowired
+	private StorageService storageService;
+
+	@Autowired
+	private SyndUserRepository syndUserRepository;
+
+	@Autowired
+	private BranchRepository branchRepository;
+
+	@Autowired
+	private OrganisationUnionRepositories organisationUnionRepositories;
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void eachFileGetsItsOwnResult() {
+		Branch branch = newBranch();
+		UUID userId = newUser();
+
+		ResponseDto response = storageService.UploadMultipleFile(userId, branch.getId(), new MultipartFile[] {
+				file("cni.pdf", 1_000),
+				file("trop-gros.pdf", 100_000),
+				file("statuts.pdf", 2_000)
+		}).block();
+
+		assertThat(response.getStatus()).isEqualTo(207);
+		assertThat(response.getText()).isEqualTo("2 of 3 files uploaded");
+		Map<String, ?> files = (Map<String, ?>) response.getData();
+		assertThat(files.keySet()).containsExactly("cni.pdf", "trop-gros.pdf", "statuts.pdf");
+		assertThat(storageService.findKycFile(userId, branch.getId(), "cni.pdf")).isPresent();
+		assertThat(storageService.findKycFile(userId, branch.getId(), "trop-gros.pdf")).isEmpty();
+	}
+
+	@Test
+	void duplicateNamesAreRejectedBeforeWriting() {
+		Branch branch = newBranch();
+		UUID userId = newUser();
+
+		ResponseDto response = storageService.UploadMultipleFile(userId, branch.getId(), new MultipartFile[] {
+				file("cni.pdf", 1_000),
+				file("scans/cni.pdf", 1_500)
+		}).block();
+
+		assertThat(response.getStatus()).isEqualTo(400);
+		assertThat(response.getText()).contains("cni.pdf");
+		assertThat(storageService.findKycFile(userId, branch.getId(), "cni.pdf")).isEmpty();
+	}
+
+	@Test
+	void unknownUserIsNotFound() {
+		Branch branch = newBranch();
+
+		ResponseDto response = storageService.UploadMultipleFile(UUID.randomUUID(), branch.getId(),
+				new MultipartFile[] { file("cni.pdf", 1_000) }).block();
+
+		assertThat(response.getStatus()).isEqualTo(404);
+	}
+
+	private Branch newBranch() {
+		OrganisationUnion union = new OrganisationUnion();
+		union.setLongName("Syndicat des transporteurs");
+		union.setShortName("SYNTRA");
+		union.setEmail(UUID.randomUUID() + "@syndic.test");
+		union = organisationUnionRepositories.save(union);
+
+		Branch branch = new Branch();
+		branch.setName("Antenne de Douala");
+		branch.setOrganisationUnion(union);
+		return branchRepository.save(branch);
+	}
+
+	private UUID newUser() {
+		UUID id = UUID.randomUUID();
+		syndUserRepository.save(SyndUser.builder()
+				.id(id)
+				.username("membre-" + id)
+				.email(id + "@syndic.test")
+				.password("secret")
+				.build());
+		return id;
+	}
+
+	private static MockMultipartFile file(String name, int size) {
+		return new MockMultipartFile("files", name, "application/pdf", new byte[size]);
+	}
+}
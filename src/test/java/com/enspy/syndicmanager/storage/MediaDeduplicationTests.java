@@ -0,0 +1,100 @@
+package com.enspy.syndicmanager.storage;
+
+import com.enspy.syndicmanager.models.MediaFile;
+import com.enspy.syndicmanager.repositories.MediaBlobRepository;
+import com.enspy.syndicmanager.services.MediaStoreService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Stockage dédupliqué (MediaStoreService) : un contenu identique n'occupe qu'un blob,
+ * compté par référence, et le ramasse-miettes ne supprime que les blobs sans référence.
+ * Délai de grâce nul : un blob libéré est supprimable au passage suivant.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:sqlite:target/storage-tests.db",
+		"syndicmanager.file-storage=target/storage-tests",
+		"syndicmanager.media.gc-grace-period-minutes=0",
+		"syndicmanager.notifications.enabled=false"
+})
+class MediaDeduplicationTests {
+
+	@Autowired
+	private MediaStoreService mediaStoreService;
+
+	@Autowired
+	private MediaBlobRepository mediaBlobRepository;
+
+	@Test
+	void identicalContentSharesOneBlob() throws IOException {
+		byte[] content = uniqueContent();
+
+		MediaFile first = put("dedup/a", "cni.pdf", content);
+		MediaFile second = put("dedup/b", "piece.pdf", content);
+
+		assertThat(second.getHash()).isEqualTo(first.getHash());
+		assertThat(refCount(first.getHash())).isEqualTo(2);
+		assertThat(mediaStoreService.resolve(first)).hasValueSatisfying(path ->
+				assertThat(path).hasBinaryContent(content));
+	}
+
+	@Test
+	void blobIsCollectedOnlyOnceTheLastReferenceIsGone() throws Exception {
+		byte[] content = uniqueContent();
+		MediaFile first = put("gc/a", "cni.pdf", content);
+		put("gc/b", "cni.pdf", content);
+		Path blob = mediaStoreService.resolve(first).orElseThrow();
+
+		mediaStoreService.remove("gc/a", "cni.pdf");
+		collectGarbage();
+		assertThat(refCount(first.getHash())).isEqualTo(1);
+		assertThat(blob).exists();
+
+		mediaStoreService.remove("gc/b", "cni.pdf");
+		collectGarbage();
+		assertThat(mediaBlobRepository.findById(first.getHash())).isEmpty();
+		assertThat(blob).doesNotExist();
+	}
+
+	@Test
+	void replacingAFileReleasesThePreviousContent() throws Exception {
+		MediaFile previous = put("replace", "logo.png", uniqueContent());
+		Path previousBlob = mediaStoreService.resolve(previous).orElseThrow();
+
+		MediaFile current = put("replace", "logo.png", uniqueContent());
+		collectGarbage();
+
+		assertThat(mediaStoreService.find("replace", "logo.png")).map(MediaFile::getHash).hasValue(current.getHash());
+		assertThat(previousBlob).doesNotExist();
+		assertThat(mediaStoreService.resolve(current)).isPresent();
+	}
+
+	private MediaFile put(String scope, String filename, byte[] content) throws IOException {
+		return mediaStoreService.put(scope, filename, new ByteArrayInputStream(content), content.length,
+				Long.MAX_VALUE, "application/octet-stream");
+	}
+
+	private long refCount(String hash) {
+		return mediaBlobRepository.findById(hash).orElseThrow().getRefCount();
+	}
+
+	// releasedAt doit être strictement antérieur à l'heure du passage
+	private void collectGarbage() throws InterruptedException {
+		Thread.sleep(20);
+		mediaStoreService.collectGarbage();
+	}
+
+	// Contenu propre à chaque exécution : la base de test est conservée entre deux lancements
+	private static byte[] uniqueContent() {
+		return UUID.randomUUID().toString().getBytes();
+	}
+}
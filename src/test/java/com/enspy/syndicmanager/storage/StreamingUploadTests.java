@@ -0,0 +1,144 @@
+package com.enspy.syndicmanager.storage;
+
+import com.enspy.syndicmanager.models.OrganisationUnion;
+import com.enspy.syndicmanager.repositories.OrganisationUnionRepositories;
+import com.enspy.syndicmanager.services.BlobStorageService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Uploads en flux (PUT, corps brut) : empreinte SHA-256 calculée pendant la copie
+ * et limite syndicmanager.upload.max-file-size appliquée avant et pendant l'écriture,
+ * sans rien laisser sur le disque en cas de refus.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:sqlite:target/storage-tests.db",
+		"syndicmanager.file-storage=target/storage-tests",
+		"syndicmanager.upload.max-file-size=64KB",
+		"syndicmanager.notifications.enabled=false"
+})
+@AutoConfigureMockMvc
+class StreamingUploadTests {
+
+	private static final long MAX_BYTES = 64 * 1024;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private BlobStorageService blobStorageService;
+
+	@Autowired
+	private OrganisationUnionRepositories organisationUnionRepositories;
+
+	@Test
+	void logoIsStoredWithItsChecksum() throws Exception {
+		UUID unionId = newUnion();
+		byte[] logo = randomBytes(10_000);
+
+		upload(unionId, "logo.bin", logo)
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.size").value(logo.length))
+				.andExpect(jsonPath("$.data.checksum").value(sha256(logo)));
+
+		mockMvc.perform(get("/storage/unions/{id}/logo/{name}", unionId, "logo.bin"))
+				.andExpect(status().isOk())
+				.andExpect(content().bytes(logo));
+	}
+
+	@Test
+	void oversizedUploadIsRejectedWithoutLeavingFiles() throws Exception {
+		UUID unionId = newUnion();
+
+		upload(unionId, "trop-gros.bin", randomBytes((int) MAX_BYTES + 1))
+				.andExpect(status().isPayloadTooLarge());
+
+		mockMvc.perform(get("/storage/unions/{id}/logo/{name}", unionId, "trop-gros.bin"))
+				.andExpect(status().isNotFound());
+		assertThat(temporaryFiles()).isZero();
+	}
+
+	@Test
+	void bodyWithoutLengthIsStoppedOnceTheLimitIsCrossed() throws IOException {
+		// Corps chunked : la taille n'est pas annoncée, seule la copie peut l'arrêter
+		InputStream endless = new InputStream() {
+			@Override
+			public int read() {
+				return 'x';
+			}
+		};
+
+		assertThatThrownBy(() -> blobStorageService.writeTemp(endless, -1, MAX_BYTES))
+				.isInstanceOf(MaxUploadSizeExceededException.class);
+		assertThat(temporaryFiles()).isZero();
+
+		BlobStorageService.TempBlob accepted = blobStorageService.writeTemp(
+				new ByteArrayInputStream(randomBytes((int) MAX_BYTES)), -1, MAX_BYTES);
+		assertThat(accepted.size()).isEqualTo(MAX_BYTES);
+		Files.delete(accepted.file());
+	}
+
+	private ResultActions upload(UUID unionId, String filename, byte[] body) throws Exception {
+		MvcResult started = mockMvc.perform(put("/storage/unions/{id}/logo/{name}", unionId, filename)
+						.contentType("application/octet-stream")
+						.content(body))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		return mockMvc.perform(asyncDispatch(started));
+	}
+
+	private UUID newUnion() {
+		OrganisationUnion union = new OrganisationUnion();
+		union.setLongName("Syndicat des transporteurs");
+		union.setShortName("SYNTRA");
+		union.setEmail(UUID.randomUUID() + "@syndic.test");
+		return organisationUnionRepositories.save(union).getId();
+	}
+
+	private static long temporaryFiles() throws IOException {
+		Path tmp = Path.of("target/storage-tests/blobs/tmp");
+		if (!Files.isDirectory(tmp)) {
+			return 0;
+		}
+		try (Stream<Path> files = Files.list(tmp)) {
+			return files.count();
+		}
+	}
+
+	private static byte[] randomBytes(int length) {
+		byte[] bytes = new byte[length];
+		new Random(length).nextBytes(bytes);
+		return bytes;
+	}
+
+	private static String sha256(byte[] bytes) throws Exception {
+		return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+	}
+}